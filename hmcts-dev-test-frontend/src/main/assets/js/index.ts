@@ -1,4 +1,7 @@
 import '../scss/main.scss';
 import { initAll } from 'govuk-frontend';
 
+import { initTaskEvents } from './task-events';
+
 initAll();
+initTaskEvents();
@@ -0,0 +1,80 @@
+interface TaskChange {
+  type: 'CREATED' | 'UPDATED' | 'DELETED' | 'ARCHIVED';
+  taskId: number;
+  task: { id: number; title: string; status: string } | null;
+}
+
+function toTitleCase(status: string): string {
+  return status
+    .toLowerCase()
+    .replace(/_/g, ' ')
+    .replace(/\b\w/g, c => c.toUpperCase());
+}
+
+function findRow(taskId: number): HTMLTableRowElement | null {
+  const link = document.querySelector(`a[href="/task/view/${taskId}"]`);
+  return link ? link.closest('tr') : null;
+}
+
+function link(href: string, text: string): HTMLAnchorElement {
+  const anchor = document.createElement('a');
+  anchor.href = href;
+  anchor.className = 'govuk-link';
+  anchor.textContent = text;
+  return anchor;
+}
+
+function cell(...children: (Node | string)[]): HTMLTableCellElement {
+  const td = document.createElement('td');
+  td.className = 'govuk-table__cell';
+  td.append(...children);
+  return td;
+}
+
+function upsertRow(task: NonNullable<TaskChange['task']>): void {
+  const row = findRow(task.id);
+  if (row) {
+    row.cells[0].querySelector('a')!.textContent = task.title;
+    row.cells[1].textContent = toTitleCase(task.status);
+    return;
+  }
+  const body = document.querySelector('#task-list tbody');
+  if (!body) {
+    // first task, the empty list has no table to add to
+    window.location.reload();
+    return;
+  }
+  const tr = document.createElement('tr');
+  tr.className = 'govuk-table__row';
+  tr.append(
+    cell(link(`/task/view/${task.id}`, task.title)),
+    cell(toTitleCase(task.status)),
+    cell(link(`/task/edit/${task.id}`, 'Edit'), ' | ', link(`/delete-task/${task.id}`, 'Delete'))
+  );
+  body.append(tr);
+}
+
+/**
+ * Keeps the task list current from the api change feed instead of polling
+ */
+export function initTaskEvents(): void {
+  if (!document.getElementById('task-list') || typeof EventSource === 'undefined') {
+    return;
+  }
+  const source = new EventSource('/task/events');
+  const apply = (event: MessageEvent) => {
+    const change: TaskChange = JSON.parse(event.data);
+    if (change.task) {
+      upsertRow(change.task);
+    } else {
+      findRow(change.taskId)?.remove();
+    }
+  };
+  source.addEventListener('created', apply);
+  source.addEventListener('updated', apply);
+  source.addEventListener('deleted', apply);
+  // archived tasks leave the live list like deleted ones
+  source.addEventListener('archived', apply);
+  // changes were missed while disconnected
+  source.addEventListener('reset', () => window.location.reload());
+}
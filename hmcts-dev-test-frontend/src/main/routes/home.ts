@@ -1,10 +1,15 @@
-import { Application } from 'express';
-import axios from 'axios';
+import { Application, Request, Response } from 'express';
+import axios, { AxiosResponse } from 'axios';
+
+// the api answers writes with the time the writer's reads should stay on its primary database, kept per browser
+// and sent back with the reads so the page shown after a write includes it
+const PRIMARY_UNTIL_HEADER = 'x-task-primary-until';
+const PRIMARY_UNTIL_COOKIE = 'task-primary-until';
 
 export default function (app: Application): void {
   app.get('/', async (req, res) => {
     try {
-      const response = await axios.get('http://localhost:8090/task/v1/find-all');
+      const response = await axios.get('http://localhost:8090/task/v1/find-all', { headers: primaryUntil(req) });
       console.log(response.data);
       const tasks = response.data.map((task: any) => ({
         ...task,
@@ -18,17 +23,40 @@ export default function (app: Application): void {
     }
   });
 
+  // same-origin proxy for the api change feed, the browser reconnects with Last-Event-ID itself
+  app.get('/task/events', async (req, res) => {
+    const lastEventId = req.get('Last-Event-ID');
+    try {
+      const upstream = await axios.get('http://localhost:8090/task/v1/events', {
+        responseType: 'stream',
+        headers: lastEventId ? { 'Last-Event-ID': lastEventId } : {}
+      });
+      res.writeHead(200, {
+        'Content-Type': 'text/event-stream',
+        'Cache-Control': 'no-cache',
+        Connection: 'keep-alive'
+      });
+      // pipe stops reading the api while the browser is slow, the api drops it if it falls too far behind
+      upstream.data.pipe(res);
+      req.on('close', () => upstream.data.destroy());
+    } catch (error) {
+      console.error('Error opening task events:', error);
+      res.status(502).end();
+    }
+  });
+
 app.post('/task/create', async (req, res, next) => {
   const { title, description, dueDateTime } = req.body;
   const status = 'CREATED';
 
   try {
-    await axios.post('http://localhost:8090/task/v1/create', {
+    const response = await axios.post('http://localhost:8090/task/v1/create', {
       title,
       description,
       status,
       dueDateTime
     });
+    pinToPrimary(res, response);
 
     res.redirect('/');
   } catch (err) {
@@ -39,7 +67,8 @@ app.post('/task/create', async (req, res, next) => {
   app.get('/delete-task/:id', async (req, res, next) => {
   const { id } = req.params;
   try {
-    await axios.delete(`http://localhost:8090/task/v1/delete/${id}`);
+    const response = await axios.delete(`http://localhost:8090/task/v1/delete/${id}`);
+    pinToPrimary(res, response);
     res.redirect('/');
   } catch (error) {
     console.error('Error deleting task:', error);
@@ -51,7 +80,7 @@ app.get('/task/edit/:id', async (req, res, next) => {
   const { id } = req.params;
 
   try {
-    const response = await axios.get(`http://localhost:8090/task/v1/find/${id}`);
+    const response = await axios.get(`http://localhost:8090/task/v1/find/${id}`, { headers: primaryUntil(req) });
     res.render('edit', { task: response.data });
   } catch (err) {
     next(err);
@@ -63,12 +92,13 @@ app.post('/task/edit/:id', async (req, res, next) => {
   const { title, description, status, dueDateTime } = req.body;
 
   try {
-    await axios.put(`http://localhost:8090/task/v1/update/${id}`, {
+    const response = await axios.put(`http://localhost:8090/task/v1/update/${id}`, {
       title,
       description,
       status,
       dueDateTime
     });
+    pinToPrimary(res, response);
 
     res.redirect('/');
   } catch (err) {
@@ -80,7 +110,7 @@ app.get('/task/view/:id', async (req, res, next) => {
   const { id } = req.params;
 
   try {
-    const response = await axios.get(`http://localhost:8090/task/v1/find/${id}`);
+    const response = await axios.get(`http://localhost:8090/task/v1/find/${id}`, { headers: primaryUntil(req) });
     const task = {
       ...response.data,
       status: toTitleCase(response.data.status)
@@ -93,6 +123,18 @@ app.get('/task/view/:id', async (req, res, next) => {
 
 }
 
+function primaryUntil(req: Request): Record<string, string> {
+  const until = req.cookies?.[PRIMARY_UNTIL_COOKIE];
+  return until ? { [PRIMARY_UNTIL_HEADER]: until } : {};
+}
+
+function pinToPrimary(res: Response, response: AxiosResponse): void {
+  const until = response.headers?.[PRIMARY_UNTIL_HEADER];
+  if (until) {
+    res.cookie(PRIMARY_UNTIL_COOKIE, until, { httpOnly: true, sameSite: 'lax', expires: new Date(Number(until)) });
+  }
+}
+
 function toTitleCase(status: string): string {
   return status
     .toLowerCase()                
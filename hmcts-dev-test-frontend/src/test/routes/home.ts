@@ -18,7 +18,8 @@ describe("Task Routes", () => {
     req = {};
     res = {
       render: jest.fn(),
-      redirect: jest.fn()
+      redirect: jest.fn(),
+      cookie: jest.fn()
     };
     next = jest.fn();
   });
@@ -47,6 +48,18 @@ describe("Task Routes", () => {
     });
   });
 
+  it("GET / should forward the primary pin kept after a write", async () => {
+    mockedAxios.get.mockResolvedValue({ data: [] });
+    req.cookies = { "task-primary-until": "1767261600000" };
+
+    const handler = getRoute("/");
+    await handler(req, res);
+
+    expect(mockedAxios.get).toHaveBeenCalledWith("http://localhost:8090/task/v1/find-all", {
+      headers: { "x-task-primary-until": "1767261600000" }
+    });
+  });
+
   it("GET / should render empty tasks on error", async () => {
     mockedAxios.get.mockRejectedValue(new Error("Network error"));
 
@@ -56,6 +69,24 @@ describe("Task Routes", () => {
     expect(res.render).toHaveBeenCalledWith("home", { tasks: [] });
   });
 
+  it("GET /task/events should pipe the api change feed", async () => {
+    const upstream = { pipe: jest.fn(), destroy: jest.fn() };
+    mockedAxios.get.mockResolvedValue({ data: upstream });
+    req.get = jest.fn().mockReturnValue("7");
+    req.on = jest.fn();
+    res.writeHead = jest.fn();
+
+    const handler = getRoute("/task/events");
+    await handler(req, res, next);
+
+    expect(mockedAxios.get).toHaveBeenCalledWith("http://localhost:8090/task/v1/events", {
+      responseType: "stream",
+      headers: { "Last-Event-ID": "7" }
+    });
+    expect(res.writeHead).toHaveBeenCalledWith(200, expect.objectContaining({ "Content-Type": "text/event-stream" }));
+    expect(upstream.pipe).toHaveBeenCalledWith(res);
+  });
+
   it("POST /task/create should call axios.post and redirect", async () => {
     mockedAxios.post.mockResolvedValue({});
 
@@ -81,6 +112,18 @@ describe("Task Routes", () => {
     expect(res.redirect).toHaveBeenCalledWith("/");
   });
 
+  it("POST /task/create should keep the primary pin the api returns", async () => {
+    mockedAxios.post.mockResolvedValue({ headers: { "x-task-primary-until": "1767261600000" } });
+    req.body = { title: "New Task", dueDateTime: "2025-01-01T10:00" };
+
+    const handler = getRoute("/task/create", "post");
+    await handler(req, res, next);
+
+    expect(res.cookie).toHaveBeenCalledWith("task-primary-until", "1767261600000",
+      expect.objectContaining({ httpOnly: true, expires: new Date(1767261600000) }));
+    expect(res.redirect).toHaveBeenCalledWith("/");
+  });
+
   it("GET /delete-task/:id should delete and redirect", async () => {
     mockedAxios.delete.mockResolvedValue({});
     req.params = { id: "123" };
@@ -0,0 +1,52 @@
+import { initTaskEvents } from '../../main/assets/js/task-events';
+
+type Listener = (event: { data: string }) => void;
+
+// jest runs in node, the page is stubbed down to what the script touches
+class FakeEventSource {
+  static last: FakeEventSource;
+  listeners: Record<string, Listener> = {};
+
+  constructor(public url: string) {
+    FakeEventSource.last = this;
+  }
+
+  addEventListener(name: string, listener: Listener): void {
+    this.listeners[name] = listener;
+  }
+
+  emit(name: string, change: object): void {
+    this.listeners[name]({ data: JSON.stringify(change) });
+  }
+}
+
+describe('Task events', () => {
+  const row = { remove: jest.fn() };
+  const querySelector = jest.fn();
+
+  beforeEach(() => {
+    row.remove.mockReset();
+    querySelector.mockReset().mockReturnValue({ closest: () => row });
+    Object.assign(global, {
+      EventSource: FakeEventSource,
+      document: { getElementById: () => ({}), querySelector },
+      window: { location: { reload: jest.fn() } },
+    });
+    initTaskEvents();
+  });
+
+  it('should remove the row of a deleted task', () => {
+    FakeEventSource.last.emit('deleted', { type: 'DELETED', taskId: 7, task: null });
+
+    expect(querySelector).toHaveBeenCalledWith('a[href="/task/view/7"]');
+    expect(row.remove).toHaveBeenCalled();
+  });
+
+  it('should remove the row of an archived task', () => {
+    FakeEventSource.last.emit('archived', { type: 'ARCHIVED', taskId: 8, task: null });
+
+    expect(FakeEventSource.last.url).toBe('/task/events');
+    expect(querySelector).toHaveBeenCalledWith('a[href="/task/view/8"]');
+    expect(row.remove).toHaveBeenCalled();
+  });
+});
@@ -0,0 +1,92 @@
+package gov.uk.dts.task_api.benchmark;
+
+import gov.uk.dts.task_api.TaskApiApplication;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.service.TaskCreateQueue;
+import gov.uk.dts.task_api.service.TaskService;
+import gov.uk.dts.task_api.utility.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single task creates from many concurrent callers, one transaction each or group committed through
+ * TaskCreateQueue. Throughput shows the commits saved, the SampleTime percentiles what each create pays waiting
+ * for its batch. Runs against in-memory H2 unless SPRING_DATASOURCE_URL is set, H2 has no commit to the disk so
+ * the gain only shows against Postgres, e.g. docker-compose's with SPRING_DATASOURCE_URL,
+ * SPRING_DATASOURCE_USERNAME and SPRING_DATASOURCE_PASSWORD set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class TaskGroupCommitBenchmark {
+
+    private static final TaskRequest REQUEST = new TaskRequest("Task", "Task description", Status.CREATED,
+            LocalDateTime.of(2030, 1, 1, 10, 0));
+
+    @Param({"false", "true"})
+    public boolean groupCommit;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskCreateQueue createQueue;
+
+    @Setup
+    public void setUp() {
+        List<String> args = new ArrayList<>(List.of(
+                "--task.group-commit.enabled=" + groupCommit,
+                "--task.sweeper.enabled=false",
+                "--task.archive.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=warn"));
+        if (System.getenv("SPRING_DATASOURCE_URL") == null) {
+            args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.flyway.enabled=false",
+                    "--spring.jpa.hibernate.ddl-auto=create-drop",
+                    "--task.archive.manage-partitions=false",
+                    "--task.search.index=memory"));
+        }
+        context = new SpringApplicationBuilder(TaskApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        taskService = context.getBean(TaskService.class);
+        createQueue = context.getBean(TaskCreateQueue.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TaskResponse create() throws InterruptedException {
+        return groupCommit ? createQueue.submit(REQUEST).join() : taskService.create(REQUEST);
+    }
+}
@@ -0,0 +1,89 @@
+package gov.uk.dts.task_api.benchmark;
+
+import gov.uk.dts.task_api.config.TaskBatchProperties;
+import gov.uk.dts.task_api.config.TaskPageProperties;
+import gov.uk.dts.task_api.dto.TaskFilter;
+import gov.uk.dts.task_api.dto.TaskPageResponse;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.repository.TaskSearchIndex;
+import gov.uk.dts.task_api.service.TaskServiceImpl;
+import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read path through the service with the repository stubbed out, so only the per row work of the service is measured.
+ * The repository selects responses directly, anything above the cost of copying the list is the service's own
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskMappingBenchmark {
+
+    @Param({"1", "50", "1000"})
+    private int tasks;
+
+    private TaskServiceImpl taskService;
+
+    @Setup
+    public void setUp() {
+        List<TaskResponse> responses = new ArrayList<>();
+        LocalDateTime dueDateTime = LocalDateTime.of(2030, 1, 1, 10, 0);
+        for (long id = 1; id <= tasks; id++) {
+            responses.add(new TaskResponse(id, "Task " + id, "Task description " + id, Status.CREATED,
+                    dueDateTime.plusMinutes(id), dueDateTime, 0L, null));
+        }
+        taskService = new TaskServiceImpl(stub(TaskRepository.class, responses), stub(TaskSearchIndex.class, responses),
+                new TaskPageProperties(tasks, tasks), new TaskBatchProperties(10000, 500), stub(EntityManager.class, responses),
+                Validation.buildDefaultValidatorFactory().getValidator(), event -> { }, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public List<TaskResponse> getAll() {
+        return taskService.getAll();
+    }
+
+    @Benchmark
+    public TaskPageResponse getPage() {
+        return taskService.getPage(TaskFilter.none(), null, tasks);
+    }
+
+    private static <T> T stub(Class<T> type, List<TaskResponse> responses) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (StubbedMethod.valueOf(method.getName())) {
+                    case findAllResponses -> responses;
+                    case findPage -> responses.subList(0, Math.min(responses.size(), (int) args[2]));
+                }));
+    }
+
+    /**
+     * The repository reads the benchmarked service methods make, named after them. The service calling anything
+     * else means the benchmark no longer measures what it says, valueOf fails the invocation.
+     */
+    private enum StubbedMethod {
+        findAllResponses,
+        findPage
+    }
+}
@@ -0,0 +1,104 @@
+package gov.uk.dts.task_api.benchmark;
+
+import gov.uk.dts.task_api.TaskApiApplication;
+import gov.uk.dts.task_api.dto.TaskFilter;
+import gov.uk.dts.task_api.dto.TaskPageResponse;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.service.TaskService;
+import gov.uk.dts.task_api.utility.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service reads against an in-memory H2 database seeded with 10,000 tasks, with and without hibernate's query
+ * cache of find-page
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskRepositoryBenchmark {
+
+    private static final int TASKS = 10_000;
+    // small enough to stay cached across the whole run
+    private static final int HOT_TASKS = 100;
+
+    @Param({"true", "false"})
+    public boolean secondLevelCache;
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private TaskService taskService;
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(TaskApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache,
+                        "--logging.level.root=warn");
+        taskRepository = context.getBean(TaskRepository.class);
+        taskService = context.getBean(TaskService.class);
+
+        List<TaskDao> daos = new ArrayList<>();
+        LocalDateTime dueDateTime = LocalDateTime.of(2030, 1, 1, 10, 0);
+        Status[] statuses = Status.values();
+        for (int i = 0; i < TASKS; i++) {
+            daos.add(new TaskDao(null, "Task " + i, "Task description " + i, statuses[i % statuses.length],
+                    dueDateTime.plusMinutes(i), dueDateTime, null));
+        }
+        ids = taskRepository.saveAll(daos).stream().map(TaskDao::getId).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<TaskResponse> getByTaskIdCached() {
+        return taskService.getByTaskId(ids.get(ThreadLocalRandom.current().nextInt(HOT_TASKS)));
+    }
+
+    @Benchmark
+    public TaskPageResponse getFirstPage() {
+        return taskService.getPage(TaskFilter.none(), null, 50);
+    }
+
+    @Benchmark
+    public TaskPageResponse getOpenTasksPage() {
+        return taskService.getPage(new TaskFilter(List.of(Status.CREATED, Status.IN_PROGRESS), null, null), null, 50);
+    }
+}
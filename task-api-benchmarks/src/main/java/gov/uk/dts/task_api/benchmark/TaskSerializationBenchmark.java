@@ -0,0 +1,92 @@
+package gov.uk.dts.task_api.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.dto.TaskPageResponse;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.utility.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson reading and writing of the task DTOs, with the mappers configured the way spring boot configures them.
+ * The page is written as JSON and as CBOR, the two representations of find-page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private TaskResponse task;
+    private TaskPageResponse page;
+    private byte[] taskRequestJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        LocalDateTime dueDateTime = LocalDateTime.of(2030, 1, 1, 10, 0);
+        List<TaskResponse> tasks = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            tasks.add(TaskResponse.builder()
+                    .id(id)
+                    .title("Task " + id)
+                    .description("Task description " + id)
+                    .status(Status.IN_PROGRESS)
+                    .dueDateTime(dueDateTime.plusMinutes(id))
+                    .updatedAt(dueDateTime)
+                    .version(0L)
+                    .build());
+        }
+        task = tasks.getFirst();
+        page = TaskPageResponse.builder()
+                .tasks(tasks)
+                .nextCursor(TaskCursor.of(tasks.getLast()).encode())
+                .build();
+        taskRequestJson = objectMapper.writeValueAsBytes(
+                new TaskRequest("Task", "Task description", Status.CREATED, dueDateTime));
+    }
+
+    @Benchmark
+    public byte[] writeTask() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(task);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] writePageCbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public TaskRequest readTaskRequest() throws IOException {
+        return objectMapper.readValue(taskRequestJson, TaskRequest.class);
+    }
+}
@@ -0,0 +1,169 @@
+package gov.uk.dts.task_api.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching task-api to its first served find-page request, and its resident memory at that point, for
+ * the plain jar and the fast-start build. Each invocation starts a new JVM from target/fast-start of task-api, built
+ * with mvn -Pfast-start package, against the database in SPRING_DATASOURCE_URL, docker-compose's by default.
+ * Not part of the default run, see the README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TaskStartupBenchmark {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"default", "fast-start"})
+    public String mode;
+
+    @Param("../task-api/target/fast-start")
+    public String directory;
+
+    private Path jar;
+    private List<String> jvmOptions;
+    private HttpClient client;
+    private Process process;
+
+    /**
+     * Resident set size of the service once it served its first request. JMH sums events over the measurement
+     * iterations, so each is recorded divided by their count and the result is the mean.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memory {
+        public double rssMb;
+        private int iterations;
+
+        @Setup
+        public void setUp(BenchmarkParams params) {
+            iterations = params.getMeasurement().getCount();
+        }
+
+        void record(double mb) {
+            rssMb = mb / iterations;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Path dir = Path.of(directory).toAbsolutePath().normalize();
+        try (var files = Files.list(dir)) {
+            jar = files.filter(file -> file.getFileName().toString().endsWith("-exec.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No jar in " + dir + ", build task-api with -Pfast-start"));
+        }
+        jvmOptions = new ArrayList<>();
+        if ("fast-start".equals(mode)) {
+            Path aotCache = dir.resolve("task-api.aot");
+            Path cdsArchive = dir.resolve("task-api.jsa");
+            if (Files.exists(aotCache)) {
+                jvmOptions.add("-XX:AOTCache=" + aotCache);
+            } else if (Files.exists(cdsArchive)) {
+                jvmOptions.add("-XX:SharedArchiveFile=" + cdsArchive);
+            }
+            jvmOptions.add("-Dspring.aot.enabled=true");
+            jvmOptions.add("-Dspring.profiles.active=fast-start");
+        }
+        client = HttpClient.newHttpClient();
+    }
+
+    @Benchmark
+    public int firstRequest(Memory memory) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port, "--logging.level.root=warn"));
+        process = new ProcessBuilder(command)
+                .directory(jar.getParent().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/startup-" + mode + ".log"))
+                .start();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/task/v1/find-page?size=1"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("task-api exited with " + process.exitValue() + ", see target/startup-" + mode + ".log");
+            }
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 200) {
+                    memory.record(residentMb(process.pid()));
+                    return status;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("task-api did not serve a request within " + STARTUP_TIMEOUT);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * VmRSS of the process, linux only, 0 where /proc is not available
+     */
+    private static double residentMb(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", "")) / 1024.0;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,54 @@
+package gov.uk.dts.task_api.benchmark;
+
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.utility.Status;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean validation of TaskRequest, invalid requests also pay for building the violation messages
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskValidationBenchmark {
+
+    private Validator validator;
+    private TaskRequest valid;
+    private TaskRequest invalid;
+
+    @Setup
+    public void setUp() {
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        valid = new TaskRequest("Task", "Task description", Status.CREATED, LocalDateTime.now().plusYears(10));
+        invalid = new TaskRequest(" ", "Task description", null, LocalDateTime.now().minusDays(1));
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TaskRequest>> validateValid() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TaskRequest>> validateInvalid() {
+        return validator.validate(invalid);
+    }
+}
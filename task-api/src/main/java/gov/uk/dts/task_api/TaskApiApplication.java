@@ -2,8 +2,10 @@ package gov.uk.dts.task_api;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class TaskApiApplication {
 
 	public static void main(String[] args) {
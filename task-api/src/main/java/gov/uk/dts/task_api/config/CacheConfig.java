@@ -0,0 +1,92 @@
+package gov.uk.dts.task_api.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import gov.uk.dts.task_api.service.CacheInvalidationBroadcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+@Configuration
+// outside the transaction interceptor, so a cache hit never opens a transaction or takes a connection
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String TASK_CACHE = "tasks";
+    public static final String TASK_PAGE_REGION = "task-pages";
+    public static final String TASK_CACHE_RESOLVER = "taskCacheResolver";
+
+    /**
+     * Single node default, replace with a bean that fans invalidations out to the other replicas
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CacheInvalidationBroadcaster cacheInvalidationBroadcaster() {
+        return taskId -> { };
+    }
+
+    /**
+     * Task cache lookups for requests reading a replica serve cached tasks without putting the ones they load
+     */
+    @Bean(TASK_CACHE_RESOLVER)
+    public CacheResolver taskCacheResolver(org.springframework.cache.CacheManager cacheManager) {
+        return new ReadReplicaCacheResolver(cacheManager);
+    }
+
+    /**
+     * JCache manager holding hibernate's query cache regions, Caffeine like the task cache. No entity is cached,
+     * reads select responses rather than entities and would never hit an entity region.
+     * Every region is created here with its size and expiry, hibernate fails to start on any other. One manager
+     * per application context, so contexts sharing a JVM never share cached rows. Each region reports
+     * cache.gets, cache.puts, cache.evictions and cache.removals tagged with its name, like the task cache.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(TaskCacheProperties properties, MeterRegistry meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("task-api-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(TASK_PAGE_REGION, region(properties.pageMaxSize(), properties.pageExpiry()));
+        // queries cached without a region of their own, none are today
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(properties.pageMaxSize(), properties.pageExpiry()));
+        // last write per table, never evicted so a cached result older than a write is always recognised
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(null, null));
+        cacheManager.getCacheNames().forEach(name -> JCacheMetrics.monitor(meterRegistry,
+                cacheManager.getCache(name), Tags.of("cache.manager", "hibernateCacheManager")));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(Integer maxSize, Duration expiry) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // hibernate caches disassembled state it never changes, copying it on every read and write is wasted
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        if (maxSize != null) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (expiry != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(expiry.toNanos()));
+        }
+        return configuration;
+    }
+}
@@ -0,0 +1,101 @@
+package gov.uk.dts.task_api.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Wrap the auto-configured pool so every connection, including flyway and streamed exports, counts against the limit,
+     * and send read only transactions to the replicas when any are configured
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(ObjectProvider<TaskDbProperties> dbProperties,
+                                                                              ObjectProvider<ReadReplicaDataSources> replicas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    TaskDbProperties properties = dbProperties.getObject();
+                    DataSource primary = new ConcurrencyLimitedDataSource(dataSource, properties.maxConcurrency(maxPoolSize(dataSource)),
+                            properties.acquireTimeout());
+                    ReadReplicaDataSources readReplicas = replicas.getObject();
+                    return readReplicas.isEmpty() ? primary : ReadReplicaRoutingDataSource.route(primary, readReplicas.dataSources());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Maximum size of the pool behind the data source, spring.datasource.hikari.maximum-pool-size, so the limit is not
+     * configured twice
+     */
+    private static int maxPoolSize(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariConfigMXBean.class)
+                    ? dataSource.unwrap(HikariConfigMXBean.class).getMaximumPoolSize()
+                    : Integer.MAX_VALUE;
+        } catch (SQLException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    @Bean
+    public ReadReplicaDataSources readReplicaDataSources(TaskReplicaProperties replicaProperties,
+                                                         DataSourceProperties dataSourceProperties,
+                                                         TaskDbProperties dbProperties) {
+        return new ReadReplicaDataSources(replicaProperties, dataSourceProperties, dbProperties);
+    }
+
+    /**
+     * Pins a client's reads to the primary after it writes, does nothing without replicas
+     */
+    @Bean
+    public ReadReplicaPinningFilter readReplicaPinningFilter(TaskReplicaProperties replicaProperties) {
+        return new ReadReplicaPinningFilter(replicaProperties);
+    }
+
+    /**
+     * The transaction manager spring boot would configure, keeping replica reads out of hibernate's caches
+     */
+    @Bean
+    public JpaTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new ReadReplicaJpaTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    /**
+     * Saturation of the concurrency limit, the Hikari pool gauges (hikaricp.connections.*) are auto-configured
+     */
+    @Bean
+    public MeterBinder concurrencyLimitedDataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            ConcurrencyLimitedDataSource limiter;
+            try {
+                limiter = dataSource.unwrap(ConcurrencyLimitedDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("task.db.permits.available", limiter, ConcurrencyLimitedDataSource::availablePermits)
+                    .description("Database permits free for new work")
+                    .register(registry);
+            Gauge.builder("task.db.permits.waiting", limiter, ConcurrencyLimitedDataSource::waitingRequests)
+                    .description("Requests queued for a database permit")
+                    .register(registry);
+        };
+    }
+}
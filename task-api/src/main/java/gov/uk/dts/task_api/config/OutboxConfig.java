@@ -0,0 +1,24 @@
+package gov.uk.dts.task_api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.uk.dts.task_api.event.FileTaskEventSink;
+import gov.uk.dts.task_api.event.LoggingTaskEventSink;
+import gov.uk.dts.task_api.event.TaskEventSink;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    /**
+     * Local sink for the relayed changes, replace this bean to publish to a broker
+     */
+    @Bean
+    public TaskEventSink taskEventSink(TaskOutboxProperties properties, ObjectMapper objectMapper) {
+        return properties.file() == null
+                ? new LoggingTaskEventSink()
+                : new FileTaskEventSink(properties.file(), objectMapper);
+    }
+}
@@ -0,0 +1,83 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.SimpleCacheResolver;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+
+/**
+ * Resolves caches by name, a request whose reads go to a replica gets a view of each that serves what is cached but
+ * never puts what it loads. What a replica returns may be behind the primary and the caches are shared with the
+ * clients reading their own writes. Unlike a cache condition the lookup still happens, unlike unless it works with
+ * sync, which keeps a load racing an update from putting back the task the update evicted.
+ */
+public class ReadReplicaCacheResolver extends SimpleCacheResolver {
+
+    public ReadReplicaCacheResolver(CacheManager cacheManager) {
+        super(cacheManager);
+    }
+
+    @Override
+    public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+        Collection<? extends Cache> caches = super.resolveCaches(context);
+        if (!ReadReplicaRoutingDataSource.isRoutedToReplica()) {
+            return caches;
+        }
+        return caches.stream().map(ReadOnlyCache::new).toList();
+    }
+
+    private record ReadOnlyCache(Cache cache) implements Cache {
+
+        @Override
+        public String getName() {
+            return cache.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return cache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return cache.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return cache.get(key, type);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            ValueWrapper cached = cache.get(key);
+            if (cached != null) {
+                return (T) cached.get();
+            }
+            try {
+                return valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            // loaded from a replica, left out
+        }
+
+        @Override
+        public void evict(Object key) {
+            cache.evict(key);
+        }
+
+        @Override
+        public void clear() {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package gov.uk.dts.task_api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection pools of the read replicas, kept out of the context as data sources so the primary pool is still
+ * auto-configured. Each pool is limited like the primary, and closed with the context.
+ */
+public class ReadReplicaDataSources implements AutoCloseable {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private final List<DataSource> dataSources = new ArrayList<>();
+
+    public ReadReplicaDataSources(TaskReplicaProperties replica, DataSourceProperties primary, TaskDbProperties dbProperties) {
+        for (String url : replica.urls()) {
+            HikariDataSource pool = primary.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(replica.username() == null ? primary.determineUsername() : replica.username())
+                    .password(replica.password() == null ? primary.determinePassword() : replica.password())
+                    .build();
+            pool.setPoolName("task-replica-" + pools.size());
+            pool.setMaximumPoolSize(replica.maxPoolSize());
+            pool.setReadOnly(true);
+            pools.add(pool);
+            dataSources.add(new ConcurrencyLimitedDataSource(pool, dbProperties.maxConcurrency(replica.maxPoolSize()),
+                    dbProperties.acquireTimeout()));
+        }
+    }
+
+    public boolean isEmpty() {
+        return dataSources.isEmpty();
+    }
+
+    public List<DataSource> dataSources() {
+        return dataSources;
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,25 @@
+package gov.uk.dts.task_api.config;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps what read only transactions read from a replica out of hibernate's query cache.
+ * They still read it, only transactions on the primary fill it, so pages from a lagging replica are
+ * never served to the clients reading their own writes.
+ */
+public class ReadReplicaJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        // the session outlives the transaction while it is open in view, so the mode is set for every transaction
+        boolean replica = definition.isReadOnly() && ReadReplicaRoutingDataSource.isRoutedToReplica();
+        holder.getEntityManager().unwrap(Session.class).setCacheMode(replica ? CacheMode.GET : CacheMode.NORMAL);
+    }
+}
@@ -0,0 +1,70 @@
+package gov.uk.dts.task_api.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Keeps a client reading from the primary for a while after it writes, so it sees its own writes despite replica lag.
+ * A write answers with a header holding the time the pin ends, the client sends it back on its reads, which works
+ * whichever app replica serves them. Reads that go to a replica are marked so what they read stays out of the caches.
+ */
+@RequiredArgsConstructor
+public class ReadReplicaPinningFilter extends OncePerRequestFilter {
+
+    public static final String PRIMARY_UNTIL_HEADER = "X-Task-Primary-Until";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    @NonNull private final TaskReplicaProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return properties.urls().isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (write) {
+            // set before the response is committed, a rejected write only costs a few reads on the primary
+            response.setHeader(PRIMARY_UNTIL_HEADER, Long.toString(now + properties.primaryAfterWrite().toMillis()));
+        }
+        if (!write && primaryUntil(request) <= now) {
+            ReadReplicaRoutingDataSource.routeToReplica(true);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                ReadReplicaRoutingDataSource.routeToReplica(false);
+            }
+            return;
+        }
+        ReadReplicaRoutingDataSource.pinToPrimary(true);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadReplicaRoutingDataSource.pinToPrimary(false);
+        }
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        String primaryUntil = request.getHeader(PRIMARY_UNTIL_HEADER);
+        if (primaryUntil == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(primaryUntil);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
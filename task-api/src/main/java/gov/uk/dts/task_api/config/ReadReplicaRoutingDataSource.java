@@ -0,0 +1,108 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands out replica connections round robin, or primary connections while the current thread is pinned to
+ * the primary. Used as the read only target of a lazy connection proxy, so only transactions marked read only
+ * reach it, and only once they run their first statement.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> ROUTED_TO_REPLICA = new ThreadLocal<>();
+
+    private final int replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this.replicas = replicas.size();
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Route read only transactions to the replicas, connections for any other work stay on the primary
+     *
+     * @param primary - primary data source
+     * @param replicas - replica data sources
+     * @return - data source that picks the primary or a replica per transaction
+     */
+    public static DataSource route(DataSource primary, List<DataSource> replicas) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new ReadReplicaRoutingDataSource(primary, replicas));
+        return proxy;
+    }
+
+    /**
+     * Send the read only transactions of the current thread to the primary, so it reads its own writes
+     *
+     * @param pinned - true to pin, false to route to the replicas again
+     */
+    public static void pinToPrimary(boolean pinned) {
+        if (pinned) {
+            PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        } else {
+            PINNED_TO_PRIMARY.remove();
+        }
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get() != null;
+    }
+
+    /**
+     * Run reads on the primary whatever thread they run on. Read only transactions outside a request reach a
+     * replica otherwise, reads that decide writes or replace state kept in memory must not lag behind them.
+     *
+     * @param reads - work to run with the current thread pinned to the primary
+     * @return - what the work returned
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        boolean pinned = isPinnedToPrimary();
+        pinToPrimary(true);
+        try {
+            return reads.get();
+        } finally {
+            pinToPrimary(pinned);
+        }
+    }
+
+    /**
+     * Mark the current thread as serving a request whose reads go to a replica. What a replica returns may be
+     * behind the primary, so it is not put in the task cache or hibernate's caches, which every request reads.
+     *
+     * @param routed - true while serving the request, false once done
+     */
+    public static void routeToReplica(boolean routed) {
+        if (routed) {
+            ROUTED_TO_REPLICA.set(Boolean.TRUE);
+        } else {
+            ROUTED_TO_REPLICA.remove();
+        }
+    }
+
+    public static boolean isRoutedToReplica() {
+        return ROUTED_TO_REPLICA.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return isPinnedToPrimary() ? PRIMARY : Math.floorMod(next.getAndIncrement(), replicas);
+    }
+}
@@ -0,0 +1,27 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Background job moving closed tasks from tasks to task_archive and keeping the tasks partitions in step
+ *
+ * @param enabled - run the archiver on this replica
+ * @param interval - pause between runs
+ * @param closedFor - how long a task stays live after it was last updated as cancelled or completed
+ * @param chunkSize - tasks moved per transaction
+ * @param lease - how long a replica holds the run without renewing, another one takes over after it expires
+ * @param managePartitions - add monthly tasks partitions ahead and fold empty past ones, postgres only
+ * @param monthsAhead - months after this one that have a partition, created empty before any task is due in them
+ */
+@ConfigurationProperties(prefix = "task.archive")
+public record TaskArchiveProperties(@DefaultValue("true") boolean enabled,
+                                    @DefaultValue("1h") Duration interval,
+                                    @DefaultValue("30d") Duration closedFor,
+                                    @DefaultValue("500") int chunkSize,
+                                    @DefaultValue("10m") Duration lease,
+                                    @DefaultValue("true") boolean managePartitions,
+                                    @DefaultValue("12") int monthsAhead) {
+}
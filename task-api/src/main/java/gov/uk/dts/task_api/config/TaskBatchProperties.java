@@ -0,0 +1,16 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits for the bulk create/update/delete endpoints
+ *
+ * @param maxItems - maximum number of items accepted in one request
+ * @param chunkSize - entities flushed and cleared from the persistence context together,
+ *                  keep aligned with hibernate.jdbc.batch_size
+ */
+@ConfigurationProperties(prefix = "task.batch")
+public record TaskBatchProperties(@DefaultValue("10000") int maxItems,
+                                  @DefaultValue("500") int chunkSize) {
+}
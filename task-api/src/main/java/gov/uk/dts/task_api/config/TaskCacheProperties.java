@@ -0,0 +1,18 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Hibernate query cache regions, see CacheConfig
+ *
+ * @param pageMaxSize - listing results kept in the query region, one per filter, cursor and size
+ * @param pageExpiry - time a listing result is served after it was read, also bounds how stale a page read from
+ *                   a lagging replica or missed by another replica's invalidation can be
+ */
+@ConfigurationProperties(prefix = "task.cache")
+public record TaskCacheProperties(@DefaultValue("1000") int pageMaxSize,
+                                  @DefaultValue("10s") Duration pageExpiry) {
+}
@@ -0,0 +1,27 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Limits on concurrent database work, sized for virtual threads where request threads are effectively unbounded
+ *
+ * @param maxConcurrency - connections handed out at once, unset for the pool's maximum size, capped at it
+ * @param acquireTimeout - how long a request waits for a permit before failing
+ */
+@ConfigurationProperties(prefix = "task.db")
+public record TaskDbProperties(Integer maxConcurrency,
+                               @DefaultValue("5s") Duration acquireTimeout) {
+
+    /**
+     * Permits to hand out in front of a pool, more would only queue again inside the pool
+     *
+     * @param maxPoolSize - maximum size of the pool
+     * @return - the configured limit if lower, else the pool size
+     */
+    public int maxConcurrency(int maxPoolSize) {
+        return maxConcurrency == null ? maxPoolSize : Math.min(maxConcurrency, maxPoolSize);
+    }
+}
@@ -0,0 +1,22 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Limits for the server-sent task change feed
+ *
+ * @param bufferSize - recent changes kept for clients resuming with Last-Event-ID
+ * @param subscriberQueueSize - changes queued for one client before it is disconnected as too slow, on top of
+ *          the changes of one bulk request (task.batch.max-items)
+ * @param heartbeat - interval of the comment sent to keep idle connections open through proxies
+ * @param timeout - lifetime of one connection, browsers reconnect and resume after it
+ */
+@ConfigurationProperties(prefix = "task.events")
+public record TaskEventProperties(@DefaultValue("1024") int bufferSize,
+                                  @DefaultValue("256") int subscriberQueueSize,
+                                  @DefaultValue("30s") Duration heartbeat,
+                                  @DefaultValue("30m") Duration timeout) {
+}
@@ -0,0 +1,26 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Group commit of single task creates, see TaskCreateQueue
+ *
+ * @param enabled - queue creates and commit them together instead of one transaction per task
+ * @param maxBatch - creates committed in one transaction at most
+ * @param maxWait - time the writer waits for more creates once it has one, adds to each create's latency
+ * @param queueCapacity - creates waiting for the writer before new ones are refused
+ * @param enqueueTimeout - time a create waits for room in a full queue before it is answered 503
+ * @param responseTimeout - time a queued create waits for its batch to commit before it is withdrawn from the queue
+ *          and answered 503, a create the writer has already taken waits for its batch instead
+ */
+@ConfigurationProperties(prefix = "task.group-commit")
+public record TaskGroupCommitProperties(@DefaultValue("false") boolean enabled,
+                                        @DefaultValue("200") int maxBatch,
+                                        @DefaultValue("2ms") Duration maxWait,
+                                        @DefaultValue("5000") int queueCapacity,
+                                        @DefaultValue("100ms") Duration enqueueTimeout,
+                                        @DefaultValue("10s") Duration responseTimeout) {
+}
@@ -0,0 +1,21 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Responses kept for requests sent with an Idempotency-Key
+ *
+ * @param ttl - how long a response is replayed to retries of its request
+ * @param purgeInterval - how often expired keys are deleted from db
+ * @param cacheSize - responses also kept in memory, so most retries do not read db
+ * @param lockTimeout - how long a duplicate waits for the request in flight with its key before it is answered 409
+ */
+@ConfigurationProperties(prefix = "task.idempotency")
+public record TaskIdempotencyProperties(@DefaultValue("24h") Duration ttl,
+                                        @DefaultValue("1h") Duration purgeInterval,
+                                        @DefaultValue("10000") long cacheSize,
+                                        @DefaultValue("10s") Duration lockTimeout) {
+}
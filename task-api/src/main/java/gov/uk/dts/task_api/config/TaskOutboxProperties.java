@@ -0,0 +1,20 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Relay of the task change outbox
+ *
+ * @param batchSize - changes locked, published and removed together
+ * @param pollInterval - pause between draining the outbox, also the retry delay after a failed batch
+ * @param file - append changes to this file instead of the application log, null for the log
+ */
+@ConfigurationProperties(prefix = "task.outbox")
+public record TaskOutboxProperties(@DefaultValue("500") int batchSize,
+                                   @DefaultValue("1s") Duration pollInterval,
+                                   Path file) {
+}
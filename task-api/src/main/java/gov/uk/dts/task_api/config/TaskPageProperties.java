@@ -0,0 +1,15 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Page size limits for the keyset paginated task listing
+ *
+ * @param defaultSize - page size used when the client does not ask for one
+ * @param maxSize - upper bound applied to any requested page size
+ */
+@ConfigurationProperties(prefix = "task.page")
+public record TaskPageProperties(@DefaultValue("50") int defaultSize,
+                                 @DefaultValue("200") int maxSize) {
+}
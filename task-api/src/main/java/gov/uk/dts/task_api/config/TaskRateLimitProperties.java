@@ -0,0 +1,26 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Limits applied to task endpoints before a request reaches the service, the starting values of the limits
+ * the ratelimits actuator endpoint changes at runtime
+ *
+ * @param enabled - shed requests over the limits
+ * @param requestsPerSecond - rate a client's tokens refill at
+ * @param burst - tokens a client can hold, requests it can make at once after being idle
+ * @param maxConcurrent - requests in progress at once per endpoint
+ * @param endpointMaxConcurrent - requests in progress at once for the endpoints named, by controller method name
+ * @param maxClients - clients whose buckets are kept, the least recently seen are forgotten first
+ */
+@ConfigurationProperties(prefix = "task.rate-limit")
+public record TaskRateLimitProperties(@DefaultValue("true") boolean enabled,
+                                      @DefaultValue("50") double requestsPerSecond,
+                                      @DefaultValue("100") int burst,
+                                      @DefaultValue("64") int maxConcurrent,
+                                      @DefaultValue Map<String, Integer> endpointMaxConcurrent,
+                                      @DefaultValue("100000") long maxClients) {
+}
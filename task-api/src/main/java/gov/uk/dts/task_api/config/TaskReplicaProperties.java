@@ -0,0 +1,24 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read replicas that read only transactions are sent to, none by default so every connection goes to the primary
+ *
+ * @param urls - jdbc urls of the replicas, connections are handed out round robin
+ * @param username - replica user, the spring.datasource user when not set
+ * @param password - replica password, the spring.datasource password when not set
+ * @param maxPoolSize - connections pooled and handed out at once per replica
+ * @param primaryAfterWrite - how long a client's reads stay on the primary after it writes, longer than the replica lag
+ */
+@ConfigurationProperties(prefix = "task.db.replica")
+public record TaskReplicaProperties(@DefaultValue List<String> urls,
+                                    String username,
+                                    String password,
+                                    @DefaultValue("10") int maxPoolSize,
+                                    @DefaultValue("2s") Duration primaryAfterWrite) {
+}
@@ -0,0 +1,23 @@
+package gov.uk.dts.task_api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Background job flagging open tasks past their due date/time
+ *
+ * @param enabled - run the sweeper on this replica
+ * @param interval - pause between sweeps
+ * @param chunkSize - tasks flagged per transaction
+ * @param concurrency - chunks flagged at once, each holds a connection while it runs
+ * @param lease - how long a replica holds the sweep without renewing, another one takes over after it expires
+ */
+@ConfigurationProperties(prefix = "task.sweeper")
+public record TaskSweeperProperties(@DefaultValue("true") boolean enabled,
+                                    @DefaultValue("1m") Duration interval,
+                                    @DefaultValue("500") int chunkSize,
+                                    @DefaultValue("4") int concurrency,
+                                    @DefaultValue("5m") Duration lease) {
+}
@@ -0,0 +1,37 @@
+package gov.uk.dts.task_api.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import gov.uk.dts.task_api.handler.TaskLoadShedder;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    @NonNull private final TaskLoadShedder taskLoadShedder;
+
+    /**
+     * Shed task requests before argument resolution reads the body, actuator and error pages are never shed
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(taskLoadShedder).addPathPatterns("/task/**");
+    }
+
+    /**
+     * CBOR for clients sending Accept: application/cbor, built from the spring.jackson settings so it writes the
+     * same fields and date/time format as the json responses. Replaces the default converter spring mvc registers,
+     * which ignores those settings.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
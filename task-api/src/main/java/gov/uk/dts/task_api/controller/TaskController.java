@@ -1,22 +1,48 @@
 package gov.uk.dts.task_api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import gov.uk.dts.task_api.config.TaskBatchProperties;
+import gov.uk.dts.task_api.dto.TaskBatchResult;
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.dto.TaskFilter;
+import gov.uk.dts.task_api.dto.TaskPageResponse;
 import gov.uk.dts.task_api.dto.TaskRequest;
 import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.dto.TaskSearchCursor;
+import gov.uk.dts.task_api.dto.TaskStatsResponse;
+import gov.uk.dts.task_api.dto.TaskUpdateRequest;
+import gov.uk.dts.task_api.handler.TaskIdempotencyHandler;
 import gov.uk.dts.task_api.handler.ValidationError;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import gov.uk.dts.task_api.service.TaskArchiveService;
+import gov.uk.dts.task_api.service.TaskCreateQueue;
+import gov.uk.dts.task_api.service.TaskEventStream;
 import gov.uk.dts.task_api.service.TaskService;
+import gov.uk.dts.task_api.service.TaskStatistics;
+import gov.uk.dts.task_api.utility.ETags;
+import gov.uk.dts.task_api.utility.Status;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,11 +50,26 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RestController
 @RequestMapping("/task/v1")
@@ -37,59 +78,112 @@ import java.util.Optional;
 @CrossOrigin(value = "localhost:3100")
 public class TaskController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+    private static final int MAX_SEARCH_LENGTH = 200;
+    private static final int EXPORT_FLUSH_ROWS = 500;
+    private static final String IDEMPOTENCY_DESCRIPTION = "Send an Idempotency-Key to retry safely, a successful "
+            + "response is stored for a day and returned again with Idempotent-Replayed: true instead of "
+            + "running the request twice";
+    private static final String CBOR_DESCRIPTION = " Send Accept: application/cbor for the same fields as CBOR, "
+            + "smaller and cheaper to write than JSON for bulk readers.";
+
     @NonNull private final TaskService taskService;
+    @NonNull private final ObjectMapper objectMapper;
+    @NonNull private final MappingJackson2CborHttpMessageConverter cborConverter;
+    @NonNull private final TaskBatchProperties batchProperties;
+    @NonNull private final TaskEventStream taskEventStream;
+    @NonNull private final TaskStatistics taskStatistics;
+    @NonNull private final TaskIdempotencyHandler idempotencyHandler;
+    @NonNull private final TaskArchiveService archiveService;
+    @NonNull private final TaskCreateQueue createQueue;
 
-    @Operation(summary = "Create a new task")
+    @Operation(summary = "Create a new task",
+            description = IDEMPOTENCY_DESCRIPTION)
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Task created"),
             @ApiResponse(responseCode = "400",
                     description = "Validation error",
                     content = @Content(schema = @Schema(implementation = ValidationError.class))),
-            @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
+            @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is in progress",
+                    content = @Content(schema = @Schema(implementation = ValidationError.class))),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used for a different request",
+                    content = @Content(schema = @Schema(implementation = ValidationError.class))),
+            @ApiResponse(responseCode = "500", description = "Server error", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Group commit queue is full or the create did not commit in time, retry after Retry-After seconds",
+                    content = @Content)
     })
     @PostMapping(value = "/create", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<TaskResponse> create(@Valid @RequestBody TaskRequest taskRequest) {
-        try {
-         TaskResponse taskResponse = taskService.create(taskRequest);
-         return new ResponseEntity<>(taskResponse, HttpStatus.CREATED);
-        } catch (Exception e) {
-            log.error("error creating task: {}", e.getMessage());
-            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+    public ResponseEntity<?> create(@Valid @RequestBody TaskRequest taskRequest,
+                                    @RequestHeader(value = TaskIdempotencyHandler.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                    HttpServletRequest httpRequest) {
+        // a keyed create stays synchronous, its key has to commit in the same transaction as the task
+        if (idempotencyKey == null && createQueue.enabled()) {
+            return createGrouped(taskRequest);
         }
+        return idempotencyHandler.execute(httpRequest, idempotencyKey, "create", taskRequest, () -> {
+            try {
+                TaskResponse taskResponse = taskService.create(taskRequest);
+                return new ResponseEntity<>(taskResponse, HttpStatus.CREATED);
+            } catch (Exception e) {
+                log.error("error creating task: {}", e.getMessage());
+                return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        });
     }
 
-    @Operation(summary = "Update a task using task id")
+    @Operation(summary = "Update a task using task id",
+            description = "Send the task ETag in If-Match to update only if nobody else changed the task since it was read")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Task updated"),
             @ApiResponse(responseCode = "400",
                     description = "Validation error",
                     content = @Content(schema = @Schema(implementation = ValidationError.class))),
             @ApiResponse(responseCode = "404", description = "Task not found", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Task was changed by someone else", content = @Content),
             @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
     })
     @PutMapping(value = "/update/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<TaskResponse> update(@Valid @RequestBody TaskRequest taskRequest, @PathVariable Long id) {
+    public ResponseEntity<TaskResponse> update(@Valid @RequestBody TaskRequest taskRequest, @PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = null;
+        if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+            Optional<Long> version = ETags.versionOf(ifMatch, id);
+            if (version.isEmpty()) {
+                return new ResponseEntity<>(null, HttpStatus.PRECONDITION_FAILED);
+            }
+            expectedVersion = version.get();
+        }
         try {
-            Optional<TaskResponse> taskResponse = taskService.update(taskRequest, id);
-            return taskResponse.map(response -> new ResponseEntity<>(response, HttpStatus.OK))
+            Optional<TaskResponse> taskResponse = taskService.update(taskRequest, id, expectedVersion);
+            return taskResponse.map(response -> ResponseEntity.ok().eTag(ETags.of(response)).body(response))
                     .orElse(new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+        } catch (OptimisticLockingFailureException e) {
+            log.info("task with id: {} not updated: {}", id, e.getMessage());
+            return new ResponseEntity<>(null, HttpStatus.PRECONDITION_FAILED);
         } catch (Exception e) {
             log.error("error updating task with id: {} error: {}", id, e.getMessage());
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    @Operation(summary = "Find a task using task id")
+    @Operation(summary = "Find a task using task id",
+            description = "Responds with an ETag, send it back in If-None-Match to get 304 while the task is unchanged")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Task found"),
+            @ApiResponse(responseCode = "304", description = "Task not modified", content = @Content),
             @ApiResponse(responseCode = "404", description = "Task not found", content = @Content),
             @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
     })
     @GetMapping(value = "/find/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<TaskResponse> find(@PathVariable Long id) {
+    public ResponseEntity<TaskResponse> find(@PathVariable Long id, WebRequest webRequest) {
         try {
+            // conditional requests are answered from the cached task too, the tag is its id and version
             Optional<TaskResponse> taskResponse = taskService.getByTaskId(id);
-            return taskResponse.map(response -> new ResponseEntity<>(response, HttpStatus.OK))
+            if (taskResponse.isPresent() && webRequest.checkNotModified(ETags.of(taskResponse.get()))) {
+                return null;
+            }
+            return taskResponse.map(response -> ResponseEntity.ok().eTag(ETags.of(response)).body(response))
                     .orElse(new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
         } catch (Exception e) {
             log.error("error fetching task with id: {} error: {}", id, e.getMessage());
@@ -97,22 +191,220 @@ public class TaskController {
         }
     }
 
-    @Operation(summary = "Find all tasks")
+    @Operation(summary = "Find all tasks", deprecated = true,
+            description = "Loads every task in one response, use /find-page instead." + CBOR_DESCRIPTION)
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Task list"),
             @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
     })
-    @GetMapping(value = "/find-all", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/find-all", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     public ResponseEntity<List<TaskResponse>> findAll() {
         try {
             List<TaskResponse> taskResponse = taskService.getAll();
-            return new ResponseEntity<>(taskResponse, HttpStatus.OK);
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(taskResponse);
         } catch (Exception e) {
             log.error("error fetching all tasks error: {}", e.getMessage());
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    @Operation(summary = "Export all tasks",
+            description = "Streams every task in id order, as newline delimited JSON with one task per line, or as a "
+                    + "CBOR sequence of one item per task when sent Accept: " + APPLICATION_CBOR_SEQ_VALUE)
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Task stream",
+                    content = {
+                            @Content(mediaType = APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = TaskResponse.class)),
+                            @Content(mediaType = APPLICATION_CBOR_SEQ_VALUE,
+                                    schema = @Schema(implementation = TaskResponse.class))
+                    })
+    })
+    @GetMapping(value = "/export", produces = {APPLICATION_NDJSON_VALUE, APPLICATION_CBOR_SEQ_VALUE})
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean cbor = prefersCborSequence(accept);
+        // one generator for the whole stream, flushed every EXPORT_FLUSH_ROWS rows rather than after each, a flush
+        // through gzip ends the deflate block and costs most of the compression
+        ObjectWriter writer = (cbor
+                ? cborConverter.getObjectMapper().writerFor(TaskResponse.class)
+                // the newline written after each task separates json lines, cbor items delimit themselves
+                : objectMapper.writerFor(TaskResponse.class).withRootValueSeparator(""))
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = writer.createGenerator(out)) {
+                AtomicInteger rows = new AtomicInteger();
+                taskService.exportAll(task -> {
+                    try {
+                        writer.writeValue(generator, task);
+                        if (!cbor) {
+                            generator.writeRaw('\n');
+                        }
+                        if (rows.incrementAndGet() % EXPORT_FLUSH_ROWS == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (Exception e) {
+                // headers are already committed, the client sees a truncated stream
+                log.error("error exporting tasks error: {}", e.getMessage());
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(cbor ? APPLICATION_CBOR_SEQ_VALUE : APPLICATION_NDJSON_VALUE))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    /**
+     * Whether the client ranks a CBOR sequence above newline delimited JSON, a missing or wildcard Accept gets JSON
+     */
+    private static boolean prefersCborSequence(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        MediaType cborSequence = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+        MediaType ndjson = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        MimeTypeUtils.sortBySpecificity(accepted);
+        return accepted.stream()
+                .filter(type -> type.isCompatibleWith(ndjson) || type.isCompatibleWith(cborSequence))
+                .findFirst()
+                .map(type -> type.equalsTypeAndSubtype(cborSequence))
+                .orElse(false);
+    }
+
+    @Operation(summary = "Stream task changes",
+            description = "Server-sent events named created, updated, deleted and archived carrying the change, sent once "
+                    + "committed. Reconnect with Last-Event-ID to resume, a reset event means changes were missed "
+                    + "and the task list should be reloaded")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Task change stream",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = TaskChangedEvent.class)))
+    })
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return taskEventStream.subscribe(lastEventId);
+    }
+
+    @Operation(summary = "Task statistics",
+            description = "Tasks per status and open tasks past their due date/time, counted in memory as tasks "
+                    + "change and reconciled with db periodically. A task is counted overdue within a minute of falling due. "
+                    + "Counts are per replica, changes made through another replica show after the next reconcile.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Task counts")
+    })
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TaskStatsResponse> stats() {
+        return ResponseEntity.ok(taskStatistics.get());
+    }
+
+    @Operation(summary = "Find a page of tasks",
+            description = "Tasks ordered by due date/time then id. Pass nextCursor from the previous page to continue. "
+                    + "Responds with an ETag, send it back in If-None-Match to get 304 while the page is unchanged."
+                    + CBOR_DESCRIPTION)
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Task page"),
+            @ApiResponse(responseCode = "304", description = "Task page not modified", content = @Content),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid filter or cursor",
+                    content = @Content(schema = @Schema(implementation = ValidationError.class))),
+            @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
+    })
+    @GetMapping(value = "/find-page", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<TaskPageResponse> findPage(
+            @RequestParam(required = false) List<Status> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dueTo,
+            @RequestParam(required = false) TaskCursor cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            TaskPageResponse taskPage = taskService.getPage(new TaskFilter(status, dueFrom, dueTo), cursor, size);
+            // a matching If-None-Match is answered with 304 before the body is serialized
+            return ResponseEntity.ok().eTag(ETags.of(taskPage)).varyBy(HttpHeaders.ACCEPT).body(taskPage);
+        } catch (Exception e) {
+            log.error("error fetching task page error: {}", e.getMessage());
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Operation(summary = "Search tasks by keyword",
+            description = "Tasks whose title or description match every word of q, best match first. "
+                    + "Pass nextCursor from the previous page to continue." + CBOR_DESCRIPTION)
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Task page"),
+            @ApiResponse(responseCode = "304", description = "Task page not modified", content = @Content),
+            @ApiResponse(responseCode = "400",
+                    description = "Missing search text or invalid cursor",
+                    content = @Content(schema = @Schema(implementation = ValidationError.class))),
+            @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
+    })
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<?> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) TaskSearchCursor cursor,
+            @RequestParam(required = false) Integer size) {
+        if (q == null || q.isBlank() || q.length() > MAX_SEARCH_LENGTH) {
+            ValidationError.FieldError error = new ValidationError.FieldError("q",
+                    "Search text is required, at most " + MAX_SEARCH_LENGTH + " characters");
+            return new ResponseEntity<>(new ValidationError(List.of(error)), HttpStatus.BAD_REQUEST);
+        }
+        try {
+            TaskPageResponse taskPage = taskService.search(q, cursor, size);
+            return ResponseEntity.ok().eTag(ETags.of(taskPage)).varyBy(HttpHeaders.ACCEPT).body(taskPage);
+        } catch (Exception e) {
+            log.error("error searching tasks error: {}", e.getMessage());
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Operation(summary = "Find an archived task using task id",
+            description = "Tasks cancelled or completed for longer than task.archive.closed-for are moved out of the "
+                    + "live task endpoints and only found here")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Archived task found"),
+            @ApiResponse(responseCode = "404", description = "Task not archived", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
+    })
+    @GetMapping(value = "/archive/find/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TaskResponse> findArchived(@PathVariable Long id) {
+        try {
+            return archiveService.getByTaskId(id)
+                    .map(ResponseEntity::ok)
+                    .orElse(new ResponseEntity<>(null, HttpStatus.NOT_FOUND));
+        } catch (Exception e) {
+            log.error("error fetching archived task with id: {} error: {}", id, e.getMessage());
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @Operation(summary = "Find a page of archived tasks",
+            description = "Archived tasks ordered by due date/time then id. Pass nextCursor from the previous page to continue."
+                    + CBOR_DESCRIPTION)
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Archived task page"),
+            @ApiResponse(responseCode = "400",
+                    description = "Invalid cursor",
+                    content = @Content(schema = @Schema(implementation = ValidationError.class))),
+            @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
+    })
+    @GetMapping(value = "/archive/find-page",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<TaskPageResponse> findArchivedPage(@RequestParam(required = false) TaskCursor cursor,
+                                                             @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(archiveService.getPage(cursor, size));
+        } catch (Exception e) {
+            log.error("error fetching archived task page error: {}", e.getMessage());
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     @Operation(summary = "Delete a task using task id")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Task deleted",
@@ -147,4 +439,141 @@ public class TaskController {
             return new ResponseEntity<>(Boolean.FALSE, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    @Operation(summary = "Create many tasks",
+            description = "Each task is validated on its own, results are returned in request order. "
+                    + IDEMPOTENCY_DESCRIPTION)
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Result for each task"),
+            @ApiResponse(responseCode = "400",
+                    description = "Too many tasks in one request",
+                    content = @Content(schema = @Schema(implementation = ValidationError.class))),
+            @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
+    })
+    @PostMapping(value = "/create-batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createBatch(@RequestBody List<TaskRequest> taskRequests,
+                                         @RequestHeader(value = TaskIdempotencyHandler.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                         HttpServletRequest httpRequest) {
+        if (taskRequests.size() > batchProperties.maxItems()) {
+            return batchTooLarge();
+        }
+        return idempotencyHandler.execute(httpRequest, idempotencyKey, "createBatch", taskRequests, () -> {
+            try {
+                List<TaskBatchResult> results = taskService.createAll(taskRequests);
+                return new ResponseEntity<>(results, HttpStatus.OK);
+            } catch (Exception e) {
+                log.error("error creating task batch error: {}", e.getMessage());
+                return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        });
+    }
+
+    @Operation(summary = "Update many tasks",
+            description = "Each task is validated on its own, results are returned in request order. "
+                    + IDEMPOTENCY_DESCRIPTION)
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Result for each task"),
+            @ApiResponse(responseCode = "400",
+                    description = "Too many tasks in one request",
+                    content = @Content(schema = @Schema(implementation = ValidationError.class))),
+            @ApiResponse(responseCode = "412", description = "A task was changed by someone else during the update", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
+    })
+    @PutMapping(value = "/update-batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> updateBatch(@RequestBody List<TaskUpdateRequest> updateRequests,
+                                         @RequestHeader(value = TaskIdempotencyHandler.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                         HttpServletRequest httpRequest) {
+        if (updateRequests.size() > batchProperties.maxItems()) {
+            return batchTooLarge();
+        }
+        return idempotencyHandler.execute(httpRequest, idempotencyKey, "updateBatch", updateRequests, () -> {
+            try {
+                List<TaskBatchResult> results = taskService.updateAll(updateRequests);
+                return new ResponseEntity<>(results, HttpStatus.OK);
+            } catch (OptimisticLockingFailureException e) {
+                log.info("task batch not updated: {}", e.getMessage());
+                return new ResponseEntity<>(null, HttpStatus.PRECONDITION_FAILED);
+            } catch (Exception e) {
+                log.error("error updating task batch error: {}", e.getMessage());
+                return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        });
+    }
+
+    @Operation(summary = "Delete many tasks using task ids",
+            description = "Results are returned in request order. "
+                    + IDEMPOTENCY_DESCRIPTION)
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Result for each task id"),
+            @ApiResponse(responseCode = "400",
+                    description = "Too many task ids in one request",
+                    content = @Content(schema = @Schema(implementation = ValidationError.class))),
+            @ApiResponse(responseCode = "500", description = "Server error", content = @Content)
+    })
+    @PostMapping(value = "/delete-batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> deleteBatch(@RequestBody List<Long> taskIds,
+                                         @RequestHeader(value = TaskIdempotencyHandler.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                         HttpServletRequest httpRequest) {
+        if (taskIds.size() > batchProperties.maxItems()) {
+            return batchTooLarge();
+        }
+        return idempotencyHandler.execute(httpRequest, idempotencyKey, "deleteBatch", taskIds, () -> {
+            try {
+                List<TaskBatchResult> results = taskService.deleteAll(taskIds);
+                return new ResponseEntity<>(results, HttpStatus.OK);
+            } catch (Exception e) {
+                log.error("error deleting task batch error: {}", e.getMessage());
+                return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        });
+    }
+
+    /**
+     * Create through the group commit queue, a full queue is answered 503 so clients back off. A create not
+     * committed within the response timeout is only answered 503 when it was withdrawn from the queue, a retry
+     * could otherwise create it twice.
+     */
+    private ResponseEntity<?> createGrouped(TaskRequest taskRequest) {
+        try {
+            CompletableFuture<TaskResponse> created = createQueue.submit(taskRequest);
+            TaskResponse taskResponse;
+            try {
+                taskResponse = created.get(createQueue.responseTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (createQueue.withdraw(created)) {
+                    log.warn("task create not taken by the writer within {}", createQueue.responseTimeout());
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, "1").build();
+                }
+                // the writer holds it, its batch completes the future whether it commits or fails
+                log.warn("task create taken but not committed within {}, waiting for its batch",
+                        createQueue.responseTimeout());
+                taskResponse = created.get();
+            }
+            return new ResponseEntity<>(taskResponse, HttpStatus.CREATED);
+        } catch (RejectedExecutionException e) {
+            return createRefused(e);
+        } catch (ExecutionException e) {
+            // queued while the application shut down
+            if (e.getCause() instanceof RejectedExecutionException refused) {
+                return createRefused(refused);
+            }
+            log.error("error creating task: {}", e.getCause().getMessage());
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private ResponseEntity<?> createRefused(RejectedExecutionException e) {
+        log.info("task create refused: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    private ResponseEntity<ValidationError> batchTooLarge() {
+        ValidationError.FieldError error = new ValidationError.FieldError("request",
+                "Batch cannot exceed " + batchProperties.maxItems() + " items");
+        return new ResponseEntity<>(new ValidationError(List.of(error)), HttpStatus.BAD_REQUEST);
+    }
 }
@@ -0,0 +1,21 @@
+package gov.uk.dts.task_api.dto;
+
+import gov.uk.dts.task_api.handler.ValidationError;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of one item in a bulk request, reported in the same position as the request item
+ */
+@Builder
+@Getter
+public class TaskBatchResult {
+
+    private int index;
+    private int status;
+    private Long id;
+    private TaskResponse task;
+    private List<ValidationError.FieldError> errors;
+}
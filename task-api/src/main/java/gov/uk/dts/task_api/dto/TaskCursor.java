@@ -0,0 +1,47 @@
+package gov.uk.dts.task_api.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the (dueDateTime, id) ordering of tasks, exchanged with clients as an opaque token
+ *
+ * @param dueDateTime - due date/time of the last task returned
+ * @param id - id of the last task returned
+ */
+public record TaskCursor(LocalDateTime dueDateTime, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TaskCursor of(TaskResponse task) {
+        return new TaskCursor(task.getDueDateTime(), task.getId());
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}, also used by Spring to bind request parameters
+     *
+     * @param token - opaque cursor received from client
+     * @return - decoded cursor
+     * @throws IllegalArgumentException - if token is not a valid cursor
+     */
+    public static TaskCursor valueOf(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new TaskCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.valueOf(decoded.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = dueDateTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,24 @@
+package gov.uk.dts.task_api.dto;
+
+import gov.uk.dts.task_api.utility.Status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Optional server side filters for task listing, null or empty values are ignored
+ *
+ * @param statuses - match any of these statuses
+ * @param dueFrom - inclusive lower bound on due date/time
+ * @param dueTo - exclusive upper bound on due date/time
+ */
+public record TaskFilter(List<Status> statuses, LocalDateTime dueFrom, LocalDateTime dueTo) {
+
+    public static TaskFilter none() {
+        return new TaskFilter(null, null, null);
+    }
+
+    public boolean hasStatuses() {
+        return statuses != null && !statuses.isEmpty();
+    }
+}
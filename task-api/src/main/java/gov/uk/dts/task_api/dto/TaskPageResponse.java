@@ -0,0 +1,15 @@
+package gov.uk.dts.task_api.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.List;
+
+@Builder
+@Getter
+public class TaskPageResponse {
+
+    @NonNull private List<TaskResponse> tasks;
+    private String nextCursor;
+}
@@ -1,13 +1,18 @@
 package gov.uk.dts.task_api.dto;
 
 import gov.uk.dts.task_api.utility.Status;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
 
 import java.time.LocalDateTime;
 
+/**
+ * Task as returned to the UI, read queries select it straight from the row with its all args constructor
+ */
 @Builder
+@AllArgsConstructor
 @Getter
 public class TaskResponse {
 
@@ -16,4 +21,7 @@ public class TaskResponse {
     private String description;
     @NonNull private Status status;
     @NonNull private LocalDateTime dueDateTime;
+    private LocalDateTime updatedAt;
+    private Long version;
+    private LocalDateTime overdueAt;
 }
@@ -0,0 +1,41 @@
+package gov.uk.dts.task_api.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the (rank descending, id) ordering of search results, exchanged with clients as an opaque token
+ *
+ * @param rank - relevance of the last task returned
+ * @param id - id of the last task returned
+ */
+public record TaskSearchCursor(float rank, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Decode a token produced by {@link #encode()}, also used by Spring to bind request parameters
+     *
+     * @param token - opaque cursor received from client
+     * @return - decoded cursor
+     * @throws IllegalArgumentException - if token is not a valid cursor
+     */
+    public static TaskSearchCursor valueOf(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new TaskSearchCursor(Float.parseFloat(decoded.substring(0, separator)),
+                    Long.valueOf(decoded.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = rank + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
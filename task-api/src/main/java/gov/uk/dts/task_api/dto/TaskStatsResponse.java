@@ -0,0 +1,22 @@
+package gov.uk.dts.task_api.dto;
+
+import gov.uk.dts.task_api.utility.Status;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Task counts for dashboards, overdue counts open tasks past their due date/time
+ */
+@Builder
+@Getter
+public class TaskStatsResponse {
+
+    @NonNull private Map<Status, Long> counts;
+    private long total;
+    private long overdue;
+    private LocalDateTime reconciledAt;
+}
@@ -0,0 +1,25 @@
+package gov.uk.dts.task_api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TaskUpdateRequest {
+
+    @NotNull(message = "Id is required")
+    private Long id;
+
+    @NotNull(message = "Task is required")
+    @Valid
+    private TaskRequest task;
+
+    // optional, when present the update only applies if the task is still at this version
+    private Long version;
+}
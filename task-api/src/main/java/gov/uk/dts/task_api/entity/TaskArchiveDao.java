@@ -0,0 +1,60 @@
+package gov.uk.dts.task_api.entity;
+
+import gov.uk.dts.task_api.utility.Status;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed task moved out of tasks by the archiver, written once and never updated
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "task_archive", indexes = {
+        // mirrors V10 for the generated test schema
+        @Index(name = "idx_task_archive_due_date_time_id", columnList = "due_date_time, id")
+})
+public class TaskArchiveDao {
+
+    // id the task had while it was live
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    @NonNull private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @NonNull private Status status;
+
+    @Column(nullable = false)
+    @NonNull private LocalDateTime dueDateTime;
+
+    @Column(nullable = false)
+    @NonNull private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    @NonNull private Long version;
+
+    private LocalDateTime overdueAt;
+
+    @Column(nullable = false)
+    @NonNull private LocalDateTime archivedAt;
+}
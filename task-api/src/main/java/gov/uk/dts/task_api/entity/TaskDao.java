@@ -8,7 +8,10 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -22,11 +25,16 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        // mirrors V5 for the generated test schema, the partial open status index is postgres only
+        @Index(name = "idx_tasks_due_date_time_id", columnList = "due_date_time, id"),
+        @Index(name = "idx_tasks_status_due_date_time_id", columnList = "status, due_date_time, id")
+})
 public class TaskDao {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_id_seq")
+    @SequenceGenerator(name = "tasks_id_seq", sequenceName = "tasks_id_seq", allocationSize = 500)
     private Long id;
 
     @Column(nullable = false)
@@ -42,4 +50,15 @@ public class TaskDao {
     @NonNull private LocalDateTime dueDateTime;
 
     private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    // when the overdue sweeper flagged the task, null while it is not overdue or not yet swept
+    private LocalDateTime overdueAt;
+
+    public TaskDao(Long id, @NonNull String title, String description, @NonNull Status status,
+                   @NonNull LocalDateTime dueDateTime, LocalDateTime updatedAt, Long version) {
+        this(id, title, description, status, dueDateTime, updatedAt, version, null);
+    }
 }
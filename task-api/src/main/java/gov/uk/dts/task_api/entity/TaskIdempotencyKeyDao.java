@@ -0,0 +1,45 @@
+package gov.uk.dts.task_api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response stored for an Idempotency-Key, fingerprint is the operation and a hash of the request it answered
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "task_idempotency_keys", indexes = {
+        // mirrors V9 for the generated test schema
+        @Index(name = "idx_task_idempotency_keys_expires_at", columnList = "expires_at")
+})
+public class TaskIdempotencyKeyDao {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    @Column(nullable = false, length = 100)
+    @NonNull private String fingerprint;
+
+    @Column(nullable = false)
+    private int status;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    @Column(nullable = false)
+    @NonNull private LocalDateTime expiresAt;
+}
@@ -0,0 +1,35 @@
+package gov.uk.dts.task_api.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease on a background job, the replica named owner runs it until expiresAt unless it renews
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "task_job_leases")
+public class TaskJobLeaseDao {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false, length = 100)
+    @NonNull private String owner;
+
+    @Column(nullable = false)
+    @NonNull private LocalDateTime expiresAt;
+}
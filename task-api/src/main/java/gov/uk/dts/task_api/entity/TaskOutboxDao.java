@@ -0,0 +1,49 @@
+package gov.uk.dts.task_api.entity;
+
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A task change waiting to be relayed to the event sink, deleted once delivered
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "task_outbox")
+public class TaskOutboxDao {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_outbox_id_seq")
+    @SequenceGenerator(name = "task_outbox_id_seq", sequenceName = "task_outbox_id_seq", allocationSize = 500)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @NonNull private TaskChangedEvent.Type eventType;
+
+    @Column(nullable = false)
+    @NonNull private Long taskId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    @NonNull private String payload;
+
+    @Column(nullable = false)
+    @NonNull private LocalDateTime createdAt;
+}
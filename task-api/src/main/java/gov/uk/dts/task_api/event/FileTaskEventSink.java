@@ -0,0 +1,46 @@
+package gov.uk.dts.task_api.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Appends changes to a local file as newline delimited JSON, for development and tests without a broker.
+ * Each batch is forced to disk before it is acknowledged.
+ */
+@RequiredArgsConstructor
+public class FileTaskEventSink implements TaskEventSink {
+
+    @NonNull private final Path file;
+    @NonNull private final ObjectMapper objectMapper;
+
+    @Override
+    public synchronized void publish(List<TaskOutboxMessage> messages) {
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (TaskOutboxMessage message : messages) {
+                lines.write(objectMapper.writeValueAsBytes(message));
+                lines.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package gov.uk.dts.task_api.event;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * Writes each change to the application log, the default until a downstream system is configured
+ */
+@Slf4j
+public class LoggingTaskEventSink implements TaskEventSink {
+
+    @Override
+    public void publish(List<TaskOutboxMessage> messages) {
+        messages.forEach(message -> log.info("Task event {} {} for task {}: {}",
+                message.id(), message.type(), message.taskId(), message.payload()));
+    }
+}
@@ -0,0 +1,37 @@
+package gov.uk.dts.task_api.event;
+
+import gov.uk.dts.task_api.dto.TaskResponse;
+
+/**
+ * Published by the task service for every task written to db
+ *
+ * @param type - kind of change
+ * @param taskId - id of the changed task
+ * @param task - task after the change, null when deleted or archived
+ */
+public record TaskChangedEvent(Type type, Long taskId, TaskResponse task) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // moved to the archive, no longer a live task but still readable from /task/v1/archive
+        ARCHIVED
+    }
+
+    public static TaskChangedEvent created(TaskResponse task) {
+        return new TaskChangedEvent(Type.CREATED, task.getId(), task);
+    }
+
+    public static TaskChangedEvent updated(TaskResponse task) {
+        return new TaskChangedEvent(Type.UPDATED, task.getId(), task);
+    }
+
+    public static TaskChangedEvent deleted(Long taskId) {
+        return new TaskChangedEvent(Type.DELETED, taskId, null);
+    }
+
+    public static TaskChangedEvent archived(Long taskId) {
+        return new TaskChangedEvent(Type.ARCHIVED, taskId, null);
+    }
+}
@@ -0,0 +1,18 @@
+package gov.uk.dts.task_api.event;
+
+import java.util.List;
+
+/**
+ * Destination for task changes relayed from the outbox. Delivery is at least once, a batch is sent
+ * again when publish throws or the relay stops before the batch is removed from the outbox.
+ */
+public interface TaskEventSink {
+
+    /**
+     * Publish a batch of changes, returning only once the destination has accepted all of them
+     *
+     * @param messages - changes in outbox id order
+     * @throws RuntimeException - to have the whole batch retried on the next poll
+     */
+    void publish(List<TaskOutboxMessage> messages);
+}
@@ -0,0 +1,18 @@
+package gov.uk.dts.task_api.event;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+/**
+ * A task change relayed from the outbox
+ *
+ * @param id - outbox id, unique and increasing, consumers drop ids they have already seen
+ * @param type - kind of change
+ * @param taskId - id of the changed task
+ * @param payload - the task changed event as JSON
+ * @param createdAt - when the change was committed
+ */
+public record TaskOutboxMessage(Long id, TaskChangedEvent.Type type, Long taskId,
+                                @JsonRawValue String payload, LocalDateTime createdAt) {
+}
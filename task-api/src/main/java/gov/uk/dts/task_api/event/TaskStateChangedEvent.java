@@ -0,0 +1,25 @@
+package gov.uk.dts.task_api.event;
+
+import gov.uk.dts.task_api.repository.TaskState;
+
+/**
+ * Published by the task service with the counted fields of a task before and after a change, so
+ * counters can be moved without reading the task again
+ *
+ * @param before - state before the change, null when created
+ * @param after - state after the change, null when deleted
+ */
+public record TaskStateChangedEvent(TaskState before, TaskState after) {
+
+    public static TaskStateChangedEvent created(TaskState after) {
+        return new TaskStateChangedEvent(null, after);
+    }
+
+    public static TaskStateChangedEvent updated(TaskState before, TaskState after) {
+        return new TaskStateChangedEvent(before, after);
+    }
+
+    public static TaskStateChangedEvent deleted(TaskState before) {
+        return new TaskStateChangedEvent(before, null);
+    }
+}
@@ -1,19 +1,26 @@
 package gov.uk.dts.task_api.handler;
 
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.Arrays;
 import java.util.List;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class RequestExceptionHandler {
 
+    @NonNull private final MeterRegistry meterRegistry;
+
     /**
      * Intercept binding exception and wrap it in validation error object
      *
@@ -29,6 +36,7 @@ public class RequestExceptionHandler {
                 .map(err -> new ValidationError.FieldError(err.getField(), err.getDefaultMessage()))
                 .toList();
 
+        countError("validation");
         return new ResponseEntity<>(new ValidationError(errors), HttpStatus.BAD_REQUEST);
     }
 
@@ -42,6 +50,7 @@ public class RequestExceptionHandler {
     public ResponseEntity<ValidationError> handleJsonParseErrors(HttpMessageNotReadableException ex) {
 
         Throwable cause = ex.getCause();
+        countError("unreadable_body");
 
         if (cause instanceof InvalidFormatException ife && ife.getTargetType().isEnum()) {
 
@@ -58,4 +67,28 @@ public class RequestExceptionHandler {
         ValidationError.FieldError error = new ValidationError.FieldError("request", "Malformed JSON request");
         return new ResponseEntity<>(new ValidationError(List.of(error)), HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Intercept request parameter conversion exception and wrap it in validation error object
+     *
+     * @param ex - exception thrown by dispatcher servlet
+     * @return - ValidationError object
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ValidationError> handleParameterErrors(MethodArgumentTypeMismatchException ex) {
+
+        Class<?> targetType = ex.getRequiredType();
+        String message = targetType != null && targetType.isEnum()
+                ? "Invalid value. Allowed values: " + Arrays.toString(targetType.getEnumConstants())
+                : "Invalid value";
+        countError("parameter_type");
+
+        ValidationError.FieldError error = new ValidationError.FieldError(ex.getName(), message);
+        return new ResponseEntity<>(new ValidationError(List.of(error)), HttpStatus.BAD_REQUEST);
+    }
+
+    private void countError(String reason) {
+        meterRegistry.counter("task.api.errors", "reason", reason, "status", String.valueOf(HttpStatus.BAD_REQUEST.value()))
+                .increment();
+    }
 }
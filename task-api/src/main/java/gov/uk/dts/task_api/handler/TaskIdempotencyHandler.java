@@ -0,0 +1,243 @@
+package gov.uk.dts.task_api.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gov.uk.dts.task_api.config.TaskIdempotencyProperties;
+import gov.uk.dts.task_api.entity.TaskIdempotencyKeyDao;
+import gov.uk.dts.task_api.repository.TaskIdempotencyKeyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request sent with an Idempotency-Key once, the first successful response is stored in db with the key
+ * and replayed to retries until it expires. Keys are scoped to the client that sent them, so two clients choosing
+ * the same key never see each other's responses. The request and the stored key commit in one transaction, so a
+ * response is only replayed for work that was committed. Duplicates arriving together wait for the one in flight
+ * with their key and nothing else, duplicates reaching another replica lose on the key's primary key and replay
+ * the winner's response.
+ */
+@Component
+@Slf4j
+public class TaskIdempotencyHandler {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final TaskIdempotencyKeyRepository repository;
+    private final TaskIdempotencyProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TaskIdempotencyKeyDao> responses;
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public TaskIdempotencyHandler(@NonNull TaskIdempotencyKeyRepository repository,
+                                  @NonNull TaskIdempotencyProperties properties,
+                                  @NonNull TransactionTemplate transactionTemplate,
+                                  @NonNull ObjectMapper objectMapper, @NonNull MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.cacheSize())
+                .expireAfterWrite(properties.ttl())
+                .build();
+    }
+
+    /**
+     * Run the request, or replay the response stored for its key
+     *
+     * @param httpRequest - request the key came with, the key is scoped to the user or address that sent it
+     * @param key - Idempotency-Key sent by the client, the request is run as usual when null
+     * @param operation - endpoint the key is used on, the same key cannot be reused on another endpoint
+     * @param request - request body, a key reused with a different body is answered 422
+     * @param action - runs the request
+     * @return - response of the request, or the stored response when replayed
+     */
+    public ResponseEntity<?> execute(HttpServletRequest httpRequest, String key, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return error(HttpStatus.BAD_REQUEST, "Must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String fingerprint = fingerprint(operation, request);
+        String scopedKey = scopedKey(TaskLoadShedder.clientId(httpRequest), key);
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (!awaitTurn(scopedKey, done)) {
+            return error(HttpStatus.CONFLICT, "A request with this key is still in progress");
+        }
+        try {
+            Optional<TaskIdempotencyKeyDao> stored = find(scopedKey);
+            if (stored.isPresent()) {
+                return replay(stored.get(), operation, fingerprint);
+            }
+            try {
+                return run(scopedKey, fingerprint, action);
+            } catch (DataIntegrityViolationException e) {
+                // another replica stored a response for the key first, this request rolled back
+                log.info("Idempotency key stored by another request, replaying its response");
+                return find(scopedKey).map(winner -> replay(winner, operation, fingerprint))
+                        .orElseThrow(() -> e);
+            }
+        } finally {
+            inFlight.remove(scopedKey, done);
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Register the request as the one in flight for its key, waiting for any duplicate already running with it.
+     * Nothing is held while the request runs except its own entry, so requests with other keys never wait.
+     *
+     * @return - false when the duplicate is still running after the lock timeout
+     */
+    private boolean awaitTurn(String scopedKey, CompletableFuture<Void> done) {
+        long deadline = System.nanoTime() + properties.lockTimeout().toNanos();
+        CompletableFuture<Void> running;
+        while ((running = inFlight.putIfAbsent(scopedKey, done)) != null) {
+            try {
+                running.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (ExecutionException e) {
+                // never completed exceptionally, the entry is only ever completed once its request is done
+                throw new IllegalStateException(e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Delete the keys that have expired, replicas deleting together delete nothing twice
+     */
+    @Scheduled(fixedDelayString = "${task.idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        try {
+            int deleted = repository.deleteExpired(LocalDateTime.now());
+            log.debug("Deleted {} expired idempotency keys", deleted);
+        } catch (RuntimeException e) {
+            log.warn("Idempotency key purge failed, will be retried error: {}", e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> run(String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        Outcome outcome = transactionTemplate.execute(status -> {
+            ResponseEntity<?> response = action.get();
+            // only a success is kept, anything else rolls back and is run again on retry
+            if (!response.getStatusCode().is2xxSuccessful() || status.isRollbackOnly()) {
+                status.setRollbackOnly();
+                return new Outcome(response, null);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            TaskIdempotencyKeyDao stored = new TaskIdempotencyKeyDao(key, fingerprint,
+                    response.getStatusCode().value(), serialize(response.getBody()), now.plus(properties.ttl()));
+            // a key reused after it expired is still stored until purged, find took it as absent
+            repository.deleteExpired(key, now);
+            repository.create(stored.getKey(), stored.getFingerprint(), stored.getStatus(), stored.getBody(),
+                    stored.getExpiresAt());
+            return new Outcome(response, stored);
+        });
+        // cached once committed, a rolled back key is never replayed
+        if (outcome.stored() != null) {
+            responses.put(key, outcome.stored());
+        }
+        return outcome.response();
+    }
+
+    private Optional<TaskIdempotencyKeyDao> find(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        TaskIdempotencyKeyDao cached = responses.getIfPresent(key);
+        if (cached != null && cached.getExpiresAt().isAfter(now)) {
+            return Optional.of(cached);
+        }
+        Optional<TaskIdempotencyKeyDao> stored = repository.findUnexpired(key, now);
+        stored.ifPresent(dao -> responses.put(key, dao));
+        return stored;
+    }
+
+    private ResponseEntity<?> replay(TaskIdempotencyKeyDao stored, String operation, String fingerprint) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            return error(HttpStatus.UNPROCESSABLE_ENTITY, "Already used for a different request");
+        }
+        meterRegistry.counter("task.idempotency.replays", "operation", operation).increment();
+        // the body is stored as the json first sent, it is written back as is
+        return ResponseEntity.status(stored.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED, "true")
+                .body(stored.getBody());
+    }
+
+    /**
+     * Key stored for a client's Idempotency-Key, hashed so it fits the column whatever the client id is
+     */
+    static String scopedKey(String client, String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((client + "\n" + key).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot scope idempotency key", e);
+        }
+    }
+
+    /**
+     * Operation and a hash of the request, two requests match when their json does
+     */
+    String fingerprint(String operation, Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return operation + ":" + HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint " + operation + " request", e);
+        }
+    }
+
+    private String serialize(Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response", e);
+        }
+    }
+
+    private static ResponseEntity<ValidationError> error(HttpStatus status, String message) {
+        ValidationError.FieldError error = new ValidationError.FieldError(IDEMPOTENCY_KEY, message);
+        return new ResponseEntity<>(new ValidationError(List.of(error)), status);
+    }
+
+    private record Outcome(ResponseEntity<?> response, TaskIdempotencyKeyDao stored) {
+    }
+}
@@ -0,0 +1,172 @@
+package gov.uk.dts.task_api.handler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gov.uk.dts.task_api.config.TaskRateLimitProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Sheds task requests before the body is read or the service is called. Each client, the authenticated user
+ * or else the remote address, has a token bucket and is answered 429 once it runs out, each endpoint has a limit on requests in progress and is answered 503 once
+ * it is reached, both with Retry-After. Limits are read on every request so changes apply immediately.
+ */
+@Component
+@Slf4j
+public class TaskLoadShedder implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = TaskLoadShedder.class.getName() + ".permit";
+
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private volatile Limits limits;
+
+    @Autowired
+    public TaskLoadShedder(@NonNull TaskRateLimitProperties properties, @NonNull MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    TaskLoadShedder(TaskRateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+        // an idle bucket is full again long before it expires, forgetting it changes nothing
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxClients())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.limits = new Limits(properties.enabled(), properties.requestsPerSecond(), properties.burst(),
+                properties.maxConcurrent(), Map.copyOf(properties.endpointMaxConcurrent()));
+    }
+
+    public Limits limits() {
+        return limits;
+    }
+
+    /**
+     * Replace the limits, buckets and requests in progress are kept
+     *
+     * @param limits - new limits
+     */
+    public void update(Limits limits) {
+        this.limits = limits;
+        log.info("Task rate limits changed to {}", limits);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // an async dispatch resumes a request that was let through and still holds its permit
+        if (!(handler instanceof HandlerMethod method) || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Limits current = limits;
+        if (!current.enabled()) {
+            return true;
+        }
+        String endpoint = method.getMethod().getName();
+        long now = nanoTime.getAsLong();
+        long wait = buckets.get(clientId(request), client -> new TokenBucket(current.burst(), now)).tryAcquire(current, now);
+        if (wait > 0) {
+            shed(response, endpoint, HttpStatus.TOO_MANY_REQUESTS, "rate_limited",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+            return false;
+        }
+        AtomicInteger requests = inFlight.computeIfAbsent(endpoint, key -> new AtomicInteger());
+        if (requests.incrementAndGet() > current.maxConcurrent(endpoint)) {
+            requests.decrementAndGet();
+            shed(response, endpoint, HttpStatus.SERVICE_UNAVAILABLE, "overloaded", 1);
+            return false;
+        }
+        request.setAttribute(PERMIT, requests);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // not called when the first dispatch starts async handling, only once the async dispatch completes
+        if (request.getAttribute(PERMIT) instanceof AtomicInteger requests) {
+            request.removeAttribute(PERMIT);
+            requests.decrementAndGet();
+        }
+    }
+
+    /**
+     * Who the request is from as far as the server can tell, never a value the caller chooses. Behind a proxy the
+     * remote address is the client's once server.forward-headers-strategy trusts the proxy's X-Forwarded-For.
+     */
+    static String clientId(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? "user:" + principal.getName() : request.getRemoteAddr();
+    }
+
+    private void shed(HttpServletResponse response, String endpoint, HttpStatus status, String reason, long retryAfter)
+            throws IOException {
+        meterRegistry.counter("task.api.shed", "endpoint", endpoint, "reason", reason).increment();
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.sendError(status.value(), status.getReasonPhrase());
+    }
+
+    /**
+     * Current limits
+     *
+     * @param enabled - shed requests over the limits
+     * @param requestsPerSecond - rate a client's tokens refill at
+     * @param burst - tokens a client can hold
+     * @param maxConcurrent - requests in progress at once per endpoint
+     * @param endpointMaxConcurrent - requests in progress at once for the endpoints named
+     */
+    public record Limits(boolean enabled, double requestsPerSecond, int burst, int maxConcurrent,
+                         Map<String, Integer> endpointMaxConcurrent) {
+
+        int maxConcurrent(String endpoint) {
+            return endpointMaxConcurrent.getOrDefault(endpoint, maxConcurrent);
+        }
+    }
+
+    private static final class TokenBucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        /**
+         * Take a token if there is one
+         *
+         * @return - 0 when a token was taken, otherwise nanos until the next one
+         */
+        private synchronized long tryAcquire(Limits limits, long now) {
+            double perNano = limits.requestsPerSecond() / TimeUnit.SECONDS.toNanos(1);
+            tokens = Math.min(limits.burst(), tokens + Math.max(0, now - refilledAt) * perNano);
+            refilledAt = Math.max(refilledAt, now);
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / perNano);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package gov.uk.dts.task_api.handler;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * /actuator/ratelimits shows the task rate limits and changes them without a restart, changes last until the
+ * next restart, which starts from task.rate-limit again
+ */
+@Component
+@Endpoint(id = "ratelimits")
+@RequiredArgsConstructor
+public class TaskRateLimitEndpoint {
+
+    @NonNull private final TaskLoadShedder loadShedder;
+
+    @ReadOperation
+    public TaskLoadShedder.Limits limits() {
+        return loadShedder.limits();
+    }
+
+    /**
+     * Change any of the limits applied to every client and endpoint, the rest are kept
+     */
+    @WriteOperation
+    public TaskLoadShedder.Limits update(@Nullable Boolean enabled, @Nullable Double requestsPerSecond,
+                                         @Nullable Integer burst, @Nullable Integer maxConcurrent) {
+        TaskLoadShedder.Limits current = loadShedder.limits();
+        TaskLoadShedder.Limits limits = new TaskLoadShedder.Limits(
+                enabled == null ? current.enabled() : enabled,
+                requestsPerSecond == null ? current.requestsPerSecond() : positive("requestsPerSecond", requestsPerSecond),
+                burst == null ? current.burst() : (int) positive("burst", burst),
+                maxConcurrent == null ? current.maxConcurrent() : (int) positive("maxConcurrent", maxConcurrent),
+                current.endpointMaxConcurrent());
+        loadShedder.update(limits);
+        return limits;
+    }
+
+    /**
+     * Change the requests in progress allowed at once for one endpoint
+     *
+     * @param endpoint - controller method name, e.g. findAll
+     */
+    @WriteOperation
+    public TaskLoadShedder.Limits updateEndpoint(@Selector String endpoint, int maxConcurrent) {
+        TaskLoadShedder.Limits current = loadShedder.limits();
+        Map<String, Integer> endpointMaxConcurrent = new HashMap<>(current.endpointMaxConcurrent());
+        endpointMaxConcurrent.put(endpoint, (int) positive("maxConcurrent", maxConcurrent));
+        TaskLoadShedder.Limits limits = new TaskLoadShedder.Limits(current.enabled(), current.requestsPerSecond(),
+                current.burst(), current.maxConcurrent(), Map.copyOf(endpointMaxConcurrent));
+        loadShedder.update(limits);
+        return limits;
+    }
+
+    private static double positive(String name, double value) {
+        if (value <= 0) {
+            throw new InvalidEndpointRequestException(name + " must be positive", name + " must be positive");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,12 @@
+package gov.uk.dts.task_api.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of tasks due at one date/time
+ *
+ * @param dueDateTime - due date/time
+ * @param count - tasks due then
+ */
+public record DueDateTimeCount(LocalDateTime dueDateTime, long count) {
+}
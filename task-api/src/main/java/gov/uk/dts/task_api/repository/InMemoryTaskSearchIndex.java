@@ -0,0 +1,175 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.dto.TaskSearchCursor;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index of task titles and descriptions held in memory, the search index for the H2 test profile.
+ * Built from the tasks table at startup and kept current from committed task changes, so a search only
+ * reads the postings of its own words. Words are matched lower cased and without stemming.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "task.search", name = "index", havingValue = "memory")
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryTaskSearchIndex implements TaskSearchIndex {
+
+    // ts_rank defaults for the A (title) and B (description) weights used by V7
+    private static final float TITLE_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.4f;
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final Comparator<TaskSearchHit> RANK_ORDER = Comparator
+            .comparing(TaskSearchHit::rank, Comparator.reverseOrder())
+            .thenComparing(TaskSearchHit::id);
+
+    @NonNull private final TaskRepository taskRepository;
+    @NonNull private final TransactionTemplate transactionTemplate;
+
+    // word -> task id -> weight of the word in that task
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> wordsByTask = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Index the tasks already in db
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TaskResponse> tasks = taskRepository.streamAllResponses()) {
+                tasks.forEach(task -> index(task.getId(), task.getTitle(), task.getDescription()));
+            }
+        });
+        log.info("Task search index loaded with {} tasks", wordsByTask.size());
+    }
+
+    /**
+     * Apply a change once its transaction has committed
+     *
+     * @param event - task change published by the task service
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.task() == null) {
+            remove(event.taskId());
+        } else {
+            index(event.taskId(), event.task().getTitle(), event.task().getDescription());
+        }
+    }
+
+    @Override
+    public List<TaskSearchHit> search(String text, TaskSearchCursor after, int limit) {
+        Set<String> words = words(text);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        List<TaskSearchHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Float>> lists = new ArrayList<>();
+            for (String word : words) {
+                Map<Long, Float> list = postings.get(word);
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+            }
+            // walk the rarest word and probe the others, summed in query order so a rank is the same on every page
+            Map<Long, Float> rarest = lists.stream().min(Comparator.comparingInt(Map::size)).orElseThrow();
+            for (Long taskId : rarest.keySet()) {
+                float rank = 0;
+                for (Map<Long, Float> list : lists) {
+                    Float weight = list.get(taskId);
+                    if (weight == null) {
+                        rank = -1;
+                        break;
+                    }
+                    rank += weight;
+                }
+                if (rank > 0) {
+                    hits.add(new TaskSearchHit(taskId, rank));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Stream<TaskSearchHit> ordered = hits.stream().sorted(RANK_ORDER);
+        if (after != null) {
+            TaskSearchHit last = new TaskSearchHit(after.id(), after.rank());
+            ordered = ordered.filter(hit -> RANK_ORDER.compare(hit, last) > 0);
+        }
+        return ordered.limit(limit).toList();
+    }
+
+    private void index(Long taskId, String title, String description) {
+        Map<String, Float> weights = new HashMap<>();
+        words(title).forEach(word -> weights.merge(word, TITLE_WEIGHT, Float::sum));
+        words(description).forEach(word -> weights.merge(word, DESCRIPTION_WEIGHT, Float::sum));
+        lock.writeLock().lock();
+        try {
+            removeLocked(taskId);
+            weights.forEach((word, weight) -> postings.computeIfAbsent(word, key -> new HashMap<>()).put(taskId, weight));
+            wordsByTask.put(taskId, weights.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long taskId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long taskId) {
+        Set<String> words = wordsByTask.remove(taskId);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            Map<Long, Float> list = postings.get(word);
+            list.remove(taskId);
+            if (list.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text != null) {
+            Matcher matcher = WORD.matcher(text.toLowerCase(Locale.ROOT));
+            while (matcher.find()) {
+                words.add(matcher.group());
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,45 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.dto.TaskSearchCursor;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Search backed by the tasks.search_vector generated column and its GIN index (V7). The index finds the
+ * matching rows, only those are ranked, title words weigh more than description words.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "task.search", name = "index", havingValue = "postgres", matchIfMissing = true)
+@RequiredArgsConstructor
+public class PostgresTaskSearchIndex implements TaskSearchIndex {
+
+    static final String SEARCH_SQL = """
+            SELECT id, rank FROM (
+                SELECT t.id, ts_rank(t.search_vector, q) AS rank
+                FROM tasks t, websearch_to_tsquery('english', :text) q
+                WHERE t.search_vector @@ q
+            ) hits
+            """;
+
+    @NonNull private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<TaskSearchHit> search(String text, TaskSearchCursor after, int limit) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("text", text)
+                .addValue("limit", limit);
+        String keyset = "";
+        if (after != null) {
+            keyset = "WHERE rank < :rank OR (rank = :rank AND id > :id)\n";
+            parameters.addValue("rank", after.rank()).addValue("id", after.id());
+        }
+        return jdbcTemplate.query(SEARCH_SQL + keyset + "ORDER BY rank DESC, id LIMIT :limit", parameters,
+                (resultSet, row) -> new TaskSearchHit(resultSet.getLong("id"), resultSet.getFloat("rank")));
+    }
+}
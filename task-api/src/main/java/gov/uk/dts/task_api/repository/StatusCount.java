@@ -0,0 +1,12 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.utility.Status;
+
+/**
+ * Number of tasks in one status
+ *
+ * @param status - task status
+ * @param count - tasks in that status
+ */
+public record StatusCount(Status status, long count) {
+}
@@ -0,0 +1,71 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.entity.TaskArchiveDao;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskArchiveRepository extends JpaRepository<TaskArchiveDao, Long> {
+
+    /**
+     * Select list building the response straight from the archived row, same columns as TaskRepository.RESPONSE
+     */
+    String RESPONSE = """
+            select new gov.uk.dts.task_api.dto.TaskResponse(
+                a.id, a.title, a.description, a.status, a.dueDateTime, a.updatedAt, a.version, a.overdueAt)
+            from TaskArchiveDao a""";
+
+    /**
+     * Copy the given tasks into the archive in a single statement, without loading them
+     *
+     * @param ids - tasks to copy, locked by the caller
+     * @param archivedAt - time of the archive run
+     * @return - number of tasks copied
+     */
+    @Modifying
+    @Query("""
+            insert into TaskArchiveDao (id, title, description, status, dueDateTime, updatedAt, version, overdueAt, archivedAt)
+            select t.id, t.title, t.description, t.status, t.dueDateTime, t.updatedAt, t.version, t.overdueAt, :archivedAt
+            from TaskDao t where t.id in :ids""")
+    int copyFromTasks(Collection<Long> ids, LocalDateTime archivedAt);
+
+    /**
+     * Find an archived task as a response
+     *
+     * @param id - task id
+     * @return - task if it was archived
+     */
+    @Query(RESPONSE + " where a.id = :id")
+    Optional<TaskResponse> findResponseById(Long id);
+
+    /**
+     * Find the first archived tasks ordered by (dueDateTime, id)
+     *
+     * @param limit - maximum number of rows to fetch
+     * @return - archived tasks as responses in keyset order
+     */
+    @Query(RESPONSE + " order by a.dueDateTime, a.id")
+    List<TaskResponse> findPage(Limit limit);
+
+    /**
+     * Find the archived tasks after the keyset position ordered by (dueDateTime, id)
+     *
+     * @param dueDateTime - due date/time of the last task returned
+     * @param id - id of the last task returned
+     * @param limit - maximum number of rows to fetch
+     * @return - archived tasks as responses in keyset order
+     */
+    @Query(RESPONSE + """
+             where a.dueDateTime >= :dueDateTime and (a.dueDateTime > :dueDateTime or a.id > :id)
+            order by a.dueDateTime, a.id""")
+    List<TaskResponse> findPageAfter(LocalDateTime dueDateTime, Long id, Limit limit);
+}
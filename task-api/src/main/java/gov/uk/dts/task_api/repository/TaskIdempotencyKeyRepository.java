@@ -0,0 +1,64 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.entity.TaskIdempotencyKeyDao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface TaskIdempotencyKeyRepository extends JpaRepository<TaskIdempotencyKeyDao, String> {
+
+    /**
+     * Find the response stored for a key that has not expired
+     *
+     * @param key - Idempotency-Key sent by the client
+     * @param now - current time
+     * @return - stored response if any
+     */
+    @Query("select k from TaskIdempotencyKeyDao k where k.key = :key and k.expiresAt > :now")
+    Optional<TaskIdempotencyKeyDao> findUnexpired(String key, LocalDateTime now);
+
+    /**
+     * Store the response for a key in the current transaction, fails with a key violation if another request
+     * stored one first, the request that runs into it rolls back with it.
+     * Declared as touching only its own table, an undeclared native statement makes hibernate evict every
+     * second-level cache region.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_idempotency_keys"))
+    @Query(value = """
+            INSERT INTO task_idempotency_keys (idempotency_key, fingerprint, status, body, expires_at)
+            VALUES (:key, :fingerprint, :status, :body, :expiresAt)""", nativeQuery = true)
+    void create(String key, String fingerprint, int status, String body, LocalDateTime expiresAt);
+
+    /**
+     * Delete a key that has expired but is not purged yet, in the current transaction, so its response can be
+     * stored for the request reusing it. A request reusing the key on another replica waits for this one and
+     * then deletes nothing, it runs into the key stored here and replays its response.
+     *
+     * @param key - Idempotency-Key sent by the client
+     * @param now - current time
+     * @return - number of keys deleted
+     */
+    @Modifying
+    @Query("delete from TaskIdempotencyKeyDao k where k.key = :key and k.expiresAt <= :now")
+    int deleteExpired(String key, LocalDateTime now);
+
+    /**
+     * Delete the keys that have expired
+     *
+     * @return - number of keys deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from TaskIdempotencyKeyDao k where k.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
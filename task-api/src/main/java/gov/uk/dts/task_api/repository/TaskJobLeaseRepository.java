@@ -0,0 +1,51 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.entity.TaskJobLeaseDao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TaskJobLeaseRepository extends JpaRepository<TaskJobLeaseDao, String> {
+
+    /**
+     * Take or extend a lease that has expired or is already held by the owner
+     *
+     * @return - 1 if the owner now holds the lease, 0 if another owner does or the lease was never created
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update TaskJobLeaseDao l set l.owner = :owner, l.expiresAt = :expiresAt
+            where l.name = :name and (l.owner = :owner or l.expiresAt < :now)""")
+    int acquire(String name, String owner, LocalDateTime now, LocalDateTime expiresAt);
+
+    /**
+     * Create a lease held by the owner, fails with a key violation if another replica created it first.
+     * Declared as touching only its own table, an undeclared native statement makes hibernate evict every
+     * second-level cache region.
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_job_leases"))
+    @Query(value = "INSERT INTO task_job_leases (name, owner, expires_at) VALUES (:name, :owner, :expiresAt)",
+            nativeQuery = true)
+    void create(String name, String owner, LocalDateTime expiresAt);
+
+    /**
+     * Let the lease expire now so another replica can take it without waiting
+     *
+     * @return - 1 if the owner held the lease
+     */
+    @Transactional
+    @Modifying
+    @Query("update TaskJobLeaseDao l set l.expiresAt = :now where l.name = :name and l.owner = :owner")
+    int release(String name, String owner, LocalDateTime now);
+}
@@ -0,0 +1,22 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.entity.TaskOutboxDao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaskOutboxRepository extends JpaRepository<TaskOutboxDao, Long> {
+
+    /**
+     * Lock the oldest pending changes, rows locked by another relay are skipped rather than waited for,
+     * must be called inside a transaction
+     *
+     * @param limit - maximum number of changes to lock
+     * @return - changes in id order, locked until the transaction ends
+     */
+    @Query(value = "SELECT * FROM task_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<TaskOutboxDao> lockNextBatch(int limit);
+}
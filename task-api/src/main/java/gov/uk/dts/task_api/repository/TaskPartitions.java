@@ -0,0 +1,45 @@
+package gov.uk.dts.task_api.repository;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * Monthly range partitions of tasks by due_date_time, maintained by the postgres functions of V10, replaced by
+ * V11 (months added ahead) and V12 (months folded without scanning tasks_past)
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskPartitions {
+
+    @NonNull private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Add the partitions missing up to months ahead of this one
+     *
+     * @param monthsAhead - months after this one that should have a partition
+     * @return - number of partitions added
+     */
+    public int create(int monthsAhead) {
+        return jdbcTemplate.queryForObject("SELECT task_create_partitions(:monthsAhead)",
+                new MapSqlParameterSource("monthsAhead", monthsAhead), Integer.class);
+    }
+
+    /**
+     * Fold the oldest partitions into tasks_past while they ended before the date given and hold no tasks. The
+     * check bounding tasks_past is validated first in a statement of its own: reads and writes carry on while it
+     * scans tasks_past, and it is committed before the fold locks tasks. Once valid it is a no-op.
+     *
+     * @param endedBefore - only months ending on or before this date are folded
+     * @return - number of partitions dropped
+     */
+    public int dropEmpty(LocalDate endedBefore) {
+        jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE tasks_past VALIDATE CONSTRAINT tasks_past_bound");
+        return jdbcTemplate.queryForObject("SELECT task_drop_empty_partitions(:endedBefore)",
+                new MapSqlParameterSource("endedBefore", endedBefore), Integer.class);
+    }
+}
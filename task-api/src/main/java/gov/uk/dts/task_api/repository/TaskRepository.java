@@ -1,9 +1,146 @@
 package gov.uk.dts.task_api.repository;
 
+import gov.uk.dts.task_api.dto.TaskResponse;
 import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.utility.Status;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface TaskRepository extends JpaRepository<TaskDao, Long> {
+public interface TaskRepository extends JpaRepository<TaskDao, Long>, TaskRepositoryCustom {
+
+    /**
+     * Select list building the response straight from the row, read queries use it so no entity is hydrated,
+     * snapshotted for dirty checking or held in the persistence context
+     */
+    String RESPONSE = """
+            select new gov.uk.dts.task_api.dto.TaskResponse(
+                t.id, t.title, t.description, t.status, t.dueDateTime, t.updatedAt, t.version, t.overdueAt)
+            from TaskDao t""";
+
+    /**
+     * Find every task as a response
+     *
+     * @return - all tasks
+     */
+    @Query(RESPONSE)
+    List<TaskResponse> findAllResponses();
+
+    /**
+     * Find a task as a response
+     *
+     * @param id - task id
+     * @return - task if it exists
+     */
+    @Query(RESPONSE + " where t.id = :id")
+    Optional<TaskResponse> findResponseById(Long id);
+
+    /**
+     * Find the given tasks as responses
+     *
+     * @param ids - task ids
+     * @return - the tasks present in db, in no particular order
+     */
+    @Query(RESPONSE + " where t.id in :ids")
+    List<TaskResponse> findResponsesByIds(Collection<Long> ids);
+
+    /**
+     * Stream every task as a response in id order over a server side cursor, must be consumed inside a transaction
+     *
+     * @return - lazily fetched stream of tasks, close it when done
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE + " order by t.id")
+    Stream<TaskResponse> streamAllResponses();
+
+    /**
+     * Lock which of the given tasks exist and read the fields the statistics count, without loading the tasks
+     *
+     * @param ids - task ids to check
+     * @return - state of the tasks present in db
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new gov.uk.dts.task_api.repository.TaskState(t.id, t.status, t.dueDateTime) from TaskDao t where t.id in :ids")
+    List<TaskState> lockStatesByIds(Collection<Long> ids);
+
+    /**
+     * Read the fields the statistics count for the given tasks, as the current transaction sees them
+     *
+     * @param ids - task ids to read
+     * @return - state of the tasks present in db
+     */
+    @Query("select new gov.uk.dts.task_api.repository.TaskState(t.id, t.status, t.dueDateTime) from TaskDao t where t.id in :ids")
+    List<TaskState> findStatesByIds(Collection<Long> ids);
+
+    /**
+     * Lock which of the given tasks are still closed and not updated since the time given, and read the fields
+     * the statistics count, a task reopened or updated since it was found is left out
+     *
+     * @param ids - tasks found to archive
+     * @param statuses - statuses a task can be archived in
+     * @param closedBefore - tasks updated at or after this time stay live
+     * @return - state of the tasks to archive
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select new gov.uk.dts.task_api.repository.TaskState(t.id, t.status, t.dueDateTime) from TaskDao t
+            where t.id in :ids and t.status in :statuses and t.updatedAt < :closedBefore""")
+    List<TaskState> lockClosedStates(Collection<Long> ids, Collection<Status> statuses, LocalDateTime closedBefore);
+
+    /**
+     * Count every task by status
+     *
+     * @return - number of tasks in each status that has any
+     */
+    @Query("select new gov.uk.dts.task_api.repository.StatusCount(t.status, count(t)) from TaskDao t group by t.status")
+    List<StatusCount> countByStatus();
+
+    /**
+     * Count tasks in the given statuses by due date/time, must be consumed inside a transaction
+     *
+     * @param statuses - statuses to count
+     * @return - lazily fetched stream of due date/times with the number of tasks due then, close it when done
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new gov.uk.dts.task_api.repository.DueDateTimeCount(t.dueDateTime, count(t))
+            from TaskDao t where t.status in :statuses group by t.dueDateTime""")
+    Stream<DueDateTimeCount> streamCountByDueDateTime(Collection<Status> statuses);
+
+    /**
+     * Flag the given tasks overdue if they are still open, unflagged and due before the time given,
+     * a task completed or moved since it was found is left alone
+     *
+     * @param ids - tasks found overdue
+     * @param statuses - statuses a task can be overdue in
+     * @param at - time of the sweep, stored as overdueAt
+     * @return - number of tasks flagged
+     */
+    @Modifying
+    @Query("""
+            update TaskDao t set t.overdueAt = :at, t.version = t.version + 1
+            where t.id in :ids and t.status in :statuses and t.overdueAt is null and t.dueDateTime < :at""")
+    int flagOverdue(Collection<Long> ids, Collection<Status> statuses, LocalDateTime at);
+
+    /**
+     * Find which of the given tasks were flagged overdue at the time given
+     *
+     * @param ids - task ids to check
+     * @param overdueAt - time of the sweep
+     * @return - the tasks flagged by that sweep
+     */
+    List<TaskDao> findByIdInAndOverdueAt(Collection<Long> ids, LocalDateTime overdueAt);
 }
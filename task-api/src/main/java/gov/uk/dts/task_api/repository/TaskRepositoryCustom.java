@@ -0,0 +1,64 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.dto.TaskFilter;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.utility.Status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Find tasks matching the filter ordered by (dueDateTime, id), starting after the cursor
+     *
+     * @param filter - optional status and due date filters
+     * @param after - keyset position to continue from, null for the first page
+     * @param limit - maximum number of rows to fetch
+     * @return - matching tasks as responses in keyset order
+     */
+    List<TaskResponse> findPage(TaskFilter filter, TaskCursor after, int limit);
+
+    /**
+     * Find open tasks due before the time given that are not flagged overdue yet, ordered by (dueDateTime, id)
+     *
+     * @param dueBefore - time of the sweep
+     * @param after - keyset position to continue from, null for the first chunk
+     * @param limit - maximum number of rows to fetch
+     * @return - id, status and due date/time of the tasks in keyset order
+     */
+    List<TaskState> findUnflaggedOverdue(LocalDateTime dueBefore, TaskCursor after, int limit);
+
+    /**
+     * Find tasks cancelled or completed and not updated since the time given, oldest update first
+     *
+     * @param closedBefore - tasks updated at or after this time stay live
+     * @param limit - maximum number of rows to fetch
+     * @return - ids of the tasks to archive
+     */
+    List<Long> findArchivable(LocalDateTime closedBefore, int limit);
+
+    /**
+     * Update a task in a single statement, without loading it first, returning the state it had before. The task
+     * is found by id alone, so on postgres the statement probes every tasks partition once.
+     *
+     * @param id - task id
+     * @param version - version the task must still be at, null to update whatever the current version is
+     * @param clearOverdue - whether the update reschedules the task into the future or closes it, a task still
+     *                     past due stays flagged
+     * @return - state before and version after the update, empty if the task does not exist or has moved on to
+     * another version
+     */
+    Optional<TaskUpdate> updateReturningState(Long id, Long version, String title, String description, Status status,
+                                              LocalDateTime dueDateTime, LocalDateTime updatedAt, boolean clearOverdue);
+
+    /**
+     * Delete a task in a single statement, without loading it first, returning the state it had
+     *
+     * @param id - task id
+     * @return - state of the task deleted, empty if it does not exist
+     */
+    Optional<TaskState> removeReturningState(Long id);
+}
@@ -0,0 +1,194 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.config.CacheConfig;
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.dto.TaskFilter;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.entity.TaskDao;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import gov.uk.dts.task_api.utility.Status;
+import org.hibernate.Session;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskResponse> findPage(TaskFilter filter, TaskCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskResponse> query = cb.createQuery(TaskResponse.class);
+        Root<TaskDao> task = query.from(TaskDao.class);
+        Path<LocalDateTime> dueDateTime = task.get("dueDateTime");
+        Path<Long> id = task.get("id");
+
+        // only add predicates for filters that are present so the planner sees a plain range scan
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.hasStatuses()) {
+            // statuses are written into the sql, a generic plan could not match bound ones to the partial indexes
+            predicates.add(task.get("status").in(filter.statuses().stream().sorted().distinct()
+                    .map(cb::literal).toArray(Expression[]::new)));
+        }
+        if (filter.dueFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(dueDateTime, filter.dueFrom()));
+        }
+        if (filter.dueTo() != null) {
+            predicates.add(cb.lessThan(dueDateTime, filter.dueTo()));
+        }
+        if (after != null) {
+            predicates.add(cb.greaterThanOrEqualTo(dueDateTime, after.dueDateTime()));
+            predicates.add(cb.or(cb.greaterThan(dueDateTime, after.dueDateTime()),
+                    cb.greaterThan(id, after.id())));
+        }
+
+        // same columns as TaskRepository.RESPONSE
+        query.select(cb.construct(TaskResponse.class, id, task.get("title"), task.get("description"), task.get("status"),
+                        dueDateTime, task.get("updatedAt"), task.get("version"), task.get("overdueAt")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(dueDateTime), cb.asc(id));
+
+        // served from the query cache until a write to tasks commits, keyed by filter, cursor and limit
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                // hibernate puts a missed page even when the session only reads the cache, so the pages read
+                // from a replica skip the query cache
+                .setHint(HibernateHints.HINT_CACHEABLE, entityManager.unwrap(Session.class).getCacheMode().isPutEnabled())
+                .setHint(HibernateHints.HINT_CACHE_REGION, CacheConfig.TASK_PAGE_REGION)
+                .getResultList();
+    }
+
+    @Override
+    public List<TaskState> findUnflaggedOverdue(LocalDateTime dueBefore, TaskCursor after, int limit) {
+        // matches the partial index of V8, which only holds tasks still to be flagged, the statuses are literals
+        // so a generic plan still matches it
+        String keyset = after == null ? ""
+                : " and t.dueDateTime >= :afterDueDateTime and (t.dueDateTime > :afterDueDateTime or t.id > :afterId)";
+        TypedQuery<TaskState> query = entityManager.createQuery("""
+                        select new gov.uk.dts.task_api.repository.TaskState(t.id, t.status, t.dueDateTime)
+                        from TaskDao t
+                        where t.status in (gov.uk.dts.task_api.utility.Status.CREATED, gov.uk.dts.task_api.utility.Status.IN_PROGRESS)
+                          and t.overdueAt is null and t.dueDateTime < :dueBefore"""
+                        + keyset + " order by t.dueDateTime, t.id", TaskState.class)
+                .setParameter("dueBefore", dueBefore);
+        if (after != null) {
+            query.setParameter("afterDueDateTime", after.dueDateTime())
+                    .setParameter("afterId", after.id());
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<Long> findArchivable(LocalDateTime closedBefore, int limit) {
+        // matches the partial index of V10, which only holds closed tasks
+        return entityManager.createQuery("""
+                        select t.id from TaskDao t
+                        where t.status in (gov.uk.dts.task_api.utility.Status.CANCELLED, gov.uk.dts.task_api.utility.Status.COMPLETED)
+                          and t.updatedAt < :closedBefore
+                        order by t.updatedAt, t.id""", Long.class)
+                .setParameter("closedBefore", closedBefore)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<TaskUpdate> updateReturningState(Long id, Long version, String title, String description, Status status,
+                                                     LocalDateTime dueDateTime, LocalDateTime updatedAt, boolean clearOverdue) {
+        String set = "title = :title, description = :description, status = :status, due_date_time = :dueDateTime, "
+                + "updated_at = :updatedAt, version = t.version + 1" + (clearOverdue ? ", overdue_at = NULL" : "");
+        String versioned = version == null ? "" : " AND t.version = :version";
+        String sql = isPostgres()
+                // RETURNING only sees the row as updated, the state before is read and locked by the CTE in the
+                // same statement, joined on the whole primary key
+                ? """
+                  WITH b AS (SELECT id, status, due_date_time FROM tasks WHERE id = :id FOR UPDATE)
+                  UPDATE tasks t SET %s FROM b
+                  WHERE t.id = b.id AND t.due_date_time = b.due_date_time%s
+                  RETURNING b.status AS before_status, b.due_date_time AS before_due_date_time, t.version, t.overdue_at"""
+                        .formatted(set, versioned)
+                // H2 has no RETURNING, the old table of an update holds the rows as they were
+                : """
+                  SELECT o.status AS before_status, o.due_date_time AS before_due_date_time,
+                      o.version + 1 AS version, %s AS overdue_at
+                  FROM OLD TABLE (UPDATE tasks t SET %s WHERE t.id = :id%s) o"""
+                        .formatted(clearOverdue ? "NULL" : "o.overdue_at", set, versioned);
+
+        NativeQuery<Object[]> query = returning(sql)
+                .addScalar("before_status", String.class)
+                .addScalar("before_due_date_time", LocalDateTime.class)
+                .addScalar("version", Long.class)
+                .addScalar("overdue_at", LocalDateTime.class)
+                .setParameter("id", id)
+                .setParameter("title", title)
+                .setParameter("description", description)
+                .setParameter("status", status.name())
+                .setParameter("dueDateTime", dueDateTime)
+                .setParameter("updatedAt", updatedAt);
+        if (version != null) {
+            query.setParameter("version", version);
+        }
+        return written(query.getResultList()).map(row -> new TaskUpdate(
+                new TaskState(id, Status.valueOf((String) row[0]), (LocalDateTime) row[1]), (Long) row[2], (LocalDateTime) row[3]));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<TaskState> removeReturningState(Long id) {
+        String sql = isPostgres()
+                ? "DELETE FROM tasks WHERE id = :id RETURNING status, due_date_time"
+                : "SELECT status, due_date_time FROM OLD TABLE (DELETE FROM tasks WHERE id = :id)";
+        NativeQuery<Object[]> query = returning(sql)
+                .addScalar("status", String.class)
+                .addScalar("due_date_time", LocalDateTime.class)
+                .setParameter("id", id);
+        return written(query.getResultList()).map(row -> new TaskState(id, Status.valueOf((String) row[0]), (LocalDateTime) row[1]));
+    }
+
+    /**
+     * Native statement changing tasks that reads back what it changed, run as a query
+     */
+    @SuppressWarnings("rawtypes")
+    private NativeQuery returning(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                // only flush pending changes to tasks before it
+                .addSynchronizedQuerySpace("tasks");
+    }
+
+    /**
+     * The row a statement run by returning changed, if any. Hibernate runs it as a select and does not see the
+     * write, so the cached pages are invalidated at commit as for a bulk update.
+     */
+    private Optional<Object[]> written(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        BulkOperationCleanupAction.schedule(entityManager.unwrap(SharedSessionContractImplementor.class), Set.of("tasks"));
+        return Optional.of(rows.getFirst());
+    }
+
+    private boolean isPostgres() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+}
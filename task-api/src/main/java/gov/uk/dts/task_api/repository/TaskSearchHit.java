@@ -0,0 +1,10 @@
+package gov.uk.dts.task_api.repository;
+
+/**
+ * A task matching a search
+ *
+ * @param id - task id
+ * @param rank - relevance, higher is better, only comparable within one search
+ */
+public record TaskSearchHit(Long id, float rank) {
+}
@@ -0,0 +1,21 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.dto.TaskSearchCursor;
+
+import java.util.List;
+
+/**
+ * Keyword search over task titles and descriptions, selected with task.search.index
+ */
+public interface TaskSearchIndex {
+
+    /**
+     * Find tasks matching every word of the search text, best match first then by id, starting after the cursor
+     *
+     * @param text - search text entered by the user
+     * @param after - keyset position to continue from, null for the first page
+     * @param limit - maximum number of hits to return
+     * @return - matching task ids with their rank in keyset order
+     */
+    List<TaskSearchHit> search(String text, TaskSearchCursor after, int limit);
+}
@@ -0,0 +1,15 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.utility.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields of a task the statistics are counted by
+ *
+ * @param id - task id
+ * @param status - task status
+ * @param dueDateTime - task due date/time
+ */
+public record TaskState(Long id, Status status, LocalDateTime dueDateTime) {
+}
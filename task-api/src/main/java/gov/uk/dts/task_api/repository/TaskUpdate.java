@@ -0,0 +1,14 @@
+package gov.uk.dts.task_api.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a single statement update returns: the state the task had before it, counted by the statistics, and the
+ * fields the update can leave as they were
+ *
+ * @param before - state of the task before the update
+ * @param version - task version after the update
+ * @param overdueAt - when the task was flagged overdue, null if it is not
+ */
+public record TaskUpdate(TaskState before, Long version, LocalDateTime overdueAt) {
+}
@@ -0,0 +1,12 @@
+package gov.uk.dts.task_api.service;
+
+/**
+ * Hook to keep task caches coherent across API replicas. Called after a task change is committed
+ * and evicted locally, an implementation should deliver the id to the other replicas where it is
+ * passed to {@link TaskCacheInvalidator#evict(Long)}.
+ */
+@FunctionalInterface
+public interface CacheInvalidationBroadcaster {
+
+    void broadcast(Long taskId);
+}
@@ -0,0 +1,202 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.ReadReplicaRoutingDataSource;
+import gov.uk.dts.task_api.config.TaskSweeperProperties;
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.repository.TaskJobLeaseRepository;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.repository.TaskState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Flags open tasks that are past their due date/time. The replica holding the sweeper lease walks the
+ * unflagged overdue tasks in keyset chunks and flags each chunk in its own short transaction, up to
+ * task.sweeper.concurrency chunks at once, so millions of rows never sit in one transaction or lock.
+ * A failed chunk is left unflagged and picked up by the next sweep.
+ */
+@Component
+@Slf4j
+public class OverdueTaskSweeper {
+
+    static final String LEASE = "overdue-sweeper";
+
+    private final TaskRepository taskRepository;
+    private final TaskService taskService;
+    private final TaskJobLeaseRepository leaseRepository;
+    private final TaskSweeperProperties properties;
+    private final String owner = System.getenv().getOrDefault("HOSTNAME", "task-api") + "-" + UUID.randomUUID();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter flagged;
+    private final Counter chunks;
+    private final Counter failedChunks;
+    private final Counter completedRuns;
+    private final Counter skippedRuns;
+    private final Timer duration;
+
+    public OverdueTaskSweeper(@NonNull TaskRepository taskRepository, @NonNull TaskService taskService,
+                              @NonNull TaskJobLeaseRepository leaseRepository, @NonNull TaskSweeperProperties properties,
+                              @NonNull MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.taskService = taskService;
+        this.leaseRepository = leaseRepository;
+        this.properties = properties;
+        this.flagged = Counter.builder("task.sweeper.flagged")
+                .description("Tasks flagged overdue")
+                .register(meterRegistry);
+        this.chunks = Counter.builder("task.sweeper.chunks")
+                .description("Chunks of overdue tasks flagged")
+                .tag("result", "success")
+                .register(meterRegistry);
+        this.failedChunks = Counter.builder("task.sweeper.chunks")
+                .description("Chunks of overdue tasks flagged")
+                .tag("result", "failure")
+                .register(meterRegistry);
+        this.completedRuns = Counter.builder("task.sweeper.runs")
+                .description("Sweeps started on this replica")
+                .tag("result", "completed")
+                .register(meterRegistry);
+        this.skippedRuns = Counter.builder("task.sweeper.runs")
+                .description("Sweeps started on this replica")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+        this.duration = Timer.builder("task.sweeper.duration")
+                .description("Time to sweep every overdue task")
+                .register(meterRegistry);
+        Gauge.builder("task.sweeper.chunks.in.flight", inFlight, AtomicInteger::get)
+                .description("Chunks being flagged now")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sweep if no other replica is, each sweep flags the tasks that fell due since the last one
+     */
+    @Scheduled(initialDelayString = "${task.sweeper.interval:1m}", fixedDelayString = "${task.sweeper.interval:1m}")
+    public void sweep() {
+        if (!properties.enabled()) {
+            return;
+        }
+        LocalDateTime at = now();
+        if (!acquireLease(at)) {
+            skippedRuns.increment();
+            log.debug("Overdue sweep skipped, another replica holds the lease");
+            return;
+        }
+        try {
+            int count = duration.recordCallable(() -> sweepChunks(at));
+            completedRuns.increment();
+            log.info("Overdue sweep flagged {} tasks due before {}", count, at);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Overdue sweep failed error: {}", e.getMessage());
+        } finally {
+            leaseRepository.release(LEASE, owner, now());
+        }
+    }
+
+    /**
+     * Wait for the chunks being flagged on shutdown, a sweep stopped part way is finished by the next one
+     */
+    @PreDestroy
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * Read the next chunk while earlier ones are being flagged, the read is a short scan of the V8 partial index
+     *
+     * @return - number of tasks flagged
+     */
+    private int sweepChunks(LocalDateTime at) throws InterruptedException {
+        Semaphore permits = new Semaphore(properties.concurrency());
+        AtomicInteger total = new AtomicInteger();
+        LocalDateTime renewAt = at.plus(properties.lease().dividedBy(2));
+        TaskCursor after = null;
+        try {
+            while (true) {
+                TaskCursor from = after;
+                List<TaskState> chunk = ReadReplicaRoutingDataSource.onPrimary(
+                        () -> taskRepository.findUnflaggedOverdue(at, from, properties.chunkSize()));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                permits.acquire();
+                List<Long> ids = chunk.stream().map(TaskState::id).toList();
+                inFlight.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        int count = taskService.flagOverdue(ids, at);
+                        total.addAndGet(count);
+                        flagged.increment(count);
+                        chunks.increment();
+                    } catch (RuntimeException e) {
+                        failedChunks.increment();
+                        log.warn("Overdue chunk of {} tasks failed, retried by the next sweep error: {}", ids.size(), e.getMessage());
+                    } finally {
+                        inFlight.decrementAndGet();
+                        permits.release();
+                    }
+                });
+                if (chunk.size() < properties.chunkSize()) {
+                    break;
+                }
+                TaskState last = chunk.getLast();
+                after = new TaskCursor(last.dueDateTime(), last.id());
+                if (now().isAfter(renewAt)) {
+                    if (!acquireLease(now())) {
+                        log.warn("Overdue sweep lost its lease, stopping after {}", after);
+                        break;
+                    }
+                    renewAt = now().plus(properties.lease().dividedBy(2));
+                }
+            }
+        } finally {
+            // wait for the chunks still being flagged
+            permits.acquireUninterruptibly(properties.concurrency());
+        }
+        return total.get();
+    }
+
+    /**
+     * Take the lease, or extend it when this replica already holds it
+     */
+    private boolean acquireLease(LocalDateTime now) {
+        LocalDateTime expiresAt = now.plus(properties.lease());
+        if (leaseRepository.acquire(LEASE, owner, now, expiresAt) == 1) {
+            return true;
+        }
+        if (leaseRepository.existsById(LEASE)) {
+            return false;
+        }
+        try {
+            leaseRepository.create(LEASE, owner, expiresAt);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // another replica created it first
+            return false;
+        }
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,101 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.TaskPageProperties;
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.dto.TaskPageResponse;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import gov.uk.dts.task_api.event.TaskStateChangedEvent;
+import gov.uk.dts.task_api.repository.TaskArchiveRepository;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.repository.TaskState;
+import gov.uk.dts.task_api.utility.Status;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Closed tasks moved out of the live tasks table. Archived tasks are not returned by the task listings,
+ * search or export, they are read from here by id or in due date order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TaskArchiveService {
+
+    @NonNull private final TaskRepository taskRepository;
+    @NonNull private final TaskArchiveRepository archiveRepository;
+    @NonNull private final TaskPageProperties pageProperties;
+    @NonNull private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Move tasks to the archive in one short transaction, publishing an archived change for each task moved
+     *
+     * @param taskIds - closed tasks the archiver found
+     * @param closedBefore - tasks updated at or after this time stay live
+     * @param at - time of the archive run, stored as archivedAt
+     * @return - number of tasks archived, a task reopened or updated since it was found is skipped
+     */
+    @Transactional
+    public int archive(List<Long> taskIds, LocalDateTime closedBefore, LocalDateTime at) {
+        List<TaskState> closed = taskRepository.lockClosedStates(taskIds, Status.CLOSED, closedBefore);
+        if (closed.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = closed.stream().map(TaskState::id).toList();
+        archiveRepository.copyFromTasks(ids, at);
+        taskRepository.deleteAllByIdInBatch(ids);
+        closed.forEach(state -> {
+            eventPublisher.publishEvent(TaskChangedEvent.archived(state.id()));
+            // no longer counted, the statistics describe live tasks
+            eventPublisher.publishEvent(TaskStateChangedEvent.deleted(state));
+        });
+        log.debug("Archived {} of {} tasks", ids.size(), taskIds.size());
+        return ids.size();
+    }
+
+    /**
+     * Find an archived task
+     *
+     * @param taskId - received from UI
+     * @return - task object if archived or empty
+     */
+    @Transactional(readOnly = true)
+    public Optional<TaskResponse> getByTaskId(Long taskId) {
+        return archiveRepository.findResponseById(taskId);
+    }
+
+    /**
+     * Get one page of archived tasks ordered by due date/time then id, continuing after the cursor
+     *
+     * @param cursor - position returned with the previous page, null for the first page
+     * @param size - requested page size, clamped to the configured maximum
+     * @return - page of archived task objects with the cursor for the next page if there is one
+     */
+    @Transactional(readOnly = true)
+    public TaskPageResponse getPage(TaskCursor cursor, Integer size) {
+        int pageSize = size == null ? pageProperties.defaultSize() : Math.clamp(size, 1, pageProperties.maxSize());
+        // fetch one extra row to know whether another page exists without a count query
+        Limit limit = Limit.of(pageSize + 1);
+        List<TaskResponse> tasks = cursor == null
+                ? archiveRepository.findPage(limit)
+                : archiveRepository.findPageAfter(cursor.dueDateTime(), cursor.id(), limit);
+
+        if (tasks.size() <= pageSize) {
+            return TaskPageResponse.builder().tasks(tasks).build();
+        }
+        List<TaskResponse> page = tasks.subList(0, pageSize);
+        return TaskPageResponse.builder()
+                .tasks(page)
+                .nextCursor(TaskCursor.of(page.getLast()).encode())
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.ReadReplicaRoutingDataSource;
+import gov.uk.dts.task_api.config.TaskArchiveProperties;
+import gov.uk.dts.task_api.repository.TaskJobLeaseRepository;
+import gov.uk.dts.task_api.repository.TaskPartitions;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Moves tasks cancelled or completed more than task.archive.closed-for ago to task_archive, so tasks keeps
+ * only live work and its indexes stay small. The replica holding the archiver lease first adds the tasks
+ * partitions for the months ahead and folds empty past ones, then moves closed tasks one chunk per
+ * transaction, oldest update first. A failed chunk stops the run and is retried by the next one.
+ */
+@Component
+@Slf4j
+public class TaskArchiver {
+
+    static final String LEASE = "task-archiver";
+
+    private final TaskRepository taskRepository;
+    private final TaskArchiveService archiveService;
+    private final TaskPartitions partitions;
+    private final TaskJobLeaseRepository leaseRepository;
+    private final TaskArchiveProperties properties;
+    private final String owner = System.getenv().getOrDefault("HOSTNAME", "task-api") + "-" + UUID.randomUUID();
+    private final Counter archived;
+    private final Counter completedRuns;
+    private final Counter skippedRuns;
+    private final Counter failedRuns;
+    private final Timer duration;
+
+    public TaskArchiver(@NonNull TaskRepository taskRepository, @NonNull TaskArchiveService archiveService,
+                        @NonNull TaskPartitions partitions, @NonNull TaskJobLeaseRepository leaseRepository,
+                        @NonNull TaskArchiveProperties properties, @NonNull MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.archiveService = archiveService;
+        this.partitions = partitions;
+        this.leaseRepository = leaseRepository;
+        this.properties = properties;
+        this.archived = Counter.builder("task.archiver.archived")
+                .description("Closed tasks moved to the archive")
+                .register(meterRegistry);
+        this.completedRuns = Counter.builder("task.archiver.runs")
+                .description("Archive runs started on this replica")
+                .tag("result", "completed")
+                .register(meterRegistry);
+        this.skippedRuns = Counter.builder("task.archiver.runs")
+                .description("Archive runs started on this replica")
+                .tag("result", "skipped")
+                .register(meterRegistry);
+        this.failedRuns = Counter.builder("task.archiver.runs")
+                .description("Archive runs started on this replica")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.duration = Timer.builder("task.archiver.duration")
+                .description("Time to archive every closed task")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Archive if no other replica is, each run moves the tasks closed for long enough since the last one
+     */
+    @Scheduled(initialDelayString = "${task.archive.interval:1h}", fixedDelayString = "${task.archive.interval:1h}")
+    public void archive() {
+        if (!properties.enabled()) {
+            return;
+        }
+        LocalDateTime at = now();
+        if (!acquireLease(at)) {
+            skippedRuns.increment();
+            log.debug("Archive run skipped, another replica holds the lease");
+            return;
+        }
+        try {
+            if (properties.managePartitions()) {
+                maintainPartitions(at);
+            }
+            int count = duration.recordCallable(() -> archiveChunks(at));
+            completedRuns.increment();
+            log.info("Archive run moved {} tasks closed before {}", count, at.minus(properties.closedFor()));
+        } catch (Exception e) {
+            failedRuns.increment();
+            log.warn("Archive run failed, retried by the next run error: {}", e.getMessage());
+        } finally {
+            leaseRepository.release(LEASE, owner, now());
+        }
+    }
+
+    private void maintainPartitions(LocalDateTime at) {
+        int created = partitions.create(properties.monthsAhead());
+        // months that ended before this one, tasks can no longer fall due in them unless moved back
+        int dropped = partitions.dropEmpty(at.toLocalDate().withDayOfMonth(1));
+        if (created > 0 || dropped > 0) {
+            log.info("Task partitions maintained, {} added and {} folded into tasks_past", created, dropped);
+        }
+    }
+
+    /**
+     * Move chunks until none is left, each archived chunk leaves tasks so the next read starts from the front
+     *
+     * @return - number of tasks archived
+     */
+    private int archiveChunks(LocalDateTime at) {
+        LocalDateTime closedBefore = at.minus(properties.closedFor());
+        LocalDateTime renewAt = at.plus(properties.lease().dividedBy(2));
+        int total = 0;
+        while (true) {
+            // a lagging replica would return tasks already archived, the run would stop on them
+            List<Long> ids = ReadReplicaRoutingDataSource.onPrimary(
+                    () -> taskRepository.findArchivable(closedBefore, properties.chunkSize()));
+            if (ids.isEmpty()) {
+                break;
+            }
+            int count = archiveService.archive(ids, closedBefore, at);
+            total += count;
+            archived.increment(count);
+            // none moved means every task found was reopened since, reading again would find the same ones
+            if (ids.size() < properties.chunkSize() || count == 0) {
+                break;
+            }
+            if (now().isAfter(renewAt)) {
+                if (!acquireLease(now())) {
+                    log.warn("Archive run lost its lease, stopping after {} tasks", total);
+                    break;
+                }
+                renewAt = now().plus(properties.lease().dividedBy(2));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Take the lease, or extend it when this replica already holds it
+     */
+    private boolean acquireLease(LocalDateTime now) {
+        LocalDateTime expiresAt = now.plus(properties.lease());
+        if (leaseRepository.acquire(LEASE, owner, now, expiresAt) == 1) {
+            return true;
+        }
+        if (leaseRepository.existsById(LEASE)) {
+            return false;
+        }
+        try {
+            leaseRepository.create(LEASE, owner, expiresAt);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // another replica created it first
+            return false;
+        }
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
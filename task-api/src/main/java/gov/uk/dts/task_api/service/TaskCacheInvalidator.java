@@ -0,0 +1,49 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.CacheConfig;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskCacheInvalidator {
+
+    @NonNull private final CacheManager cacheManager;
+    @NonNull private final EntityManagerFactory entityManagerFactory;
+    @NonNull private final CacheInvalidationBroadcaster broadcaster;
+
+    /**
+     * Evict a changed task once its transaction has committed, so a concurrent read cannot put
+     * the old row back. Loads in flight for the same id finish before the eviction applies.
+     *
+     * @param event - task change published by the task service
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        evict(event.taskId());
+        broadcaster.broadcast(event.taskId());
+    }
+
+    /**
+     * Evict a task from the local caches only, entry point for invalidations received from other replicas.
+     * Hibernate already drops its cached copies for writes made on this replica, a write made on another
+     * replica only reaches them through here.
+     *
+     * @param taskId - id of the changed task
+     */
+    public void evict(Long taskId) {
+        Optional.ofNullable(cacheManager.getCache(CacheConfig.TASK_CACHE)).ifPresent(cache -> cache.evict(taskId));
+        entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegion(CacheConfig.TASK_PAGE_REGION);
+        log.debug("Task evicted from cache with id {}", taskId);
+    }
+}
@@ -0,0 +1,217 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.TaskGroupCommitProperties;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for single task creates. Requests are queued and one writer thread creates whatever is waiting,
+ * up to task.group-commit.max-batch, in one transaction, so intake peaks pay for one commit per batch instead of
+ * one per task. Each request waits on its own future for the created task. A full queue refuses new creates
+ * rather than letting latency grow without bound, a failed batch is retried one task at a time so one bad task
+ * only fails its own request. A request that stops waiting can only withdraw its create while it is still queued,
+ * once the writer has taken it the batch decides whether it was created. Whatever goes wrong in the writer fails the creates it holds and never leaves a
+ * request waiting on a writer that has stopped.
+ */
+@Component
+@Slf4j
+public class TaskCreateQueue {
+
+    private final TaskService taskService;
+    private final TaskGroupCommitProperties properties;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private final Counter rejected;
+    private final DistributionSummary batchSize;
+    private final Timer commitDuration;
+    private volatile boolean running;
+
+    public TaskCreateQueue(@NonNull TaskService taskService, @NonNull TaskGroupCommitProperties properties,
+                           @NonNull MeterRegistry meterRegistry) {
+        this.taskService = taskService;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.rejected = Counter.builder("task.group-commit.rejected")
+                .description("Creates refused because the queue stayed full")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("task.group-commit.batch.size")
+                .description("Creates committed together")
+                .register(meterRegistry);
+        this.commitDuration = Timer.builder("task.group-commit.duration")
+                .description("Time to create and commit one batch")
+                .register(meterRegistry);
+        Gauge.builder("task.group-commit.queued", queue, BlockingQueue::size)
+                .description("Creates waiting for the writer")
+                .register(meterRegistry);
+        this.writer = Thread.ofPlatform().name("task-group-commit").daemon().unstarted(this::drain);
+        if (properties.enabled()) {
+            running = true;
+            writer.start();
+        }
+    }
+
+    public boolean enabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * How long a request waits on its future before it tries to withdraw its create
+     */
+    public Duration responseTimeout() {
+        return properties.responseTimeout();
+    }
+
+    /**
+     * Queue a create for the next group commit
+     *
+     * @param taskRequest - validated request
+     * @return - future completed with the created task once its batch has committed
+     * @throws RejectedExecutionException when the queue stays full for task.group-commit.enqueue-timeout or the
+     *          writer is not running
+     */
+    public CompletableFuture<TaskResponse> submit(TaskRequest taskRequest) throws InterruptedException {
+        Pending pending = new Pending(taskRequest, new CompletableFuture<>());
+        if (!running || !queue.offer(pending, properties.enqueueTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+            rejected.increment();
+            throw new RejectedExecutionException("Task create queue is full");
+        }
+        // stopped while offering, the writer may already have left, whoever removes it completes it
+        if (!running && queue.remove(pending)) {
+            rejected.increment();
+            throw new RejectedExecutionException("Task create queue is shut down");
+        }
+        return pending.future();
+    }
+
+    /**
+     * Take a create back out of the queue, it fails while the writer holds it. The queue's lock is shared with
+     * the writer taking creates, so a create is either withdrawn or taken, never both.
+     *
+     * @param created - future returned by submit
+     * @return - true when the create was still queued and will never be created
+     */
+    public boolean withdraw(CompletableFuture<TaskResponse> created) {
+        return queue.removeIf(pending -> pending.future() == created);
+    }
+
+    /**
+     * Stop taking creates and commit the ones already queued while the database is still available
+     */
+    @EventListener(ContextClosedEvent.class)
+    void shutdown() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        // anything still queued was submitted while the writer finished, it will not be created
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(pending -> pending.future().completeExceptionally(
+                new RejectedExecutionException("Task create queue is shut down")));
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(properties.maxBatch());
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    collect(batch);
+                    commit(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    fail(batch, e);
+                    break;
+                } catch (Throwable e) {
+                    // escaped commit's own handling, the batch fails and the writer carries on with the next one
+                    log.error("Group commit writer failed {} tasks", batch.size(), e);
+                    fail(batch, e);
+                } finally {
+                    batch.clear();
+                }
+            }
+        } finally {
+            // however the writer left, new creates are refused and none already queued is left waiting
+            running = false;
+            List<Pending> left = new ArrayList<>();
+            queue.drainTo(left);
+            fail(left, new RejectedExecutionException("Task create queue is shut down"));
+            log.info("Task group commit writer stopped");
+        }
+    }
+
+    private static void fail(List<Pending> pending, Throwable cause) {
+        pending.forEach(each -> each.future().completeExceptionally(cause));
+    }
+
+    /**
+     * Take what is already queued, then wait up to max-wait for more while the batch is not full
+     */
+    private void collect(List<Pending> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + properties.maxWait().toNanos();
+        while (batch.size() < properties.maxBatch()) {
+            queue.drainTo(batch, properties.maxBatch() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.maxBatch() || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        List<TaskResponse> created;
+        try {
+            created = commitDuration.recordCallable(() -> taskService.createGroup(
+                    batch.stream().map(Pending::request).toList()));
+        } catch (Exception e) {
+            log.warn("Group commit of {} tasks failed, creating them one by one error: {}", batch.size(), e.getMessage());
+            batch.forEach(this::commitAlone);
+            return;
+        }
+        batchSize.record(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future().complete(created.get(i));
+        }
+    }
+
+    private void commitAlone(Pending pending) {
+        try {
+            pending.future().complete(taskService.create(pending.request()));
+            batchSize.record(1);
+        } catch (Exception e) {
+            pending.future().completeExceptionally(e);
+        }
+    }
+
+    private record Pending(TaskRequest request, CompletableFuture<TaskResponse> future) {
+    }
+}
@@ -0,0 +1,263 @@
+package gov.uk.dts.task_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.uk.dts.task_api.config.TaskBatchProperties;
+import gov.uk.dts.task_api.config.TaskEventProperties;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed task changes out to server-sent event subscribers. Connections are held by the servlet
+ * container without a thread, a virtual thread is only started while a subscriber has changes queued.
+ * Recent changes are kept in a ring buffer so a reconnecting client resumes from its Last-Event-ID.
+ * Event ids are the epoch of this stream and a sequence, {@code <epoch>-<sequence>}, the epoch is drawn at
+ * startup so an id from before a restart or from another replica is never taken for one of this stream.
+ * A bulk request publishes a change per task as soon as it commits, each subscriber's queue holds the largest
+ * bulk request on top of task.events.subscriber-queue-size so one never disconnects the subscribers.
+ */
+@Component
+@Slf4j
+public class TaskEventStream {
+
+    public static final String RESET_EVENT = "reset";
+
+    private static final String ID_SEPARATOR = "-";
+
+    // the response headers are only flushed with the first frame
+    private static final Set<DataWithMediaType> CONNECTED = SseEmitter.event().comment("connected").build();
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final TaskEventProperties properties;
+    private final ObjectMapper objectMapper;
+    private final int subscriberQueueSize;
+    private final Counter slowDisconnects;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("task-events-heartbeat").daemon().factory());
+
+    private final String epoch = Long.toHexString(new SecureRandom().nextLong());
+
+    // guarded by this, lastEventId is the sequence of the last change, also the number published since startup
+    private final Set<DataWithMediaType>[] buffer;
+    private long lastEventId;
+
+    @SuppressWarnings("unchecked")
+    public TaskEventStream(@NonNull TaskEventProperties properties, @NonNull TaskBatchProperties batchProperties,
+                           @NonNull ObjectMapper objectMapper, @NonNull MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.subscriberQueueSize = properties.subscriberQueueSize() + batchProperties.maxItems();
+        this.buffer = new Set[properties.bufferSize()];
+        this.slowDisconnects = Counter.builder("task.events.disconnects")
+                .description("Subscribers disconnected by the server")
+                .tag("reason", "slow_consumer")
+                .register(meterRegistry);
+        Gauge.builder("task.events.subscribers", subscribers, Set::size)
+                .description("Open task change streams")
+                .register(meterRegistry);
+        long heartbeat = properties.heartbeat().toMillis();
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open a stream of task changes
+     *
+     * @param lastEventId - id of the last change the client received, null for only new changes
+     * @return emitter sending created, updated and deleted events, or a reset event when the
+     *          changes after lastEventId are no longer buffered or it is from another epoch
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(lastEventId, new SseEmitter(properties.timeout().toMillis()));
+    }
+
+    SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+        Subscriber subscriber;
+        // -1 for an id from another epoch, which is always reset
+        long from = lastEventId == null ? 0 : sequenceOf(lastEventId);
+        // replay and register under the publish lock so no change is missed or sent twice
+        synchronized (this) {
+            long missed = lastEventId == null || from < 0 ? 0 : Math.max(0, this.lastEventId - from);
+            subscriber = new Subscriber(emitter, subscriberQueueSize + (int) Math.min(missed, buffer.length));
+            // added first, a send failing on another thread removes it again
+            subscribers.add(subscriber);
+            subscriber.offer(CONNECTED);
+            if (lastEventId != null) {
+                replay(subscriber, from);
+            }
+        }
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscriber.remove());
+        log.debug("Task event subscriber added after event {}", lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Publish a change once its transaction has committed
+     *
+     * @param event - task change published by the task service
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.error("Task change could not be serialised for task {}", event.taskId(), e);
+            return;
+        }
+        synchronized (this) {
+            long id = ++lastEventId;
+            // built once and shared, every subscriber gets the same serialised frame
+            Set<DataWithMediaType> frame = SseEmitter.event()
+                    .id(eventId(id))
+                    .name(event.type().name().toLowerCase(Locale.ROOT))
+                    .data(data)
+                    .build();
+            buffer[index(id)] = frame;
+            subscribers.forEach(subscriber -> subscriber.offer(frame));
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Close every stream before the web server's graceful shutdown, which would otherwise wait for them
+     */
+    @EventListener(ContextClosedEvent.class)
+    void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(Subscriber::disconnect);
+        sender.shutdown();
+    }
+
+    /**
+     * Id of the change with the given sequence, as sent to clients
+     */
+    String eventId(long sequence) {
+        return epoch + ID_SEPARATOR + sequence;
+    }
+
+    /**
+     * Sequence of an id sent by this stream, -1 for an id from another epoch or one this stream never sends
+     */
+    private long sequenceOf(String eventId) {
+        String prefix = epoch + ID_SEPARATOR;
+        if (eventId.startsWith(prefix)) {
+            try {
+                return Math.max(-1, Long.parseLong(eventId.substring(prefix.length())));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private void replay(Subscriber subscriber, long from) {
+        long oldest = Math.max(1, lastEventId - buffer.length + 1);
+        if (from < 0 || from > lastEventId || from + 1 < oldest) {
+            // restarted, another replica or too far behind, the client reloads and continues from the current id
+            subscriber.offer(SseEmitter.event().id(eventId(lastEventId)).name(RESET_EVENT).data("{}").build());
+            return;
+        }
+        for (long id = from + 1; id <= lastEventId; id++) {
+            subscriber.offer(buffer[index(id)]);
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+    }
+
+    private int index(long id) {
+        return (int) (id % buffer.length);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new LinkedBlockingQueue<>(capacity);
+        }
+
+        /**
+         * Queue a frame without blocking the publisher, a client that falls a full queue behind is
+         * disconnected and resumes from its Last-Event-ID
+         */
+        private void offer(Set<DataWithMediaType> frame) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                slowDisconnects.increment();
+                log.info("Task event subscriber disconnected after falling {} events behind", queue.size());
+                disconnect();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    Set<DataWithMediaType> frame;
+                    while (!closed && (frame = queue.poll()) != null) {
+                        emitter.send(frame);
+                    }
+                    draining.set(false);
+                    // a frame queued after the last poll but before the flag was cleared
+                } while (!closed && !queue.isEmpty() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // client went away, the container reports it through onError
+                log.debug("Task event subscriber send failed", e);
+                remove();
+            }
+        }
+
+        private void disconnect() {
+            remove();
+            // completing can wait on a send blocked by the slow client, keep it off the publisher
+            sender.execute(emitter::complete);
+        }
+
+        private void remove() {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+        }
+    }
+}
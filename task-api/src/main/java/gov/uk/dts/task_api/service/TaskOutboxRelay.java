@@ -0,0 +1,94 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.TaskOutboxProperties;
+import gov.uk.dts.task_api.entity.TaskOutboxDao;
+import gov.uk.dts.task_api.event.TaskEventSink;
+import gov.uk.dts.task_api.event.TaskOutboxMessage;
+import gov.uk.dts.task_api.repository.TaskOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes outbox rows to the event sink and removes them in the same transaction. Every replica
+ * can run the relay, rows locked by one are skipped by the others, so batches may reach the sink
+ * out of order across replicas but never go missing.
+ */
+@Component
+@Slf4j
+public class TaskOutboxRelay {
+
+    private final TaskOutboxRepository outboxRepository;
+    private final TaskEventSink sink;
+    private final TaskOutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter relayed;
+    private final Counter failures;
+    private final Timer lag;
+
+    public TaskOutboxRelay(@NonNull TaskOutboxRepository outboxRepository, @NonNull TaskEventSink sink,
+                           @NonNull TaskOutboxProperties properties, @NonNull TransactionTemplate transactionTemplate,
+                           @NonNull MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.relayed = Counter.builder("task.outbox.relayed")
+                .description("Task changes published to the event sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("task.outbox.failures")
+                .description("Outbox batches rolled back for retry")
+                .register(meterRegistry);
+        this.lag = Timer.builder("task.outbox.lag")
+                .description("Time from commit to publish of the oldest change in a batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drain the outbox, a full batch is followed by the next one straight away
+     */
+    @Scheduled(fixedDelayString = "${task.outbox.poll-interval:1s}")
+    public void relay() {
+        try {
+            while (relayBatch() == properties.batchSize()) {
+                log.debug("Task outbox batch full, relaying the next one");
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Task outbox relay failed, batch will be retried error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Lock, publish and remove one batch, a sink failure rolls back and leaves the batch for the next poll
+     *
+     * @return - number of changes relayed
+     */
+    int relayBatch() {
+        Integer count = transactionTemplate.execute(status -> {
+            List<TaskOutboxDao> batch = outboxRepository.lockNextBatch(properties.batchSize());
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            sink.publish(batch.stream()
+                    .map(row -> new TaskOutboxMessage(row.getId(), row.getEventType(), row.getTaskId(),
+                            row.getPayload(), row.getCreatedAt()))
+                    .toList());
+            outboxRepository.deleteAllByIdInBatch(batch.stream().map(TaskOutboxDao::getId).toList());
+            lag.record(Duration.between(batch.getFirst().getCreatedAt(), LocalDateTime.now()));
+            return batch.size();
+        });
+        int published = count == null ? 0 : count;
+        relayed.increment(published);
+        return published;
+    }
+}
@@ -0,0 +1,36 @@
+package gov.uk.dts.task_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gov.uk.dts.task_api.entity.TaskOutboxDao;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import jakarta.persistence.EntityManager;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Component
+@RequiredArgsConstructor
+public class TaskOutboxWriter {
+
+    @NonNull private final EntityManager entityManager;
+    @NonNull private final ObjectMapper objectMapper;
+
+    /**
+     * Add a change to the outbox in the transaction that made it, so the task and its event commit
+     * together. Rows are inserted by the commit flush, in JDBC batches for bulk requests.
+     *
+     * @param event - task change published by the task service inside its transaction
+     * @throws JsonProcessingException - if the change cannot be serialised, rolling the write back
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTaskChanged(TaskChangedEvent event) throws JsonProcessingException {
+        entityManager.persist(new TaskOutboxDao(null, event.type(), event.taskId(),
+                objectMapper.writeValueAsString(event), LocalDateTime.now().truncatedTo(ChronoUnit.MICROS)));
+    }
+}
@@ -1,16 +1,33 @@
 package gov.uk.dts.task_api.service;
 
+import gov.uk.dts.task_api.dto.TaskBatchResult;
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.dto.TaskFilter;
+import gov.uk.dts.task_api.dto.TaskPageResponse;
 import gov.uk.dts.task_api.dto.TaskRequest;
 import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.dto.TaskSearchCursor;
+import gov.uk.dts.task_api.dto.TaskUpdateRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface TaskService {
 
     TaskResponse create(TaskRequest taskRequest);
     List<TaskResponse> getAll();
+    TaskPageResponse getPage(TaskFilter filter, TaskCursor cursor, Integer size);
+    TaskPageResponse search(String text, TaskSearchCursor cursor, Integer size);
+    void exportAll(Consumer<TaskResponse> consumer);
     Optional<TaskResponse> getByTaskId(Long taskId);
-    Optional<TaskResponse> update(TaskRequest taskRequest, Long id);
+    Optional<TaskResponse> update(TaskRequest taskRequest, Long id, Long expectedVersion);
     Boolean delete(Long taskId);
+    List<TaskBatchResult> createAll(List<TaskRequest> taskRequests);
+    List<TaskResponse> createGroup(List<TaskRequest> taskRequests);
+    List<TaskBatchResult> updateAll(List<TaskUpdateRequest> updateRequests);
+    List<TaskBatchResult> deleteAll(List<Long> taskIds);
+
+    int flagOverdue(List<Long> taskIds, LocalDateTime at);
 }
@@ -1,17 +1,54 @@
 package gov.uk.dts.task_api.service;
 
+import gov.uk.dts.task_api.config.CacheConfig;
+import gov.uk.dts.task_api.config.TaskBatchProperties;
+import gov.uk.dts.task_api.config.TaskPageProperties;
+import gov.uk.dts.task_api.dto.TaskBatchResult;
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.dto.TaskFilter;
+import gov.uk.dts.task_api.dto.TaskPageResponse;
 import gov.uk.dts.task_api.dto.TaskRequest;
 import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.dto.TaskSearchCursor;
+import gov.uk.dts.task_api.dto.TaskUpdateRequest;
 import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import gov.uk.dts.task_api.event.TaskStateChangedEvent;
+import gov.uk.dts.task_api.handler.ValidationError;
 import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.repository.TaskSearchHit;
+import gov.uk.dts.task_api.repository.TaskSearchIndex;
+import gov.uk.dts.task_api.repository.TaskState;
+import gov.uk.dts.task_api.repository.TaskUpdate;
+import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +56,13 @@ import java.util.Optional;
 public class TaskServiceImpl implements TaskService {
 
     @NonNull private final TaskRepository taskRepository;
+    @NonNull private final TaskSearchIndex searchIndex;
+    @NonNull private final TaskPageProperties pageProperties;
+    @NonNull private final TaskBatchProperties batchProperties;
+    @NonNull private final EntityManager entityManager;
+    @NonNull private final Validator validator;
+    @NonNull private final ApplicationEventPublisher eventPublisher;
+    @NonNull private final MeterRegistry meterRegistry;
 
     /**
      * Create a new task in db
@@ -27,16 +71,14 @@ public class TaskServiceImpl implements TaskService {
      * @return - response object with new task id
      */
     @Override
+    @Transactional
     public TaskResponse create(TaskRequest taskRequest) {
-        var taskDao = taskRepository.save(new TaskDao(null, taskRequest.getTitle(), taskRequest.getDescription(), taskRequest.getStatus(), taskRequest.getDueDateTime(), null));
+        var taskDao = taskRepository.save(new TaskDao(null, taskRequest.getTitle(), taskRequest.getDescription(), taskRequest.getStatus(), taskRequest.getDueDateTime(), now(), null));
         log.info("Task created successfully with id {}", taskDao.getId());
-        return TaskResponse.builder()
-                .id(taskDao.getId())
-                .title(taskDao.getTitle())
-                .description(taskDao.getDescription())
-                .status(taskDao.getStatus())
-                .dueDateTime(taskDao.getDueDateTime())
-                .build();
+        var taskResponse = toResponse(taskDao);
+        eventPublisher.publishEvent(TaskChangedEvent.created(taskResponse));
+        eventPublisher.publishEvent(TaskStateChangedEvent.created(state(taskDao)));
+        return taskResponse;
     }
 
     /**
@@ -45,31 +87,97 @@ public class TaskServiceImpl implements TaskService {
      * @return - List of task object
      */
     @Override
+    // read only transactions run with hibernate's flush mode MANUAL, so reads never dirty check or flush
+    @Transactional(readOnly = true)
     public List<TaskResponse> getAll() {
-        return taskRepository.findAll().stream().map(res -> TaskResponse.builder()
-                .id(res.getId())
-                .title(res.getTitle())
-                .description(res.getDescription())
-                .status(res.getStatus())
-                .dueDateTime(res.getDueDateTime())
-                .build()).toList();
+        return taskRepository.findAllResponses();
+    }
+
+    /**
+     * Get one page of tasks ordered by due date/time then id, continuing after the cursor
+     *
+     * @param filter - optional status and due date filters
+     * @param cursor - position returned with the previous page, null for the first page
+     * @param size - requested page size, clamped to the configured maximum
+     * @return - page of task objects with the cursor for the next page if there is one
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TaskPageResponse getPage(TaskFilter filter, TaskCursor cursor, Integer size) {
+        int pageSize = size == null ? pageProperties.defaultSize() : Math.clamp(size, 1, pageProperties.maxSize());
+        // fetch one extra row to know whether another page exists without a count query
+        List<TaskResponse> tasks = taskRepository.findPage(filter, cursor, pageSize + 1);
+
+        if (tasks.size() <= pageSize) {
+            return TaskPageResponse.builder().tasks(tasks).build();
+        }
+        List<TaskResponse> page = tasks.subList(0, pageSize);
+        return TaskPageResponse.builder()
+                .tasks(page)
+                .nextCursor(TaskCursor.of(page.getLast()).encode())
+                .build();
+    }
+
+    /**
+     * Search tasks by keyword, best match first, continuing after the cursor
+     *
+     * @param text - search text, every word must match the title or description
+     * @param cursor - position returned with the previous page, null for the first page
+     * @param size - requested page size, clamped to the configured maximum
+     * @return - page of matching task objects with the cursor for the next page if there is one
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public TaskPageResponse search(String text, TaskSearchCursor cursor, Integer size) {
+        int pageSize = size == null ? pageProperties.defaultSize() : Math.clamp(size, 1, pageProperties.maxSize());
+        List<TaskSearchHit> hits = searchIndex.search(text, cursor, pageSize + 1);
+        List<TaskSearchHit> pageHits = hits.size() > pageSize ? hits.subList(0, pageSize) : hits;
+
+        Map<Long, TaskResponse> tasks = taskRepository.findResponsesByIds(pageHits.stream().map(TaskSearchHit::id).toList()).stream()
+                .collect(Collectors.toMap(TaskResponse::getId, Function.identity()));
+        // a task deleted since the search is skipped, the cursor still follows the hits
+        List<TaskResponse> page = pageHits.stream()
+                .map(hit -> tasks.get(hit.id()))
+                .filter(Objects::nonNull)
+                .toList();
+
+        if (hits.size() <= pageSize) {
+            return TaskPageResponse.builder().tasks(page).build();
+        }
+        TaskSearchHit last = pageHits.getLast();
+        return TaskPageResponse.builder()
+                .tasks(page)
+                .nextCursor(new TaskSearchCursor(last.rank(), last.id()).encode())
+                .build();
+    }
+
+    /**
+     * Stream every task from db to the consumer one at a time, without holding the result set in memory
+     *
+     * @param consumer - receives each task object in id order
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<TaskResponse> consumer) {
+        // responses are not managed, so the persistence context stays empty and memory flat for any table size
+        try (Stream<TaskResponse> tasks = taskRepository.streamAllResponses()) {
+            tasks.forEach(consumer);
+        }
     }
 
     /**
-     * Find task from db for a task id
+     * Find task for a task id, served from the task cache when present. A task read from a replica is not put in
+     * the cache, what it reads may be behind the primary and the cache is shared with clients reading their own
+     * writes. Loads are synchronized per id, so a read racing an update cannot put back the task the update evicted.
      *
      * @param taskId - received from UI
      * @return - task object if found or empty
      */
     @Override
+    @Cacheable(cacheNames = CacheConfig.TASK_CACHE, cacheResolver = CacheConfig.TASK_CACHE_RESOLVER, sync = true)
+    @Transactional(readOnly = true)
     public Optional<TaskResponse> getByTaskId(Long taskId) {
-        return taskRepository.findById(taskId).map(dao -> TaskResponse.builder()
-                .id(dao.getId())
-                .title(dao.getTitle())
-                .description(dao.getDescription())
-                .status(dao.getStatus())
-                .dueDateTime(dao.getDueDateTime())
-                .build());
+        return taskRepository.findResponseById(taskId);
     }
 
     /**
@@ -77,27 +185,42 @@ public class TaskServiceImpl implements TaskService {
      *
      * @param taskRequest - request received from UI to update
      * @param id - task id to update
+     * @param expectedVersion - version the client last read, null to update whatever the current version is
      * @return - updated task object if found or empty
+     * @throws OptimisticLockingFailureException - if the task exists but is no longer at the expected version
      */
     @Override
-    public Optional<TaskResponse> update(TaskRequest taskRequest, Long id) {
-        return taskRepository.findById(id)
-                .map(dao -> {
-                    dao.setTitle(taskRequest.getTitle());
-                    dao.setDescription(taskRequest.getDescription());
-                    dao.setStatus(taskRequest.getStatus());
-                    dao.setDueDateTime(taskRequest.getDueDateTime());
-                    dao.setUpdatedAt(LocalDateTime.now());
-                    var updatedTaskDao = taskRepository.save(dao);
-                    log.info("Task updated successfully with id {}", updatedTaskDao.getId());
-                    return Optional.of(TaskResponse.builder()
-                            .id(updatedTaskDao.getId())
-                            .title(updatedTaskDao.getTitle())
-                            .description(updatedTaskDao.getDescription())
-                            .status(updatedTaskDao.getStatus())
-                            .dueDateTime(updatedTaskDao.getDueDateTime())
-                            .build());
-                }).orElse(Optional.empty());
+    @Transactional
+    public Optional<TaskResponse> update(TaskRequest taskRequest, Long id, Long expectedVersion) {
+        LocalDateTime updatedAt = now();
+        // at the precision db stores, so the response shows what later reads return
+        LocalDateTime dueDateTime = taskRequest.getDueDateTime().truncatedTo(ChronoUnit.MICROS);
+        // one statement, it returns the state the task had for the statistics and the version it was left at
+        Optional<TaskUpdate> updated = taskRepository.updateReturningState(id, expectedVersion, taskRequest.getTitle(),
+                taskRequest.getDescription(), taskRequest.getStatus(), dueDateTime, updatedAt, clearsOverdue(taskRequest, updatedAt));
+        if (updated.isEmpty()) {
+            // a task at another version is only told apart from a missing one when the update misses
+            if (expectedVersion != null && taskRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException("Task " + id + " is no longer at version " + expectedVersion);
+            }
+            return Optional.empty();
+        }
+
+        log.info("Task updated successfully with id {}", id);
+        var taskResponse = TaskResponse.builder()
+                .id(id)
+                .title(taskRequest.getTitle())
+                .description(taskRequest.getDescription())
+                .status(taskRequest.getStatus())
+                .dueDateTime(dueDateTime)
+                .updatedAt(updatedAt)
+                .version(updated.get().version())
+                .overdueAt(updated.get().overdueAt())
+                .build();
+        eventPublisher.publishEvent(TaskChangedEvent.updated(taskResponse));
+        eventPublisher.publishEvent(TaskStateChangedEvent.updated(updated.get().before(),
+                new TaskState(id, taskRequest.getStatus(), dueDateTime)));
+        return Optional.of(taskResponse);
     }
 
     /**
@@ -107,13 +230,296 @@ public class TaskServiceImpl implements TaskService {
      * @return - true if successfully deleted else false
      */
     @Override
+    @Transactional
     public Boolean delete(Long taskId) {
-        if (!taskRepository.existsById(taskId)) {
+        Optional<TaskState> deleted = taskRepository.removeReturningState(taskId);
+        if (deleted.isEmpty()) {
             return Boolean.FALSE;
         }
 
-        taskRepository.deleteById(taskId);
         log.info("Task deleted successfully with id {}", taskId);
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(taskId));
+        eventPublisher.publishEvent(TaskStateChangedEvent.deleted(deleted.get()));
         return Boolean.TRUE;
     }
+
+    /**
+     * Create many tasks in one transaction, inserts are sent to db in JDBC batches
+     *
+     * @param taskRequests - requests received from bulk intake, validated one by one
+     * @return - result for each request in the same order, with new task or validation errors
+     */
+    @Override
+    @Transactional
+    public List<TaskBatchResult> createAll(List<TaskRequest> taskRequests) {
+        List<TaskBatchResult> results = new ArrayList<>(taskRequests.size());
+        int created = 0;
+        for (int index = 0; index < taskRequests.size(); index++) {
+            TaskRequest taskRequest = taskRequests.get(index);
+            List<ValidationError.FieldError> errors = validate(taskRequest);
+            if (!errors.isEmpty()) {
+                results.add(invalid(index, null, errors));
+                continue;
+            }
+            var taskDao = new TaskDao(null, taskRequest.getTitle(), taskRequest.getDescription(), taskRequest.getStatus(), taskRequest.getDueDateTime(), now(), null);
+            entityManager.persist(taskDao);
+            var taskResponse = toResponse(taskDao);
+            eventPublisher.publishEvent(TaskChangedEvent.created(taskResponse));
+            eventPublisher.publishEvent(TaskStateChangedEvent.created(state(taskDao)));
+            results.add(TaskBatchResult.builder()
+                    .index(index)
+                    .status(HttpStatus.CREATED.value())
+                    .id(taskDao.getId())
+                    .task(taskResponse)
+                    .build());
+            if (++created % batchProperties.chunkSize() == 0) {
+                flushAndClear();
+            }
+        }
+        log.info("Bulk created {} of {} tasks", created, taskRequests.size());
+        recordBatch("create", results);
+        return results;
+    }
+
+    /**
+     * Create tasks queued by separate requests in one transaction, so they share a single commit
+     *
+     * @param taskRequests - requests already validated by the controller
+     * @return - created tasks in request order, none are created if one fails
+     */
+    @Override
+    @Transactional
+    public List<TaskResponse> createGroup(List<TaskRequest> taskRequests) {
+        List<TaskResponse> created = new ArrayList<>(taskRequests.size());
+        for (TaskRequest taskRequest : taskRequests) {
+            var taskDao = new TaskDao(null, taskRequest.getTitle(), taskRequest.getDescription(), taskRequest.getStatus(), taskRequest.getDueDateTime(), now(), null);
+            entityManager.persist(taskDao);
+            var taskResponse = toResponse(taskDao);
+            eventPublisher.publishEvent(TaskChangedEvent.created(taskResponse));
+            eventPublisher.publishEvent(TaskStateChangedEvent.created(state(taskDao)));
+            created.add(taskResponse);
+            if (created.size() % batchProperties.chunkSize() == 0) {
+                flushAndClear();
+            }
+        }
+        log.debug("Group committed {} tasks", created.size());
+        return created;
+    }
+
+    /**
+     * Update many tasks in one transaction, tasks are loaded per chunk and updates sent in JDBC batches
+     *
+     * @param updateRequests - task id with new values, validated one by one
+     * @return - result for each request in the same order, with updated task, not found or validation errors
+     */
+    @Override
+    @Transactional
+    public List<TaskBatchResult> updateAll(List<TaskUpdateRequest> updateRequests) {
+        TaskBatchResult[] results = new TaskBatchResult[updateRequests.size()];
+        int updated = 0;
+        for (int start = 0; start < updateRequests.size(); start += batchProperties.chunkSize()) {
+            int end = Math.min(start + batchProperties.chunkSize(), updateRequests.size());
+            List<Long> ids = new ArrayList<>();
+            for (int index = start; index < end; index++) {
+                TaskUpdateRequest updateRequest = updateRequests.get(index);
+                List<ValidationError.FieldError> errors = validate(updateRequest);
+                if (errors.isEmpty()) {
+                    ids.add(updateRequest.getId());
+                } else {
+                    results[index] = invalid(index, updateRequest == null ? null : updateRequest.getId(), errors);
+                }
+            }
+
+            Map<Long, TaskDao> tasks = taskRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(TaskDao::getId, Function.identity()));
+            Map<Integer, TaskDao> changed = new LinkedHashMap<>();
+            Map<Long, TaskState> before = new HashMap<>();
+            for (int index = start; index < end; index++) {
+                if (results[index] != null) {
+                    continue;
+                }
+                TaskUpdateRequest updateRequest = updateRequests.get(index);
+                TaskDao dao = tasks.get(updateRequest.getId());
+                if (dao == null) {
+                    results[index] = notFound(index, updateRequest.getId());
+                    continue;
+                }
+                if (updateRequest.getVersion() != null && !updateRequest.getVersion().equals(dao.getVersion())) {
+                    results[index] = TaskBatchResult.builder()
+                            .index(index)
+                            .status(HttpStatus.PRECONDITION_FAILED.value())
+                            .id(dao.getId())
+                            .build();
+                    continue;
+                }
+                TaskRequest taskRequest = updateRequest.getTask();
+                // a task updated twice in a chunk is one entity, keep the state it had in db
+                before.putIfAbsent(dao.getId(), state(dao));
+                dao.setTitle(taskRequest.getTitle());
+                dao.setDescription(taskRequest.getDescription());
+                dao.setStatus(taskRequest.getStatus());
+                dao.setDueDateTime(taskRequest.getDueDateTime());
+                dao.setUpdatedAt(now());
+                if (clearsOverdue(taskRequest, dao.getUpdatedAt())) {
+                    dao.setOverdueAt(null);
+                }
+                changed.put(index, dao);
+            }
+
+            // versions are incremented by the flush, so build the results after it
+            entityManager.flush();
+            changed.forEach((index, dao) -> {
+                var taskResponse = toResponse(dao);
+                eventPublisher.publishEvent(TaskChangedEvent.updated(taskResponse));
+                // later updates of the same entity move it from its final state to itself
+                eventPublisher.publishEvent(TaskStateChangedEvent.updated(before.put(dao.getId(), state(dao)), state(dao)));
+                results[index] = TaskBatchResult.builder()
+                        .index(index)
+                        .status(HttpStatus.OK.value())
+                        .id(dao.getId())
+                        .task(taskResponse)
+                        .build();
+            });
+            updated += changed.size();
+            entityManager.clear();
+        }
+        log.info("Bulk updated {} of {} tasks", updated, updateRequests.size());
+        recordBatch("update", Arrays.asList(results));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Delete many tasks in one transaction, each chunk costs one existence check and one delete statement
+     *
+     * @param taskIds - task ids to delete
+     * @return - result for each id in the same order, deleted or not found
+     */
+    @Override
+    @Transactional
+    public List<TaskBatchResult> deleteAll(List<Long> taskIds) {
+        List<TaskBatchResult> results = new ArrayList<>(taskIds.size());
+        int deleted = 0;
+        for (int start = 0; start < taskIds.size(); start += batchProperties.chunkSize()) {
+            List<Long> chunk = taskIds.subList(start, Math.min(start + batchProperties.chunkSize(), taskIds.size()));
+            List<Long> ids = chunk.stream().filter(Objects::nonNull).toList();
+            List<TaskState> states = ids.isEmpty() ? List.of() : taskRepository.lockStatesByIds(ids);
+            Set<Long> existing = states.stream().map(TaskState::id).collect(Collectors.toSet());
+            taskRepository.deleteAllByIdInBatch(existing);
+            states.forEach(state -> {
+                eventPublisher.publishEvent(TaskChangedEvent.deleted(state.id()));
+                eventPublisher.publishEvent(TaskStateChangedEvent.deleted(state));
+            });
+            deleted += existing.size();
+
+            for (int offset = 0; offset < chunk.size(); offset++) {
+                int index = start + offset;
+                Long id = chunk.get(offset);
+                if (id == null) {
+                    results.add(invalid(index, null, List.of(new ValidationError.FieldError("id", "Id is required"))));
+                } else if (existing.contains(id)) {
+                    results.add(TaskBatchResult.builder().index(index).status(HttpStatus.OK.value()).id(id).build());
+                } else {
+                    results.add(notFound(index, id));
+                }
+            }
+        }
+        log.info("Bulk deleted {} of {} tasks", deleted, taskIds.size());
+        recordBatch("delete", results);
+        return results;
+    }
+
+    /**
+     * Flag tasks overdue in one short transaction, publishing an update for each task flagged
+     *
+     * @param taskIds - open tasks the overdue sweeper found past their due date/time
+     * @param at - time of the sweep, stored as overdueAt
+     * @return - number of tasks flagged, a task changed since it was found is skipped
+     */
+    @Override
+    @Transactional
+    public int flagOverdue(List<Long> taskIds, LocalDateTime at) {
+        if (taskRepository.flagOverdue(taskIds, Status.OPEN, at) == 0) {
+            return 0;
+        }
+        List<TaskDao> flagged = taskRepository.findByIdInAndOverdueAt(taskIds, at);
+        flagged.forEach(dao -> eventPublisher.publishEvent(TaskChangedEvent.updated(toResponse(dao))));
+        return flagged.size();
+    }
+
+    /**
+     * Items per bulk request and how each item ended, so partial failures show up without reading responses
+     */
+    private void recordBatch(String operation, List<TaskBatchResult> results) {
+        meterRegistry.summary("task.batch.size", "operation", operation).record(results.size());
+        results.stream()
+                .collect(Collectors.groupingBy(TaskBatchResult::getStatus, Collectors.counting()))
+                .forEach((status, count) -> meterRegistry.counter("task.batch.items",
+                        "operation", operation, "status", String.valueOf(status)).increment(count));
+    }
+
+    private List<ValidationError.FieldError> validate(Object request) {
+        if (request == null) {
+            return List.of(new ValidationError.FieldError("request", "Task is required"));
+        }
+        return validator.validate(request).stream()
+                .map(violation -> new ValidationError.FieldError(violation.getPropertyPath().toString(), violation.getMessage()))
+                .toList();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static TaskBatchResult invalid(int index, Long id, List<ValidationError.FieldError> errors) {
+        return TaskBatchResult.builder()
+                .index(index)
+                .status(HttpStatus.BAD_REQUEST.value())
+                .id(id)
+                .errors(errors)
+                .build();
+    }
+
+    private static TaskBatchResult notFound(int index, Long id) {
+        return TaskBatchResult.builder()
+                .index(index)
+                .status(HttpStatus.NOT_FOUND.value())
+                .id(id)
+                .build();
+    }
+
+    private static TaskState state(TaskDao dao) {
+        return new TaskState(dao.getId(), dao.getStatus(), dao.getDueDateTime());
+    }
+
+    /**
+     * An update clears the overdue flag only when it reschedules the task into the future or closes it, a task
+     * still past due stays flagged
+     */
+    private static boolean clearsOverdue(TaskRequest taskRequest, LocalDateTime updatedAt) {
+        return taskRequest.getDueDateTime().isAfter(updatedAt) || Status.CLOSED.contains(taskRequest.getStatus());
+    }
+
+    /**
+     * Response for an entity the service has just written, reads select the response directly
+     */
+    private static TaskResponse toResponse(TaskDao dao) {
+        return TaskResponse.builder()
+                .id(dao.getId())
+                .title(dao.getTitle())
+                .description(dao.getDescription())
+                .status(dao.getStatus())
+                .dueDateTime(dao.getDueDateTime())
+                .updatedAt(dao.getUpdatedAt())
+                .version(dao.getVersion())
+                .overdueAt(dao.getOverdueAt())
+                .build();
+    }
+
+    /**
+     * Current time at the precision db stores, so responses show the same value later reads return
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
@@ -0,0 +1,291 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.ReadReplicaRoutingDataSource;
+import gov.uk.dts.task_api.dto.TaskStatsResponse;
+import gov.uk.dts.task_api.event.TaskStateChangedEvent;
+import gov.uk.dts.task_api.repository.DueDateTimeCount;
+import gov.uk.dts.task_api.repository.StatusCount;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.repository.TaskState;
+import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Task counts per status and overdue, kept in memory and moved by every committed change so reading them
+ * costs nothing whatever the table size. Open tasks not yet overdue are counted per minute they fall due,
+ * a read moves the minutes that have passed into the overdue count, so a task is counted overdue within
+ * a minute of its due date/time. The counters are replaced from the primary periodically in case any change was missed.
+ * <p>
+ * The counters are per replica: the last reconcile plus the changes committed through this replica since.
+ * Changes made through other replicas are only counted from the next reconcile, so replicas can disagree by
+ * the writes the others took in up to one reconcile interval.
+ */
+@Component
+@Slf4j
+public class TaskStatistics {
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate snapshotTemplate;
+    private final Clock clock;
+    private final DistributionSummary drift;
+    private final Object reconciling = new Object();
+
+    // guarded by this
+    private final long[] counts = new long[Status.values().length];
+    private long overdue;
+    // open tasks by the minute they become overdue, every key is after watermark
+    private TreeMap<LocalDateTime, Long> upcoming = new TreeMap<>();
+    private LocalDateTime watermark;
+    private LocalDateTime reconciledAt;
+    // changes committed while a reconcile reads db, null when not reconciling
+    private List<TaskStateChangedEvent> pending;
+
+    @Autowired
+    public TaskStatistics(@NonNull TaskRepository taskRepository, @NonNull PlatformTransactionManager transactionManager,
+                          @NonNull MeterRegistry meterRegistry) {
+        this(taskRepository, transactionManager, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    TaskStatistics(TaskRepository taskRepository, PlatformTransactionManager transactionManager,
+                   MeterRegistry meterRegistry, Clock clock) {
+        this.taskRepository = taskRepository;
+        this.clock = clock;
+        this.watermark = LocalDateTime.now(clock);
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        // both counts from one snapshot
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTemplate.setReadOnly(true);
+        this.drift = DistributionSummary.builder("task.stats.drift")
+                .description("Tasks miscounted by the in memory statistics, found by each reconcile")
+                .register(meterRegistry);
+        for (Status status : Status.values()) {
+            Gauge.builder("task.stats.tasks", this, stats -> stats.count(status))
+                    .description("Tasks per status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("task.stats.overdue", this, TaskStatistics::overdue)
+                .description("Open tasks past their due date/time")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Current counts, without touching db
+     *
+     * @return - tasks per status, total and overdue
+     */
+    public synchronized TaskStatsResponse get() {
+        advance(LocalDateTime.now(clock));
+        Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+        long total = 0;
+        for (Status status : Status.values()) {
+            byStatus.put(status, counts[status.ordinal()]);
+            total += counts[status.ordinal()];
+        }
+        return TaskStatsResponse.builder()
+                .counts(byStatus)
+                .total(total)
+                .overdue(overdue)
+                .reconciledAt(reconciledAt)
+                .build();
+    }
+
+    /**
+     * Move the counters once the change has committed
+     *
+     * @param event - counted fields before and after a change, published by the task service
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTaskStateChanged(TaskStateChangedEvent event) {
+        if (pending != null) {
+            pending.add(event);
+        }
+        apply(event);
+    }
+
+    /**
+     * Replace the counters with counts read from db, then correct the tasks changed while reading
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${task.stats.reconcile-interval:5m}",
+            fixedDelayString = "${task.stats.reconcile-interval:5m}")
+    public void reconcile() {
+        synchronized (reconciling) {
+            reconcileFromDb();
+        }
+    }
+
+    private void reconcileFromDb() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        long[] dbCounts = new long[counts.length];
+        TreeMap<LocalDateTime, Long> dbUpcoming = new TreeMap<>();
+        long[] dbOverdue = new long[1];
+        LocalDateTime at = LocalDateTime.now(clock);
+        Set<Long> read = new HashSet<>();
+        Map<Long, TaskState> counted = new HashMap<>();
+        try {
+            // a replica's snapshot can miss changes committed on the primary before pending was set, they would
+            // be dropped until the next reconcile
+            ReadReplicaRoutingDataSource.onPrimary(() -> snapshotTemplate.execute(status -> {
+                for (StatusCount count : taskRepository.countByStatus()) {
+                    dbCounts[count.status().ordinal()] = count.count();
+                }
+                try (Stream<DueDateTimeCount> due = taskRepository.streamCountByDueDateTime(Status.OPEN)) {
+                    due.forEach(count -> {
+                        LocalDateTime overdueFrom = overdueFrom(count.dueDateTime());
+                        if (overdueFrom.isAfter(at)) {
+                            dbUpcoming.merge(overdueFrom, count.count(), Long::sum);
+                        } else {
+                            dbOverdue[0] += count.count();
+                        }
+                    });
+                }
+                // a change applied while reading may have committed before the snapshot or after it, so the tasks
+                // changed are read in the snapshot too. Read without the lock, so counts and commits carry on.
+                synchronized (this) {
+                    pending.forEach(event -> read.add(taskId(event)));
+                }
+                if (!read.isEmpty()) {
+                    taskRepository.findStatesByIds(read).forEach(state -> counted.put(state.id(), state));
+                }
+                return null;
+            }));
+            synchronized (this) {
+                replace(dbCounts, dbUpcoming, dbOverdue[0], at, read, counted);
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            log.warn("Task statistics reconcile failed error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Swap the counters for the snapshot, corrected for the tasks changed while it was read
+     *
+     * @param read - tasks changed before their state in the snapshot was read
+     * @param counted - state of those tasks in the snapshot, absent for the ones it does not hold
+     */
+    private void replace(long[] dbCounts, TreeMap<LocalDateTime, Long> dbUpcoming, long dbOverdue, LocalDateTime at,
+                         Set<Long> read, Map<Long, TaskState> counted) {
+        // state each changed task has in the snapshot and after its last change, null where there is none
+        Map<Long, TaskState> inSnapshot = new HashMap<>();
+        Map<Long, TaskState> latest = new HashMap<>();
+        for (TaskStateChangedEvent event : pending) {
+            Long id = taskId(event);
+            // applied after the tasks were read, so committed after the snapshot, which holds the state it replaced
+            if (!read.contains(id) && !inSnapshot.containsKey(id)) {
+                inSnapshot.put(id, event.before());
+            }
+            latest.put(id, event.after());
+        }
+        read.forEach(id -> inSnapshot.put(id, counted.get(id)));
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        advance(now);
+        long[] previous = counts.clone();
+        long previousOverdue = overdue;
+
+        System.arraycopy(dbCounts, 0, counts, 0, counts.length);
+        upcoming = dbUpcoming;
+        overdue = dbOverdue;
+        watermark = at;
+        inSnapshot.values().stream().filter(Objects::nonNull).forEach(state -> add(state, -1));
+        latest.values().stream().filter(Objects::nonNull).forEach(state -> add(state, 1));
+        pending = null;
+        advance(now);
+        reconciledAt = now;
+
+        long miscounted = Math.abs(overdue - previousOverdue);
+        for (int i = 0; i < counts.length; i++) {
+            miscounted += Math.abs(counts[i] - previous[i]);
+        }
+        drift.record(miscounted);
+        if (miscounted > 0) {
+            log.info("Task statistics reconciled, {} tasks were miscounted", miscounted);
+        }
+    }
+
+    private synchronized long count(Status status) {
+        return counts[status.ordinal()];
+    }
+
+    private synchronized long overdue() {
+        advance(LocalDateTime.now(clock));
+        return overdue;
+    }
+
+    private void apply(TaskStateChangedEvent event) {
+        if (event.before() != null) {
+            add(event.before(), -1);
+        }
+        if (event.after() != null) {
+            add(event.after(), 1);
+        }
+    }
+
+    private void add(TaskState state, long delta) {
+        counts[state.status().ordinal()] += delta;
+        if (!Status.OPEN.contains(state.status())) {
+            return;
+        }
+        LocalDateTime overdueFrom = overdueFrom(state.dueDateTime());
+        if (overdueFrom.isAfter(watermark)) {
+            upcoming.merge(overdueFrom, delta, (count, change) -> count + change == 0 ? null : count + change);
+        } else {
+            overdue += delta;
+        }
+    }
+
+    /**
+     * Count the minutes that have passed as overdue, each minute is only moved once
+     */
+    private void advance(LocalDateTime now) {
+        if (now.isAfter(watermark)) {
+            watermark = now;
+        }
+        Map.Entry<LocalDateTime, Long> next;
+        while ((next = upcoming.firstEntry()) != null && !next.getKey().isAfter(watermark)) {
+            overdue += next.getValue();
+            upcoming.pollFirstEntry();
+        }
+    }
+
+    private static Long taskId(TaskStateChangedEvent event) {
+        return event.after() != null ? event.after().id() : event.before().id();
+    }
+
+    private static LocalDateTime overdueFrom(LocalDateTime dueDateTime) {
+        return dueDateTime.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+    }
+}
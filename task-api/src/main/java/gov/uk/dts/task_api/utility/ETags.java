@@ -0,0 +1,62 @@
+package gov.uk.dts.task_api.utility;
+
+import gov.uk.dts.task_api.dto.TaskPageResponse;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Entity tags for task resources, derived from task id and version. Tasks get strong tags for If-Match,
+ * pages get weak ones.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    public static String of(TaskResponse task) {
+        return of(task.getId(), task.getVersion());
+    }
+
+    /**
+     * Collection version of a page, changes when any task in it changes, is added or removed. Weak, the page
+     * is the same whether sent as json or cbor, gzipped or not, and tomcat only compresses weakly tagged responses.
+     *
+     * @param page - task page returned to the client
+     * @return - entity tag for the page
+     */
+    public static String of(TaskPageResponse page) {
+        StringBuilder versions = new StringBuilder();
+        page.getTasks().forEach(task -> versions.append(task.getId()).append(':').append(task.getVersion()).append(';'));
+        versions.append(page.getNextCursor());
+        return "W/\"p-" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Find the version a client expects for a task from an If-Match header
+     *
+     * @param ifMatch - one or more strong entity tags, weak tags never match
+     * @param id - task id being updated
+     * @return - version from the first tag issued for this task, or empty
+     */
+    public static Optional<Long> versionOf(String ifMatch, Long id) {
+        String prefix = "\"" + id + "-";
+        for (String tag : ifMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith(prefix) && candidate.endsWith("\"") && candidate.length() > prefix.length() + 1) {
+                try {
+                    return Optional.of(Long.valueOf(candidate.substring(prefix.length(), candidate.length() - 1)));
+                } catch (NumberFormatException e) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -1,8 +1,20 @@
 package gov.uk.dts.task_api.utility;
 
+import java.util.Set;
+
 public enum Status {
     CREATED,
     IN_PROGRESS,
     CANCELLED,
-    COMPLETED
+    COMPLETED;
+
+    /**
+     * Work still to do, the statuses a task can be overdue in
+     */
+    public static final Set<Status> OPEN = Set.of(CREATED, IN_PROGRESS);
+
+    /**
+     * Work that is finished, the statuses a task can be archived in
+     */
+    public static final Set<Status> CLOSED = Set.of(CANCELLED, COMPLETED);
 }
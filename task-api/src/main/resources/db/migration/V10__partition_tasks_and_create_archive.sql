@@ -0,0 +1,144 @@
+-- tasks is range partitioned by due_date_time, a partition per month. Listings, the overdue sweep and exports
+-- filter or order on due_date_time, so they only read the months they need. Closed tasks are moved to
+-- task_archive by TaskArchiver, so the partitions hold live work and empty out as it is closed.
+
+-- postgres cannot partition an existing table, so the rows are copied into a new one
+ALTER SEQUENCE tasks_id_seq OWNED BY NONE;
+ALTER TABLE tasks RENAME TO tasks_unpartitioned;
+ALTER TABLE tasks_unpartitioned RENAME CONSTRAINT tasks_pkey TO tasks_unpartitioned_pkey;
+DROP INDEX idx_tasks_due_date_time_id;
+DROP INDEX idx_tasks_status_due_date_time_id;
+DROP INDEX idx_tasks_open_due_date_time_id;
+DROP INDEX idx_tasks_search_vector;
+DROP INDEX idx_tasks_unflagged_open_due_date_time_id;
+
+-- the partition key has to be part of the primary key, ids are still unique as they come from tasks_id_seq.
+-- a lookup by id alone cannot be pruned, it probes the primary key of each partition, which the archiver
+-- keeps few by dropping the empty ones
+CREATE TABLE tasks (
+    id BIGINT NOT NULL DEFAULT nextval('tasks_id_seq'),
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    status VARCHAR(50) NOT NULL,
+    due_date_time TIMESTAMP NOT NULL,
+    created_at TIMESTAMP DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    version BIGINT NOT NULL DEFAULT 0,
+    search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED,
+    overdue_at TIMESTAMP,
+    PRIMARY KEY (id, due_date_time)
+) PARTITION BY RANGE (due_date_time);
+
+ALTER SEQUENCE tasks_id_seq OWNED BY tasks.id;
+
+-- tasks due before the first month and after the last month that have a partition. Bounded rather than a
+-- default partition, so the planner can still read the partitions in order for keyset pages.
+CREATE TABLE tasks_past PARTITION OF tasks
+    FOR VALUES FROM (MINVALUE) TO (date_trunc('month', now()) - INTERVAL '12 months');
+CREATE TABLE tasks_future PARTITION OF tasks
+    FOR VALUES FROM (date_trunc('month', now()) - INTERVAL '12 months') TO (MAXVALUE);
+
+-- add monthly partitions until months_ahead months after this one have one, called by TaskArchiver so a
+-- month has its partition before tasks fall due in it. Each month is split off the front of tasks_future,
+-- tasks already due in it move across.
+CREATE FUNCTION task_create_partitions(months_ahead INT) RETURNS INT
+LANGUAGE plpgsql AS $$
+DECLARE
+    last_month DATE := (date_trunc('month', now()) + make_interval(months => months_ahead))::date;
+    month_start DATE;
+    month_end DATE;
+    created INT := 0;
+BEGIN
+    LOOP
+        SELECT substring(pg_get_expr(c.relpartbound, c.oid) FROM 'FROM \(''([^'']+)''\)')::date
+        INTO month_start
+        FROM pg_class c WHERE c.oid = 'tasks_future'::regclass;
+        EXIT WHEN month_start > last_month;
+        month_end := (month_start + INTERVAL '1 month')::date;
+
+        ALTER TABLE tasks DETACH PARTITION tasks_future;
+        EXECUTE format('CREATE TABLE %I PARTITION OF tasks FOR VALUES FROM (%L) TO (%L)',
+                'tasks_p' || to_char(month_start, 'YYYYMM'), month_start, month_end);
+        INSERT INTO tasks (id, title, description, status, due_date_time, created_at, updated_at, version, overdue_at)
+        SELECT id, title, description, status, due_date_time, created_at, updated_at, version, overdue_at
+        FROM tasks_future WHERE due_date_time < month_end;
+        DELETE FROM tasks_future WHERE due_date_time < month_end;
+        EXECUTE format('ALTER TABLE tasks ATTACH PARTITION tasks_future FOR VALUES FROM (%L) TO (MAXVALUE)',
+                month_end);
+        created := created + 1;
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+-- fold the oldest monthly partitions into tasks_past once they ended before ended_before and hold no tasks,
+-- so closed months stop costing lookups by id. Only the month next to tasks_past is folded each time round,
+-- the months stay contiguous and every due date/time keeps a partition.
+CREATE FUNCTION task_drop_empty_partitions(ended_before DATE) RETURNS INT
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start DATE;
+    month_end DATE;
+    partition_name TEXT;
+    is_empty BOOLEAN;
+    dropped INT := 0;
+BEGIN
+    LOOP
+        SELECT substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([^'']+)''\)')::date
+        INTO month_start
+        FROM pg_class c WHERE c.oid = 'tasks_past'::regclass;
+        month_end := (month_start + INTERVAL '1 month')::date;
+        partition_name := 'tasks_p' || to_char(month_start, 'YYYYMM');
+        EXIT WHEN month_end > ended_before OR to_regclass(partition_name) IS NULL;
+        EXECUTE format('SELECT NOT EXISTS (SELECT 1 FROM %I)', partition_name) INTO is_empty;
+        EXIT WHEN NOT is_empty;
+
+        ALTER TABLE tasks DETACH PARTITION tasks_past;
+        EXECUTE format('DROP TABLE %I', partition_name);
+        EXECUTE format('ALTER TABLE tasks ATTACH PARTITION tasks_past FOR VALUES FROM (MINVALUE) TO (%L)',
+                month_end);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END
+$$;
+
+-- a year back covers most open work, older tasks stay in tasks_past until archived
+SELECT task_create_partitions(3);
+
+INSERT INTO tasks (id, title, description, status, due_date_time, created_at, updated_at, version, overdue_at)
+SELECT id, title, description, status, due_date_time, created_at, updated_at, version, overdue_at
+FROM tasks_unpartitioned;
+
+DROP TABLE tasks_unpartitioned;
+
+-- indexes of V5, V7 and V8, created on every partition after the copy
+CREATE INDEX idx_tasks_due_date_time_id ON tasks (due_date_time, id);
+CREATE INDEX idx_tasks_status_due_date_time_id ON tasks (status, due_date_time, id);
+CREATE INDEX idx_tasks_open_due_date_time_id ON tasks (due_date_time, id)
+    WHERE status IN ('CREATED', 'IN_PROGRESS');
+CREATE INDEX idx_tasks_search_vector ON tasks USING GIN (search_vector);
+CREATE INDEX idx_tasks_unflagged_open_due_date_time_id ON tasks (due_date_time, id)
+    WHERE status IN ('CREATED', 'IN_PROGRESS') AND overdue_at IS NULL;
+
+-- closed tasks in the order the archiver moves them, small as they are moved out
+CREATE INDEX idx_tasks_closed_updated_at_id ON tasks (updated_at, id)
+    WHERE status IN ('CANCELLED', 'COMPLETED');
+
+-- closed tasks moved out of tasks, no search vector or status indexes, read by id or in due date order
+CREATE TABLE task_archive (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    status VARCHAR(50) NOT NULL,
+    due_date_time TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    version BIGINT NOT NULL,
+    overdue_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_task_archive_due_date_time_id ON task_archive (due_date_time, id);
@@ -0,0 +1,55 @@
+-- V10 added each month by detaching tasks_future, creating the month and moving its tasks across, all in one
+-- transaction holding ACCESS EXCLUSIVE on tasks, so every read and write waited for the rows to move. Months are
+-- now created empty well before tasks fall due in them and attached next to the others, which only takes
+-- SHARE UPDATE EXCLUSIVE on tasks and leaves reads and writes running.
+
+-- split the months up to a year ahead off tasks_future with the V10 function one last time, its tasks move
+-- once here while the deploy holds the lock anyway
+SELECT task_create_partitions(12);
+
+-- tasks_future becomes the default partition, it holds the tasks due after the last month with a partition and
+-- no longer has to be split for a new month. Attaching a month scans it for tasks due in that month, it stays
+-- small as only tasks due more than task.archive.months-ahead months out land in it. With a default partition
+-- the planner merges the partitions for a keyset page instead of reading them one after the other, each is
+-- still read in index order and only as far as the page needs.
+ALTER TABLE tasks DETACH PARTITION tasks_future;
+ALTER TABLE tasks ATTACH PARTITION tasks_future DEFAULT;
+
+-- add monthly partitions until months_ahead months after this one have one, called by TaskArchiver. A month
+-- is created as a table of its own and attached, no tasks are moved; a month tasks_future already holds tasks
+-- for is skipped, those tasks stay in tasks_future and are still found, only not pruned to their month.
+CREATE OR REPLACE FUNCTION task_create_partitions(months_ahead INT) RETURNS INT
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start DATE := date_trunc('month', now())::date;
+    last_month DATE := (date_trunc('month', now()) + make_interval(months => months_ahead))::date;
+    month_end DATE;
+    partition_name TEXT;
+    has_tasks BOOLEAN;
+    created INT := 0;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        month_end := (month_start + INTERVAL '1 month')::date;
+        partition_name := 'tasks_p' || to_char(month_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NULL THEN
+            SELECT EXISTS (SELECT 1 FROM tasks_future WHERE due_date_time >= month_start AND due_date_time < month_end)
+            INTO has_tasks;
+            IF has_tasks THEN
+                RAISE NOTICE 'tasks_future holds tasks due in %, not partitioned', to_char(month_start, 'YYYY-MM');
+            ELSE
+                EXECUTE format('CREATE TABLE %I (LIKE tasks INCLUDING ALL)', partition_name);
+                EXECUTE format('ALTER TABLE tasks ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                        partition_name, month_start, month_end);
+                created := created + 1;
+            END IF;
+        END IF;
+        month_start := month_end;
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+-- the primary key is (id, due_date_time), a lookup by id alone cannot be pruned and probes the primary key of
+-- every partition: tasks_past, the months kept back, the months ahead and tasks_future. The service reads a
+-- task by id once, locking it, and sends the statements that follow with the due date/time it read, which
+-- prunes them to the task's own partition. Reads served from the caches never reach db.
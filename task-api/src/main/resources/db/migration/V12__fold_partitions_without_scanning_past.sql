@@ -0,0 +1,68 @@
+-- V10 folded an empty month into tasks_past by detaching tasks_past, dropping the month and attaching tasks_past
+-- again with the wider bound. The detach takes ACCESS EXCLUSIVE on tasks and the attach then scanned all of
+-- tasks_past to check its rows against the new bound while holding it, so every read and write waited for a scan
+-- of the oldest and largest partition. tasks_past now carries the bound it had as a validated check constraint,
+-- which proves every wider bound, so the attach skips the scan and the lock is only held to swap the tables.
+
+-- added as not valid, a check added valid is scanned under ACCESS EXCLUSIVE on tasks_past. TaskPartitions
+-- validates it before each fold outside any other statement, that only takes SHARE UPDATE EXCLUSIVE on tasks_past
+-- and leaves reads and writes running while it scans
+DO $$
+DECLARE
+    past_end DATE;
+BEGIN
+    SELECT substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([^'']+)''\)')::date
+    INTO past_end
+    FROM pg_class c WHERE c.oid = 'tasks_past'::regclass;
+    EXECUTE format('ALTER TABLE tasks_past ADD CONSTRAINT tasks_past_bound CHECK (due_date_time < %L) NOT VALID',
+            past_end);
+END
+$$;
+
+-- fold the oldest partitions into tasks_past while they ended before ended_before and hold no tasks, called by
+-- TaskArchiver. Nothing is folded until tasks_past_bound is validated. The bound of the check is kept while
+-- folding, it still proves the bound of each attach, and is moved to the new bound once done; the check is added
+-- not valid again and validated before the next fold.
+CREATE OR REPLACE FUNCTION task_drop_empty_partitions(ended_before DATE) RETURNS INT
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start DATE;
+    month_end DATE;
+    partition_name TEXT;
+    is_empty BOOLEAN;
+    dropped INT := 0;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = 'tasks_past'::regclass AND conname = 'tasks_past_bound' AND convalidated) THEN
+        RAISE NOTICE 'tasks_past_bound is not validated, no partitions folded';
+        RETURN 0;
+    END IF;
+    LOOP
+        SELECT substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([^'']+)''\)')::date
+        INTO month_start
+        FROM pg_class c WHERE c.oid = 'tasks_past'::regclass;
+        month_end := (month_start + INTERVAL '1 month')::date;
+        partition_name := 'tasks_p' || to_char(month_start, 'YYYYMM');
+        EXIT WHEN month_end > ended_before OR to_regclass(partition_name) IS NULL;
+        EXECUTE format('SELECT NOT EXISTS (SELECT 1 FROM %I)', partition_name) INTO is_empty;
+        EXIT WHEN NOT is_empty;
+
+        ALTER TABLE tasks DETACH PARTITION tasks_past;
+        EXECUTE format('DROP TABLE %I', partition_name);
+        -- the attach still scans tasks_future, the default partition, which stays small (V11)
+        EXECUTE format('ALTER TABLE tasks ATTACH PARTITION tasks_past FOR VALUES FROM (MINVALUE) TO (%L)',
+                month_end);
+        dropped := dropped + 1;
+    END LOOP;
+    IF dropped > 0 THEN
+        -- the old bound would turn away tasks due in the months folded, the lock is held until the check moves
+        ALTER TABLE tasks_past DROP CONSTRAINT tasks_past_bound;
+        EXECUTE format('ALTER TABLE tasks_past ADD CONSTRAINT tasks_past_bound CHECK (due_date_time < %L) NOT VALID',
+                month_start);
+    END IF;
+    RETURN dropped;
+END
+$$;
+
+-- V11 ends saying the service reads a task by id once, locking it, before writing it; since then an update or
+-- delete by id is a single statement that returns the state it replaced, which probes every partition once.
@@ -0,0 +1,2 @@
+-- Hibernate pre-allocates ids in blocks of 500 (pooled optimizer) so inserts can be JDBC batched
+ALTER SEQUENCE tasks_id_seq INCREMENT BY 500;
@@ -0,0 +1,3 @@
+-- updated_at versions each task for ETags, so every row needs one
+UPDATE tasks SET updated_at = COALESCE(created_at, NOW()) WHERE updated_at IS NULL;
+ALTER TABLE tasks ALTER COLUMN updated_at SET NOT NULL;
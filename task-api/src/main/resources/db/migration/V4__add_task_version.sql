@@ -0,0 +1,2 @@
+-- optimistic locking version, incremented by every update
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
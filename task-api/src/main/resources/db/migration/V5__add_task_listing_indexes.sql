@@ -0,0 +1,9 @@
+-- keyset pages are ordered by (due_date_time, id), the id breaks ties so the index alone can serve the cursor
+CREATE INDEX idx_tasks_due_date_time_id ON tasks (due_date_time, id);
+
+-- status filtered pages, equality on status then the same keyset order
+CREATE INDEX idx_tasks_status_due_date_time_id ON tasks (status, due_date_time, id);
+
+-- most listings only want work still to do, keep that index small as completed tasks pile up
+CREATE INDEX idx_tasks_open_due_date_time_id ON tasks (due_date_time, id)
+    WHERE status IN ('CREATED', 'IN_PROGRESS');
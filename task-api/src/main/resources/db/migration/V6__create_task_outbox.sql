@@ -0,0 +1,10 @@
+-- task changes written in the same transaction as the tasks row, drained in id order by TaskOutboxRelay
+CREATE SEQUENCE task_outbox_id_seq INCREMENT BY 500;
+
+CREATE TABLE task_outbox (
+    id BIGINT PRIMARY KEY DEFAULT nextval('task_outbox_id_seq'),
+    event_type VARCHAR(20) NOT NULL,
+    task_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
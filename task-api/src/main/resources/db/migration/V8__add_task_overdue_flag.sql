@@ -0,0 +1,13 @@
+-- set by OverdueTaskSweeper when an open task is found past its due date/time, cleared by any update
+ALTER TABLE tasks ADD COLUMN overdue_at TIMESTAMP;
+
+-- only tasks the sweeper still has to flag, so each run reads just the newly overdue ones
+CREATE INDEX idx_tasks_unflagged_open_due_date_time_id ON tasks (due_date_time, id)
+    WHERE status IN ('CREATED', 'IN_PROGRESS') AND overdue_at IS NULL;
+
+-- one row per background job, held by the replica running it until expires_at
+CREATE TABLE task_job_leases (
+    name VARCHAR(50) PRIMARY KEY,
+    owner VARCHAR(100) NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
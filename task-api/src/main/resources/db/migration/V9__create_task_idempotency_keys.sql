@@ -0,0 +1,10 @@
+-- first response to a request sent with an Idempotency-Key, replayed to retries until expires_at
+CREATE TABLE task_idempotency_keys (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    fingerprint VARCHAR(100) NOT NULL,
+    status INT NOT NULL,
+    body TEXT,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_task_idempotency_keys_expires_at ON task_idempotency_keys (expires_at);
@@ -0,0 +1,67 @@
+package gov.uk.dts.task_api.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitedDataSourceTest {
+
+    private final DataSource pool = mock(DataSource.class);
+    private final Connection pooled = mock(Connection.class);
+    private final ConcurrencyLimitedDataSource underTest = new ConcurrencyLimitedDataSource(pool, 2, Duration.ofMillis(50));
+
+    @Test
+    void getConnectionTest_releasesPermitOnceOnClose() throws SQLException {
+        when(pool.getConnection()).thenReturn(pooled);
+
+        Connection connection = underTest.getConnection();
+        assertThat(underTest.availablePermits()).isEqualTo(1);
+
+        connection.close();
+        connection.close();
+
+        assertThat(underTest.availablePermits()).isEqualTo(2);
+        verify(pooled, times(2)).close();
+    }
+
+    @Test
+    void getConnectionTest_delegatesToPooledConnection() throws SQLException {
+        when(pool.getConnection()).thenReturn(pooled);
+        when(pooled.getAutoCommit()).thenReturn(true);
+
+        try (Connection connection = underTest.getConnection()) {
+            assertThat(connection.getAutoCommit()).isTrue();
+        }
+    }
+
+    @Test
+    void getConnectionTest_timesOutWhenLimitReached() throws SQLException {
+        when(pool.getConnection()).thenReturn(pooled);
+        underTest.getConnection();
+        underTest.getConnection();
+
+        assertThatThrownBy(underTest::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("No database permit");
+        verify(pool, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnectionTest_releasesPermitWhenPoolFails() throws SQLException {
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThatThrownBy(underTest::getConnection).hasMessage("pool exhausted");
+        assertThat(underTest.availablePermits()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,106 @@
+package gov.uk.dts.task_api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource firstReplica = mock(DataSource.class);
+    private final DataSource secondReplica = mock(DataSource.class);
+    private final Connection primaryConnection = connection();
+    private final Connection replicaConnection = connection();
+    private final DataSource underTest = ReadReplicaRoutingDataSource.route(primary, List.of(firstReplica, secondReplica));
+
+    @AfterEach
+    void tearDown() {
+        ReadReplicaRoutingDataSource.pinToPrimary(false);
+    }
+
+    @Test
+    void readOnlyConnectionTest_roundRobinsReplicas() throws SQLException {
+        stubConnections();
+
+        for (int i = 0; i < 4; i++) {
+            try (Connection connection = underTest.getConnection()) {
+                connection.setReadOnly(true);
+                connection.prepareStatement("select 1");
+            }
+        }
+
+        verify(firstReplica, times(2)).getConnection();
+        verify(secondReplica, times(2)).getConnection();
+    }
+
+    @Test
+    void writeConnectionTest_usesPrimary() throws SQLException {
+        stubConnections();
+
+        try (Connection connection = underTest.getConnection()) {
+            connection.prepareStatement("update tasks set title = 'Task'");
+        }
+
+        verify(primaryConnection).prepareStatement(anyString());
+        verify(firstReplica, never()).getConnection();
+        verify(secondReplica, never()).getConnection();
+    }
+
+    @Test
+    void readOnlyConnectionTest_pinnedUsesPrimary() throws SQLException {
+        stubConnections();
+        ReadReplicaRoutingDataSource.pinToPrimary(true);
+
+        try (Connection connection = underTest.getConnection()) {
+            connection.setReadOnly(true);
+            connection.prepareStatement("select 1");
+        }
+
+        verify(primaryConnection).prepareStatement(anyString());
+        verify(firstReplica, never()).getConnection();
+        verify(secondReplica, never()).getConnection();
+    }
+
+    @Test
+    void unusedConnectionTest_neverFetched() throws SQLException {
+        stubConnections();
+
+        try (Connection connection = underTest.getConnection()) {
+            connection.setReadOnly(true);
+        }
+
+        // the lazy proxy only reads the defaults from the primary once
+        verify(primary, times(1)).getConnection();
+        verify(firstReplica, never()).getConnection();
+    }
+
+    private void stubConnections() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(firstReplica.getConnection()).thenReturn(replicaConnection);
+        when(secondReplica.getConnection()).thenReturn(replicaConnection);
+    }
+
+    private static Connection connection() {
+        Connection connection = mock(Connection.class);
+        try {
+            when(connection.getAutoCommit()).thenReturn(true);
+            when(connection.getTransactionIsolation()).thenReturn(Connection.TRANSACTION_READ_COMMITTED);
+            when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return connection;
+    }
+}
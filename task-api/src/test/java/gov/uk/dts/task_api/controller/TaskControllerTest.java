@@ -1,28 +1,71 @@
 package gov.uk.dts.task_api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import gov.uk.dts.task_api.config.TaskBatchProperties;
+import gov.uk.dts.task_api.config.TaskRateLimitProperties;
+import gov.uk.dts.task_api.dto.TaskBatchResult;
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.dto.TaskFilter;
+import gov.uk.dts.task_api.dto.TaskPageResponse;
 import gov.uk.dts.task_api.dto.TaskRequest;
 import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.dto.TaskSearchCursor;
+import gov.uk.dts.task_api.dto.TaskStatsResponse;
+import gov.uk.dts.task_api.dto.TaskUpdateRequest;
+import gov.uk.dts.task_api.handler.TaskIdempotencyHandler;
+import gov.uk.dts.task_api.utility.ETags;
 import gov.uk.dts.task_api.utility.Status;
+import gov.uk.dts.task_api.service.TaskArchiveService;
+import gov.uk.dts.task_api.service.TaskCreateQueue;
+import gov.uk.dts.task_api.service.TaskEventStream;
 import gov.uk.dts.task_api.service.TaskService;
+import gov.uk.dts.task_api.service.TaskStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TaskController.class)
+@EnableConfigurationProperties({TaskBatchProperties.class, TaskRateLimitProperties.class})
+@Import(SimpleMeterRegistry.class)
+@TestPropertySource(properties = {"task.batch.max-items=3", "task.rate-limit.enabled=false"})
 class TaskControllerTest {
 
     @Autowired
@@ -31,11 +74,37 @@ class TaskControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @MockitoBean
     private TaskService taskService;
 
+    @MockitoBean
+    private TaskEventStream taskEventStream;
+
+    @MockitoBean
+    private TaskStatistics taskStatistics;
+
+    @MockitoBean
+    private TaskIdempotencyHandler idempotencyHandler;
+
+    @MockitoBean
+    private TaskArchiveService archiveService;
+
+    @MockitoBean
+    private TaskCreateQueue createQueue;
+
     private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
 
+    @BeforeEach
+    void setUp() {
+        // keys are covered by TaskIdempotencyHandlerTest, here every request runs
+        Mockito.when(idempotencyHandler.execute(any(), any(), anyString(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ResponseEntity<?>>>getArgument(4).get());
+        Mockito.when(createQueue.responseTimeout()).thenReturn(Duration.ofMillis(50));
+    }
+
     @Test
     void createTask_success() throws Exception {
         TaskRequest request = new TaskRequest("Title", "Desc", Status.CREATED, DUE_DATE_TIME);
@@ -70,6 +139,102 @@ class TaskControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void createTask_groupCommit() throws Exception {
+        TaskRequest request = new TaskRequest("Title", "Desc", Status.CREATED, DUE_DATE_TIME);
+        TaskResponse response = TaskResponse.builder().id(1L).title("Title").status(Status.CREATED).dueDateTime(DUE_DATE_TIME).build();
+
+        Mockito.when(createQueue.enabled()).thenReturn(true);
+        Mockito.when(createQueue.submit(any(TaskRequest.class))).thenReturn(CompletableFuture.completedFuture(response));
+
+        mockMvc.perform(post("/task/v1/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1L));
+        Mockito.verify(taskService, Mockito.never()).create(any());
+    }
+
+    @Test
+    void createTask_groupCommitQueueFull() throws Exception {
+        TaskRequest request = new TaskRequest("Title", "Desc", Status.CREATED, DUE_DATE_TIME);
+
+        Mockito.when(createQueue.enabled()).thenReturn(true);
+        Mockito.when(createQueue.submit(any(TaskRequest.class))).thenThrow(new RejectedExecutionException("full"));
+
+        mockMvc.perform(post("/task/v1/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void createTask_groupCommitNotCommittedInTime() throws Exception {
+        TaskRequest request = new TaskRequest("Title", "Desc", Status.CREATED, DUE_DATE_TIME);
+        CompletableFuture<TaskResponse> queued = new CompletableFuture<>();
+
+        Mockito.when(createQueue.enabled()).thenReturn(true);
+        Mockito.when(createQueue.submit(any(TaskRequest.class))).thenReturn(queued);
+        Mockito.when(createQueue.withdraw(queued)).thenReturn(true);
+
+        mockMvc.perform(post("/task/v1/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        Mockito.verify(createQueue).withdraw(queued);
+    }
+
+    @Test
+    void createTask_groupCommitTakenByTheWriterWaitsForItsBatch() throws Exception {
+        TaskRequest request = new TaskRequest("Title", "Desc", Status.CREATED, DUE_DATE_TIME);
+        TaskResponse response = TaskResponse.builder().id(1L).title("Title").status(Status.CREATED).dueDateTime(DUE_DATE_TIME).build();
+        // committed after the response timeout of 50ms
+        CompletableFuture<TaskResponse> committing = CompletableFuture.supplyAsync(() -> response,
+                CompletableFuture.delayedExecutor(300, TimeUnit.MILLISECONDS));
+
+        Mockito.when(createQueue.enabled()).thenReturn(true);
+        Mockito.when(createQueue.submit(any(TaskRequest.class))).thenReturn(committing);
+        Mockito.when(createQueue.withdraw(committing)).thenReturn(false);
+
+        mockMvc.perform(post("/task/v1/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1L));
+    }
+
+    @Test
+    void createTask_groupCommitFailed() throws Exception {
+        TaskRequest request = new TaskRequest("Title", "Desc", Status.CREATED, DUE_DATE_TIME);
+
+        Mockito.when(createQueue.enabled()).thenReturn(true);
+        Mockito.when(createQueue.submit(any(TaskRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("DB error")));
+
+        mockMvc.perform(post("/task/v1/create")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void createTask_groupCommitKeyedStaysSynchronous() throws Exception {
+        TaskRequest request = new TaskRequest("Title", "Desc", Status.CREATED, DUE_DATE_TIME);
+        TaskResponse response = TaskResponse.builder().id(1L).title("Title").status(Status.CREATED).dueDateTime(DUE_DATE_TIME).build();
+
+        Mockito.when(createQueue.enabled()).thenReturn(true);
+        Mockito.when(taskService.create(any(TaskRequest.class))).thenReturn(response);
+
+        mockMvc.perform(post("/task/v1/create")
+                        .header(TaskIdempotencyHandler.IDEMPOTENCY_KEY, "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+        Mockito.verify(createQueue, Mockito.never()).submit(any());
+    }
+
     @Test
     void updateTask_success() throws Exception {
         TaskRequest request = new TaskRequest("Updated", "Desc", Status.IN_PROGRESS, DUE_DATE_TIME);
@@ -79,15 +244,17 @@ class TaskControllerTest {
                 .description("Desc")
                 .status(Status.IN_PROGRESS)
                 .dueDateTime(DUE_DATE_TIME)
+                .version(5L)
                 .build();
 
-        Mockito.when(taskService.update(any(TaskRequest.class), eq(1L)))
+        Mockito.when(taskService.update(any(TaskRequest.class), eq(1L), isNull()))
                 .thenReturn(Optional.of(response));
 
         mockMvc.perform(put("/task/v1/update/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETags.of(1L, 5L)))
                 .andExpect(jsonPath("$.title").value("Updated"));
     }
 
@@ -95,7 +262,7 @@ class TaskControllerTest {
     void updateTask_notFound() throws Exception {
         TaskRequest request = new TaskRequest("Updated", "Desc", Status.IN_PROGRESS, DUE_DATE_TIME);
 
-        Mockito.when(taskService.update(any(TaskRequest.class), eq(1L)))
+        Mockito.when(taskService.update(any(TaskRequest.class), eq(1L), isNull()))
                 .thenReturn(Optional.empty());
 
         mockMvc.perform(put("/task/v1/update/1")
@@ -104,6 +271,55 @@ class TaskControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateTask_ifMatch() throws Exception {
+        TaskRequest request = new TaskRequest("Updated", "Desc", Status.IN_PROGRESS, DUE_DATE_TIME);
+        TaskResponse response = TaskResponse.builder()
+                .id(1L)
+                .title("Updated")
+                .status(Status.IN_PROGRESS)
+                .dueDateTime(DUE_DATE_TIME)
+                .version(4L)
+                .build();
+
+        Mockito.when(taskService.update(any(TaskRequest.class), eq(1L), eq(3L)))
+                .thenReturn(Optional.of(response));
+
+        mockMvc.perform(put("/task/v1/update/1")
+                        .header("If-Match", ETags.of(1L, 3L))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETags.of(1L, 4L)));
+    }
+
+    @Test
+    void updateTask_versionConflict() throws Exception {
+        TaskRequest request = new TaskRequest("Updated", "Desc", Status.IN_PROGRESS, DUE_DATE_TIME);
+
+        Mockito.when(taskService.update(any(TaskRequest.class), eq(1L), eq(3L)))
+                .thenThrow(new OptimisticLockingFailureException("Task 1 is no longer at version 3"));
+
+        mockMvc.perform(put("/task/v1/update/1")
+                        .header("If-Match", ETags.of(1L, 3L))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateTask_ifMatchForOtherTask() throws Exception {
+        TaskRequest request = new TaskRequest("Updated", "Desc", Status.IN_PROGRESS, DUE_DATE_TIME);
+
+        mockMvc.perform(put("/task/v1/update/1")
+                        .header("If-Match", ETags.of(2L, 3L))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+
+        Mockito.verifyNoInteractions(taskService);
+    }
+
     @Test
     void findTask_success() throws Exception {
         TaskResponse response = TaskResponse.builder()
@@ -121,6 +337,57 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void findTask_returnsETag() throws Exception {
+        TaskResponse response = TaskResponse.builder()
+                .id(1L)
+                .title("Title")
+                .status(Status.CREATED)
+                .dueDateTime(DUE_DATE_TIME)
+                .version(3L)
+                .build();
+
+        Mockito.when(taskService.getByTaskId(1L)).thenReturn(Optional.of(response));
+
+        mockMvc.perform(get("/task/v1/find/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETags.of(1L, 3L)));
+    }
+
+    @Test
+    void findTask_notModified() throws Exception {
+        TaskResponse response = TaskResponse.builder()
+                .id(1L)
+                .title("Title")
+                .status(Status.CREATED)
+                .dueDateTime(DUE_DATE_TIME)
+                .version(3L)
+                .build();
+        Mockito.when(taskService.getByTaskId(1L)).thenReturn(Optional.of(response));
+
+        mockMvc.perform(get("/task/v1/find/1")
+                        .header("If-None-Match", ETags.of(1L, 3L)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void findTask_modifiedSinceETag() throws Exception {
+        TaskResponse response = TaskResponse.builder()
+                .id(1L)
+                .title("Title")
+                .status(Status.CREATED)
+                .dueDateTime(DUE_DATE_TIME)
+                .version(4L)
+                .build();
+        Mockito.when(taskService.getByTaskId(1L)).thenReturn(Optional.of(response));
+
+        mockMvc.perform(get("/task/v1/find/1")
+                        .header("If-None-Match", ETags.of(1L, 3L)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETags.of(response)));
+    }
+
     @Test
     void findTask_notFound() throws Exception {
         Mockito.when(taskService.getByTaskId(1L)).thenReturn(Optional.empty());
@@ -155,6 +422,249 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.length()").value(2));
     }
 
+    @Test
+    void exportTasks_success() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<TaskResponse> consumer = invocation.getArgument(0);
+            consumer.accept(TaskResponse.builder().id(1L).title("A").status(Status.CREATED).dueDateTime(DUE_DATE_TIME).build());
+            consumer.accept(TaskResponse.builder().id(2L).title("B").status(Status.IN_PROGRESS).dueDateTime(DUE_DATE_TIME).build());
+            return null;
+        }).when(taskService).exportAll(any());
+
+        var result = mockMvc.perform(get("/task/v1/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        var lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TaskController.APPLICATION_NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asLong()).isEqualTo(1L);
+        assertThat(objectMapper.readTree(lines[1]).get("title").asText()).isEqualTo("B");
+    }
+
+    @Test
+    void exportTasks_cborSequence() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<TaskResponse> consumer = invocation.getArgument(0);
+            consumer.accept(TaskResponse.builder().id(1L).title("A").status(Status.CREATED).dueDateTime(DUE_DATE_TIME).build());
+            consumer.accept(TaskResponse.builder().id(2L).title("B").status(Status.IN_PROGRESS).dueDateTime(DUE_DATE_TIME).build());
+            return null;
+        }).when(taskService).exportAll(any());
+
+        var result = mockMvc.perform(get("/task/v1/export")
+                        .header(HttpHeaders.ACCEPT, TaskController.APPLICATION_NDJSON_VALUE + ";q=0.5, "
+                                + TaskController.APPLICATION_CBOR_SEQ_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(TaskController.APPLICATION_CBOR_SEQ_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<TaskResponse> tasks = CBORMapper.builder().findAndAddModules().build()
+                .readerFor(TaskResponse.class).<TaskResponse>readValues(body).readAll();
+        assertThat(tasks).extracting(TaskResponse::getTitle).containsExactly("A", "B");
+    }
+
+    @Test
+    void findTaskPage_success() throws Exception {
+        var cursor = new TaskCursor(DUE_DATE_TIME, 1L);
+        TaskPageResponse page = TaskPageResponse.builder()
+                .tasks(List.of(TaskResponse.builder()
+                        .id(2L)
+                        .title("B")
+                        .status(Status.IN_PROGRESS)
+                        .dueDateTime(DUE_DATE_TIME)
+                        .build()))
+                .nextCursor(new TaskCursor(DUE_DATE_TIME, 2L).encode())
+                .build();
+
+        Mockito.when(taskService.getPage(new TaskFilter(List.of(Status.CREATED, Status.IN_PROGRESS), DUE_DATE_TIME, null), cursor, 1))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/task/v1/find-page")
+                        .param("status", "CREATED", "IN_PROGRESS")
+                        .param("dueFrom", DUE_DATE_TIME.toString())
+                        .param("cursor", cursor.encode())
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks.length()").value(1))
+                .andExpect(jsonPath("$.tasks[0].id").value(2L))
+                .andExpect(jsonPath("$.nextCursor").value(page.getNextCursor()));
+    }
+
+    @Test
+    void findTaskPage_cbor() throws Exception {
+        TaskPageResponse page = TaskPageResponse.builder()
+                .tasks(List.of(TaskResponse.builder()
+                        .id(2L)
+                        .title("B")
+                        .status(Status.IN_PROGRESS)
+                        .dueDateTime(DUE_DATE_TIME)
+                        .build()))
+                .build();
+        Mockito.when(taskService.getPage(new TaskFilter(null, null, null), null, null)).thenReturn(page);
+
+        byte[] body = mockMvc.perform(get("/task/v1/find-page").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        TaskPageResponse decoded = CBORMapper.builder().findAndAddModules().build()
+                .readValue(body, TaskPageResponse.class);
+        assertThat(decoded.getTasks().getFirst().getTitle()).isEqualTo("B");
+        assertThat(decoded.getTasks().getFirst().getDueDateTime()).isEqualTo(DUE_DATE_TIME);
+    }
+
+    @Test
+    void findTaskPage_notModified() throws Exception {
+        TaskPageResponse page = TaskPageResponse.builder()
+                .tasks(List.of(TaskResponse.builder()
+                        .id(2L)
+                        .title("B")
+                        .status(Status.IN_PROGRESS)
+                        .dueDateTime(DUE_DATE_TIME)
+                        .build()))
+                .build();
+        Mockito.when(taskService.getPage(TaskFilter.none(), null, null)).thenReturn(page);
+
+        mockMvc.perform(get("/task/v1/find-page")
+                        .header("If-None-Match", ETags.of(page)))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void search_success() throws Exception {
+        var cursor = new TaskSearchCursor(0.5f, 1L);
+        TaskPageResponse page = TaskPageResponse.builder()
+                .tasks(List.of(TaskResponse.builder()
+                        .id(2L)
+                        .title("Renew passport")
+                        .status(Status.CREATED)
+                        .dueDateTime(DUE_DATE_TIME)
+                        .build()))
+                .build();
+        Mockito.when(taskService.search("passport", cursor, 1)).thenReturn(page);
+
+        mockMvc.perform(get("/task/v1/search")
+                        .param("q", "passport")
+                        .param("cursor", cursor.encode())
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETags.of(page)))
+                .andExpect(jsonPath("$.tasks[0].id").value(2L));
+    }
+
+    @Test
+    void search_blankText() throws Exception {
+        mockMvc.perform(get("/task/v1/search")
+                        .param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("q"));
+        Mockito.verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void findArchivedTask_success() throws Exception {
+        Mockito.when(archiveService.getByTaskId(1L)).thenReturn(Optional.of(TaskResponse.builder()
+                .id(1L)
+                .title("Done")
+                .status(Status.COMPLETED)
+                .dueDateTime(DUE_DATE_TIME)
+                .build()));
+
+        mockMvc.perform(get("/task/v1/archive/find/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+        Mockito.verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void findArchivedTask_notFound() throws Exception {
+        Mockito.when(archiveService.getByTaskId(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/task/v1/archive/find/1"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findArchivedTaskPage_success() throws Exception {
+        var cursor = new TaskCursor(DUE_DATE_TIME, 1L);
+        TaskPageResponse page = TaskPageResponse.builder()
+                .tasks(List.of(TaskResponse.builder()
+                        .id(2L)
+                        .title("B")
+                        .status(Status.CANCELLED)
+                        .dueDateTime(DUE_DATE_TIME)
+                        .build()))
+                .build();
+        Mockito.when(archiveService.getPage(cursor, 1)).thenReturn(page);
+
+        mockMvc.perform(get("/task/v1/archive/find-page")
+                        .param("cursor", cursor.encode())
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].id").value(2L));
+    }
+
+    @Test
+    void stats_success() throws Exception {
+        Map<Status, Long> counts = new EnumMap<>(Status.class);
+        counts.put(Status.CREATED, 3L);
+        counts.put(Status.COMPLETED, 1L);
+        Mockito.when(taskStatistics.get()).thenReturn(TaskStatsResponse.builder()
+                .counts(counts)
+                .total(4)
+                .overdue(2)
+                .build());
+
+        mockMvc.perform(get("/task/v1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.counts.CREATED").value(3))
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.overdue").value(2));
+        Mockito.verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void findTaskPage_invalidCursor() throws Exception {
+        mockMvc.perform(get("/task/v1/find-page")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("cursor"));
+    }
+
+    @Test
+    void findTaskPage_invalidStatus() throws Exception {
+        var errors = meterRegistry.counter("task.api.errors", "reason", "parameter_type", "status", "400");
+        double before = errors.count();
+
+        mockMvc.perform(get("/task/v1/find-page")
+                        .param("status", "invalid"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].field").value("status"));
+
+        assertThat(errors.count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void events_resumeFromLastEventId() throws Exception {
+        Mockito.when(taskEventStream.subscribe("1a2b-5")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/task/v1/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "1a2b-5"))
+                .andExpect(request().asyncStarted());
+
+        Mockito.verify(taskEventStream).subscribe("1a2b-5");
+    }
+
     @Test
     void deleteTask_success() throws Exception {
         Mockito.when(taskService.delete(1L)).thenReturn(true);
@@ -172,4 +682,56 @@ class TaskControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(content().string("false"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createTaskBatch_success() throws Exception {
+        TaskRequest request = new TaskRequest("Title", "Desc", Status.CREATED, DUE_DATE_TIME);
+        var results = List.of(
+                TaskBatchResult.builder().index(0).status(201).id(1L).build(),
+                TaskBatchResult.builder().index(1).status(400).build());
+
+        Mockito.when(taskService.createAll(anyList())).thenReturn(results);
+
+        mockMvc.perform(post("/task/v1/create-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(request, request))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[1].status").value(400));
+    }
+
+    @Test
+    void createTaskBatch_tooLarge() throws Exception {
+        TaskRequest request = new TaskRequest("Title", "Desc", Status.CREATED, DUE_DATE_TIME);
+
+        mockMvc.perform(post("/task/v1/create-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(request, request, request, request))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].message").value("Batch cannot exceed 3 items"));
+    }
+
+    @Test
+    void updateTaskBatch_success() throws Exception {
+        TaskRequest request = new TaskRequest("Title", "Desc", Status.CREATED, DUE_DATE_TIME);
+        Mockito.when(taskService.updateAll(anyList()))
+                .thenReturn(List.of(TaskBatchResult.builder().index(0).status(404).id(5L).build()));
+
+        mockMvc.perform(put("/task/v1/update-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(new TaskUpdateRequest(5L, request, null)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(404));
+    }
+
+    @Test
+    void deleteTaskBatch_internalServerError() throws Exception {
+        Mockito.when(taskService.deleteAll(List.of(1L, 2L))).thenThrow(new RuntimeException("DB error"));
+
+        mockMvc.perform(post("/task/v1/delete-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(status().isInternalServerError());
+    }
+}
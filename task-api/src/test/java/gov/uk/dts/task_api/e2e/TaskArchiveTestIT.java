@@ -0,0 +1,113 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.dto.TaskPageResponse;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.repository.TaskArchiveRepository;
+import gov.uk.dts.task_api.repository.TaskJobLeaseRepository;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.service.TaskArchiver;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "task.archive.enabled=true",
+        "task.archive.closed-for=30d",
+        "task.archive.chunk-size=4"
+})
+class TaskArchiveTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskArchiveRepository archiveRepository;
+
+    @Autowired
+    private TaskJobLeaseRepository leaseRepository;
+
+    @Autowired
+    private TaskArchiver archiver;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().minusDays(40);
+    private static final LocalDateTime CLOSED_AT = LocalDateTime.now().minusDays(35);
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        archiveRepository.deleteAll();
+        leaseRepository.deleteAll();
+    }
+
+    @Test
+    void archive_shouldMoveTasksClosedLongAgo() {
+        List<TaskDao> closed = taskRepository.saveAll(IntStream.rangeClosed(1, 10)
+                .mapToObj(i -> new TaskDao(null, "Closed Task - " + i, "Task description",
+                        i % 2 == 0 ? Status.COMPLETED : Status.CANCELLED, DUE_DATE_TIME.plusSeconds(i), CLOSED_AT, null))
+                .toList());
+        TaskDao recentlyClosed = taskRepository.save(new TaskDao(null, "Recent Task", null, Status.COMPLETED,
+                DUE_DATE_TIME, LocalDateTime.now().minusDays(1), null));
+        TaskDao open = taskRepository.save(new TaskDao(null, "Open Task", null, Status.IN_PROGRESS,
+                DUE_DATE_TIME, CLOSED_AT, null));
+
+        archiver.archive();
+
+        assertThat(archiveRepository.count()).isEqualTo(10);
+        assertThat(taskRepository.findAll()).extracting(TaskDao::getId)
+                .containsExactlyInAnyOrder(recentlyClosed.getId(), open.getId());
+
+        Long archivedId = closed.getFirst().getId();
+        assertThat(rest.getForEntity("/task/v1/find/" + archivedId, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        var archived = rest.getForEntity("/task/v1/archive/find/" + archivedId, TaskResponse.class);
+        assertThat(archived.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(archived.getBody().getTitle()).isEqualTo("Closed Task - 1");
+        assertThat(archived.getBody().getStatus()).isEqualTo(Status.CANCELLED);
+        assertThat(archived.getBody().getVersion()).isEqualTo(closed.getFirst().getVersion());
+    }
+
+    @Test
+    void findArchivedPage_shouldWalkArchiveInDueDateOrder() {
+        taskRepository.saveAll(IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> new TaskDao(null, "Closed Task - " + i, null, Status.COMPLETED,
+                        DUE_DATE_TIME.minusSeconds(i), CLOSED_AT, null))
+                .toList());
+        archiver.archive();
+
+        TaskPageResponse first = rest.getForObject("/task/v1/archive/find-page?size=3", TaskPageResponse.class);
+        TaskPageResponse second = rest.getForObject("/task/v1/archive/find-page?size=3&cursor={cursor}",
+                TaskPageResponse.class, first.getNextCursor());
+
+        assertThat(first.getTasks()).extracting(TaskResponse::getTitle)
+                .containsExactly("Closed Task - 5", "Closed Task - 4", "Closed Task - 3");
+        assertThat(second.getTasks()).extracting(TaskResponse::getTitle)
+                .containsExactly("Closed Task - 2", "Closed Task - 1");
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void archiveNotFound_shouldReturn404() {
+        assertThat(rest.getForEntity("/task/v1/archive/find/999999", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,96 @@
+package gov.uk.dts.task_api.e2e;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskUpdateRequest;
+import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskBatchTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void createTaskBatch_shouldPersistValidTasks() {
+        List<TaskRequest> requests = new ArrayList<>(IntStream.rangeClosed(1, 1200)
+                .mapToObj(i -> new TaskRequest("Test Task - " + i, "Task description", Status.CREATED, DUE_DATE_TIME))
+                .toList());
+        requests.set(10, new TaskRequest("", "Task description", Status.CREATED, DUE_DATE_TIME));
+
+        var response = rest.postForEntity("/task/v1/create-batch", requests, JsonNode.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().size()).isEqualTo(1200);
+        assertThat(response.getBody().get(10).get("status").asInt()).isEqualTo(400);
+        assertThat(response.getBody().get(10).get("errors").get(0).get("field").asText()).isEqualTo("title");
+        assertThat(response.getBody().get(11).get("status").asInt()).isEqualTo(201);
+        assertThat(response.getBody().get(11).get("task").get("title").asText()).isEqualTo("Test Task - 12");
+
+        assertThat(taskRepository.count()).isEqualTo(1199);
+    }
+
+    @Test
+    void updateAndDeleteTaskBatch_shouldReportEachItem() {
+        var saved = taskRepository.saveAll(List.of(
+                new TaskDao(null, "Test Task - 1", "Task description", Status.CREATED, DUE_DATE_TIME, null, null),
+                new TaskDao(null, "Test Task - 2", "Task description", Status.CREATED, DUE_DATE_TIME, null, null)));
+        Long firstId = saved.get(0).getId();
+        Long secondId = saved.get(1).getId();
+        var updated = new TaskRequest("Updated Test Task", "Updated description", Status.COMPLETED, DUE_DATE_TIME);
+
+        var updateResponse = rest.exchange("/task/v1/update-batch", HttpMethod.PUT,
+                new HttpEntity<>(List.of(new TaskUpdateRequest(firstId, updated, null), new TaskUpdateRequest(999_999L, updated, null))),
+                JsonNode.class);
+
+        assertThat(updateResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(updateResponse.getBody()).isNotNull();
+        assertThat(updateResponse.getBody().get(0).get("status").asInt()).isEqualTo(200);
+        assertThat(updateResponse.getBody().get(1).get("status").asInt()).isEqualTo(404);
+        assertThat(taskRepository.findById(firstId)).get()
+                .extracting(TaskDao::getTitle, TaskDao::getStatus)
+                .containsExactly("Updated Test Task", Status.COMPLETED);
+
+        var deleteResponse = rest.postForEntity("/task/v1/delete-batch", List.of(secondId, 999_999L), JsonNode.class);
+
+        assertThat(deleteResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(deleteResponse.getBody()).isNotNull();
+        assertThat(deleteResponse.getBody().get(0).get("status").asInt()).isEqualTo(200);
+        assertThat(deleteResponse.getBody().get(1).get("status").asInt()).isEqualTo(404);
+        assertThat(taskRepository.findAll())
+                .extracting(TaskDao::getId)
+                .containsExactly(firstId);
+    }
+}
@@ -0,0 +1,98 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.config.CacheConfig;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.service.TaskService;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskCacheTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @Test
+    void findTask_shouldNotReturnStaleTaskAfterUpdateOrDelete() {
+        var created = rest.postForEntity("/task/v1/create",
+                new TaskRequest("Test Task", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+        Long id = created.getBody().getId();
+
+        assertThat(rest.getForEntity("/task/v1/find/" + id, TaskResponse.class).getBody().getTitle()).isEqualTo("Test Task");
+        assertThat(cacheManager.getCache(CacheConfig.TASK_CACHE).get(id)).isNotNull();
+
+        rest.exchange("/task/v1/update/" + id, HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Updated Test Task", "Task description", Status.COMPLETED, DUE_DATE_TIME)),
+                TaskResponse.class);
+
+        var updated = rest.getForEntity("/task/v1/find/" + id, TaskResponse.class);
+        assertThat(updated.getBody())
+                .extracting(TaskResponse::getTitle, TaskResponse::getStatus)
+                .containsExactly("Updated Test Task", Status.COMPLETED);
+
+        rest.exchange("/task/v1/delete/" + id, HttpMethod.DELETE, null, Boolean.class);
+
+        assertThat(rest.getForEntity("/task/v1/find/" + id, TaskResponse.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void findTask_shouldSeeEveryWriteWhileConcurrentReadsRefillCache() throws Exception {
+        Long id = taskService.create(new TaskRequest("Version 0", "Task description", Status.CREATED, DUE_DATE_TIME)).getId();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(readers.submit(() -> {
+                while (running.get()) {
+                    taskService.getByTaskId(id);
+                }
+            }));
+        }
+
+        try {
+            for (int version = 1; version <= 200; version++) {
+                String title = "Version " + version;
+                taskService.update(new TaskRequest(title, "Task description", Status.IN_PROGRESS, DUE_DATE_TIME), id, null);
+                assertThat(taskService.getByTaskId(id)).get()
+                        .extracting(TaskResponse::getTitle)
+                        .isEqualTo(title);
+            }
+        } finally {
+            running.set(false);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            readers.shutdown();
+        }
+    }
+}
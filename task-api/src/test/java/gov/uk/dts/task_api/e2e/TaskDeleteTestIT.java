@@ -32,7 +32,7 @@ class TaskDeleteTestIT {
 
     @BeforeEach
     void setUp() {
-        TaskDao dao = new TaskDao(null, "Test Task", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME, null);
+        TaskDao dao = new TaskDao(null, "Test Task", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME, null, null);
         taskRepository.save(dao);
     }
 
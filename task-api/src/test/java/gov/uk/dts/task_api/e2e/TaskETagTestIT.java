@@ -0,0 +1,120 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskETagTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void findTask_shouldAnswerNotModifiedUntilTaskChanges() {
+        var created = rest.postForEntity("/task/v1/create",
+                new TaskRequest("Test Task", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+        Long id = created.getBody().getId();
+
+        var first = rest.getForEntity("/task/v1/find/" + id, TaskResponse.class);
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        var notModified = rest.exchange("/task/v1/find/" + id, HttpMethod.GET, conditional(etag), String.class);
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getBody()).isNull();
+
+        var updated = rest.exchange("/task/v1/update/" + id, HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Updated Test Task", "Task description", Status.COMPLETED, DUE_DATE_TIME)),
+                TaskResponse.class);
+        assertThat(updated.getBody().getVersion()).isEqualTo(first.getBody().getVersion() + 1);
+
+        var modified = rest.exchange("/task/v1/find/" + id, HttpMethod.GET, conditional(etag), TaskResponse.class);
+        assertThat(modified.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(modified.getHeaders().getETag()).isNotEqualTo(etag).isEqualTo(updated.getHeaders().getETag());
+        assertThat(modified.getBody().getTitle()).isEqualTo("Updated Test Task");
+    }
+
+    @Test
+    void findTaskPage_shouldAnswerNotModifiedUntilPageChanges() {
+        rest.postForEntity("/task/v1/create",
+                new TaskRequest("Test Task - 1", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+
+        var first = rest.getForEntity("/task/v1/find-page", String.class);
+        String etag = first.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+
+        var notModified = rest.exchange("/task/v1/find-page", HttpMethod.GET, conditional(etag), String.class);
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        rest.postForEntity("/task/v1/create",
+                new TaskRequest("Test Task - 2", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+
+        var modified = rest.exchange("/task/v1/find-page", HttpMethod.GET, conditional(etag), String.class);
+        assertThat(modified.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(modified.getBody()).contains("Test Task - 2");
+    }
+
+    @Test
+    void updateTask_shouldRejectStaleIfMatch() {
+        var created = rest.postForEntity("/task/v1/create",
+                new TaskRequest("Test Task", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+        Long id = created.getBody().getId();
+        String etag = rest.getForEntity("/task/v1/find/" + id, TaskResponse.class).getHeaders().getETag();
+
+        var first = rest.exchange("/task/v1/update/" + id, HttpMethod.PUT,
+                ifMatch(etag, new TaskRequest("First Writer", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME)),
+                TaskResponse.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getHeaders().getETag()).isNotEqualTo(etag);
+
+        var second = rest.exchange("/task/v1/update/" + id, HttpMethod.PUT,
+                ifMatch(etag, new TaskRequest("Second Writer", "Task description", Status.COMPLETED, DUE_DATE_TIME)),
+                TaskResponse.class);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        var current = rest.getForEntity("/task/v1/find/" + id, TaskResponse.class);
+        assertThat(current.getBody().getTitle()).isEqualTo("First Writer");
+        assertThat(current.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+    }
+
+    private static HttpEntity<TaskRequest> ifMatch(String etag, TaskRequest taskRequest) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(etag);
+        return new HttpEntity<>(taskRequest, headers);
+    }
+
+    private static HttpEntity<Void> conditional(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        return new HttpEntity<>(headers);
+    }
+}
@@ -0,0 +1,127 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.service.TaskEventStream;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskEventsTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskEventStream taskEventStream;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @Test
+    void events_shouldStreamCommittedChanges() throws Exception {
+        try (Stream<String> lines = open(null)) {
+            TaskResponse created = rest.postForObject("/task/v1/create",
+                    new TaskRequest("Streamed Task", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+            rest.delete("/task/v1/delete/" + created.getId());
+
+            List<String> events = read(lines, 2);
+            assertThat(events.get(0)).contains("event:created", "\"taskId\":" + created.getId(), "Streamed Task");
+            assertThat(events.get(1)).contains("event:deleted", "\"taskId\":" + created.getId());
+        }
+    }
+
+    @Test
+    void events_shouldResumeFromLastEventId() throws Exception {
+        String lastEventId;
+        try (Stream<String> lines = open(null)) {
+            rest.postForObject("/task/v1/create",
+                    new TaskRequest("First Task", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+            String event = read(lines, 1).getFirst();
+            lastEventId = event.substring("id:".length(), event.indexOf('\n'));
+        }
+        // created while the client is disconnected
+        rest.postForObject("/task/v1/create",
+                new TaskRequest("Missed Task", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+
+        try (Stream<String> lines = open(lastEventId)) {
+            String event = read(lines, 1).getFirst();
+            String epoch = lastEventId.substring(0, lastEventId.lastIndexOf('-') + 1);
+            long sequence = Long.parseLong(lastEventId.substring(epoch.length()));
+            assertThat(event).startsWith("id:" + epoch + (sequence + 1) + "\n").contains("Missed Task");
+        }
+    }
+
+    @Test
+    void events_shouldResetForLastEventIdFromBeforeRestart() throws Exception {
+        try (Stream<String> lines = open("0-1")) {
+            assertThat(read(lines, 1).getFirst()).contains("event:reset");
+        }
+    }
+
+    private Stream<String> open(String lastEventId) throws Exception {
+        int subscribers = taskEventStream.subscriberCount();
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/task/v1/events"))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        HttpResponse<Stream<String>> response = client.send(request.build(), HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                contentType -> assertThat(contentType).startsWith("text/event-stream"));
+        while (taskEventStream.subscriberCount() == subscribers) {
+            Thread.sleep(10);
+        }
+        return response.body();
+    }
+
+    /**
+     * Read whole events, skipping heartbeat comments
+     */
+    private static List<String> read(Stream<String> lines, int count) throws Exception {
+        Iterator<String> iterator = lines.iterator();
+        return CompletableFuture.supplyAsync(() -> {
+            List<String> events = new ArrayList<>();
+            StringBuilder event = new StringBuilder();
+            while (events.size() < count && iterator.hasNext()) {
+                String line = iterator.next();
+                if (!line.isEmpty()) {
+                    if (!line.startsWith(":")) {
+                        event.append(line).append('\n');
+                    }
+                } else if (!event.isEmpty()) {
+                    events.add(event.toString());
+                    event.setLength(0);
+                }
+            }
+            return events;
+        }).get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,144 @@
+package gov.uk.dts.task_api.e2e;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import gov.uk.dts.task_api.controller.TaskController;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskExportTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // at the precision db stores, H2 rounds anything finer
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MICROS);
+
+    @BeforeEach
+    void setUp() {
+        taskRepository.saveAll(IntStream.rangeClosed(1, 1200)
+                .mapToObj(i -> new TaskDao(null, "Test Task - " + i, "Task description", Status.CREATED, DUE_DATE_TIME, null, null))
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void exportTasks_shouldStreamEveryTaskAsNdjson() {
+
+        var response = rest.getForEntity("/task/v1/export", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        // one task per line, each line terminated
+        assertThat(response.getBody()).endsWith("}\n").doesNotContain("} {").doesNotContain("}{");
+
+        var tasks = Arrays.stream(response.getBody().split("\n"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, TaskResponse.class);
+                    } catch (Exception e) {
+                        throw new AssertionError(e);
+                    }
+                })
+                .toList();
+        assertThat(tasks).hasSize(1200);
+        assertThat(tasks.getFirst().getTitle()).isEqualTo("Test Task - 1");
+        assertThat(tasks.getLast().getTitle()).isEqualTo("Test Task - 1200");
+    }
+
+    @Test
+    void exportTasks_shouldStreamEveryTaskAsCborSequence() throws Exception {
+
+        var response = send("/task/v1/export", TaskController.APPLICATION_CBOR_SEQ_VALUE, null);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValue(TaskController.APPLICATION_CBOR_SEQ_VALUE);
+        List<TaskResponse> tasks = CBORMapper.builder().findAndAddModules().build()
+                .readerFor(TaskResponse.class).<TaskResponse>readValues(response.body()).readAll();
+        assertThat(tasks).hasSize(1200);
+        assertThat(tasks.getLast().getTitle()).isEqualTo("Test Task - 1200");
+        assertThat(tasks.getLast().getDueDateTime()).isEqualTo(DUE_DATE_TIME);
+    }
+
+    @Test
+    void exportTasks_shouldBeGzippedWhenAccepted() throws Exception {
+        var plain = send("/task/v1/export", TaskController.APPLICATION_NDJSON_VALUE, null);
+
+        var gzipped = send("/task/v1/export", TaskController.APPLICATION_NDJSON_VALUE, "gzip");
+
+        assertThat(plain.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        assertThat(gzipped.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(gzipped.body().length).isLessThan(plain.body().length / 4);
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain.body());
+        }
+    }
+
+    @Test
+    void findPage_shouldBeGzippedCborWhenAccepted() throws Exception {
+
+        var response = send("/task/v1/find-page?size=200", "application/cbor", "gzip");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(response.headers().allValues(HttpHeaders.VARY)).anySatisfy(vary -> assertThat(vary).containsIgnoringCase("accept"));
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            var page = CBORMapper.builder().findAndAddModules().build().readTree(in.readAllBytes());
+            assertThat(page.get("tasks").size()).isEqualTo(200);
+        }
+    }
+
+    /**
+     * Sent with the jdk client, which leaves the body as the server encoded it
+     */
+    private HttpResponse<byte[]> send(String path, String accept, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(rest.getRootUri() + path))
+                .header(HttpHeaders.ACCEPT, accept);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        }
+    }
+}
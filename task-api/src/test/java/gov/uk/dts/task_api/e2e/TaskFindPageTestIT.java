@@ -0,0 +1,91 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskFindPageTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.SECONDS);
+
+    @BeforeEach
+    void setUp() {
+        List<TaskDao> daoList = List.of(new TaskDao(null, "Test Task - 3", "Task description", Status.COMPLETED, DUE_DATE_TIME.plusHours(1), null, null),
+                new TaskDao(null, "Test Task - 1", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME, null, null),
+                new TaskDao(null, "Test Task - 2", "Task description", Status.CREATED, DUE_DATE_TIME, null, null),
+                new TaskDao(null, "Test Task - 4", "Task description", Status.CANCELLED, DUE_DATE_TIME.plusDays(1), null, null));
+        taskRepository.saveAll(daoList);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void findTaskPage_shouldWalkAllPagesInDueOrder() {
+
+        var first = rest.getForEntity("/task/v1/find-page?size=3", Map.class);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody()).isNotNull();
+        assertThat((List<?>) first.getBody().get("tasks"))
+                .extracting("title")
+                .containsExactly("Test Task - 1", "Test Task - 2", "Test Task - 3");
+
+        var second = rest.getForEntity("/task/v1/find-page?size=3&cursor={cursor}", Map.class, first.getBody().get("nextCursor"));
+
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getBody()).isNotNull();
+        assertThat((List<?>) second.getBody().get("tasks"))
+                .extracting("title")
+                .containsExactly("Test Task - 4");
+        assertThat(second.getBody().get("nextCursor")).isNull();
+    }
+
+    @Test
+    void findTaskPage_shouldFilterByStatusAndDueDate() {
+
+        var response = rest.getForEntity("/task/v1/find-page?status=CREATED&status=COMPLETED&status=CANCELLED&dueTo={dueTo}",
+                Map.class, DUE_DATE_TIME.plusDays(1));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat((List<?>) response.getBody().get("tasks"))
+                .extracting("title")
+                .containsExactly("Test Task - 2", "Test Task - 3");
+    }
+
+    @Test
+    void findTaskPage_shouldGiveValidationErrorForInvalidCursor() {
+
+        var response = rest.getForEntity("/task/v1/find-page?cursor=invalid", Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -33,10 +33,10 @@ class TaskFindTestIT {
 
     @BeforeEach
     void setUp() {
-        List<TaskDao> daoList = List.of(new TaskDao(null, "Test Task - 1", "Task description - 1", Status.IN_PROGRESS, DUE_DATE_TIME, null),
-                new TaskDao(null, "Test Task - 2", "Task description", Status.CREATED, DUE_DATE_TIME, null),
-                new TaskDao(null, "Test Task - 3", "Task description", Status.COMPLETED, DUE_DATE_TIME, null),
-                new TaskDao(null, "Test Task - 4", "Task description", Status.CANCELLED, DUE_DATE_TIME, null));
+        List<TaskDao> daoList = List.of(new TaskDao(null, "Test Task - 1", "Task description - 1", Status.IN_PROGRESS, DUE_DATE_TIME, null, null),
+                new TaskDao(null, "Test Task - 2", "Task description", Status.CREATED, DUE_DATE_TIME, null, null),
+                new TaskDao(null, "Test Task - 3", "Task description", Status.COMPLETED, DUE_DATE_TIME, null, null),
+                new TaskDao(null, "Test Task - 4", "Task description", Status.CANCELLED, DUE_DATE_TIME, null, null));
         taskRepository.saveAll(daoList);
     }
 
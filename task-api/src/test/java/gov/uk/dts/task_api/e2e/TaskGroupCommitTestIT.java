@@ -0,0 +1,105 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.handler.TaskIdempotencyHandler;
+import gov.uk.dts.task_api.repository.TaskIdempotencyKeyRepository;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "task.group-commit.enabled=true",
+        "task.group-commit.max-batch=16",
+        "task.group-commit.max-wait=20ms"
+})
+class TaskGroupCommitTestIT {
+
+    private static final int CREATES = 64;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskIdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCreates_shouldBeCommittedTogether() {
+        List<ResponseEntity<TaskResponse>> responses;
+        try (ExecutorService clients = Executors.newFixedThreadPool(16)) {
+            responses = IntStream.range(0, CREATES)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> rest.postForEntity("/task/v1/create",
+                            new TaskRequest("Grouped Task - " + i, null, Status.CREATED, DUE_DATE_TIME),
+                            TaskResponse.class), clients))
+                    .toList()
+                    .stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        }
+
+        assertThat(responses).allSatisfy(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED));
+        List<Long> ids = responses.stream().map(response -> response.getBody().getId()).toList();
+        assertThat(ids).doesNotHaveDuplicates().doesNotContainNull();
+        assertThat(taskRepository.findAllById(ids)).hasSize(CREATES);
+        var batchSize = meterRegistry.get("task.group-commit.batch.size").summary();
+        assertThat(batchSize.totalAmount()).isEqualTo(CREATES);
+        assertThat(batchSize.max()).isGreaterThan(1).isLessThanOrEqualTo(16);
+
+        var created = rest.getForEntity("/task/v1/find/" + ids.getFirst(), TaskResponse.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(created.getBody().getTitle()).isEqualTo(responses.getFirst().getBody().getTitle());
+    }
+
+    @Test
+    void keyedCreate_shouldReplayWithoutQueueing() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(TaskIdempotencyHandler.IDEMPOTENCY_KEY, "group-commit-key");
+        var request = new HttpEntity<>(new TaskRequest("Keyed Task", null, Status.CREATED, DUE_DATE_TIME), headers);
+
+        var first = rest.postForEntity("/task/v1/create", request, TaskResponse.class);
+        var retried = rest.postForEntity("/task/v1/create", request, TaskResponse.class);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retried.getHeaders().getFirst(TaskIdempotencyHandler.REPLAYED)).isEqualTo("true");
+        assertThat(retried.getBody().getId()).isEqualTo(first.getBody().getId());
+        assertThat(taskRepository.count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,76 @@
+package gov.uk.dts.task_api.e2e;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.repository.TaskIdempotencyKeyRepository;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        // keys expire while the test runs and are never purged by it
+        "task.idempotency.ttl=1s",
+        "task.idempotency.purge-interval=1h"
+})
+class TaskIdempotencyExpiryTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskIdempotencyKeyRepository idempotencyKeyRepository;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    void createTask_keyReusedAfterExpiryShouldRunAgain() throws InterruptedException {
+        var first = post("reused-1", new TaskRequest("Test Task", "Task description", Status.CREATED, DUE_DATE_TIME));
+        Thread.sleep(1500);
+
+        var reused = post("reused-1", new TaskRequest("Other Task", "Task description", Status.CREATED, DUE_DATE_TIME));
+        var retried = post("reused-1", new TaskRequest("Other Task", "Task description", Status.CREATED, DUE_DATE_TIME));
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        // the expired key is still stored, it is replaced rather than failing on the primary key
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(reused.getHeaders().containsKey("Idempotent-Replayed")).isFalse();
+        assertThat(reused.getBody().get("id")).isNotEqualTo(first.getBody().get("id"));
+        assertThat(retried.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retried.getBody().get("id")).isEqualTo(reused.getBody().get("id"));
+        assertThat(taskRepository.count()).isEqualTo(2);
+        assertThat(idempotencyKeyRepository.count()).isEqualTo(1);
+    }
+
+    private ResponseEntity<JsonNode> post(String key, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Idempotency-Key", key);
+        return rest.postForEntity("/task/v1/create", new HttpEntity<>(body, headers), JsonNode.class);
+    }
+}
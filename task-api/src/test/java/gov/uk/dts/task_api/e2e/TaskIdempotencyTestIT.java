@@ -0,0 +1,102 @@
+package gov.uk.dts.task_api.e2e;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.repository.TaskIdempotencyKeyRepository;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskIdempotencyTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskIdempotencyKeyRepository idempotencyKeyRepository;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    void createTask_retriedWithSameKeyShouldCreateOnce() {
+        TaskRequest request = new TaskRequest("Test Task", "Task description", Status.CREATED, DUE_DATE_TIME);
+
+        var first = post("/task/v1/create", "create-1", request);
+        var retried = post("/task/v1/create", "create-1", request);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retried.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retried.getBody().get("id")).isEqualTo(first.getBody().get("id"));
+        assertThat(taskRepository.count()).isEqualTo(1);
+        assertThat(idempotencyKeyRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void createTask_sameKeyDifferentRequestShouldBeRejected() {
+        post("/task/v1/create", "create-2", new TaskRequest("Test Task", "Task description", Status.CREATED, DUE_DATE_TIME));
+
+        var rejected = post("/task/v1/create", "create-2",
+                new TaskRequest("Other Task", "Task description", Status.CREATED, DUE_DATE_TIME));
+
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(rejected.getBody().get("errors").get(0).get("field").asText()).isEqualTo("Idempotency-Key");
+        assertThat(taskRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void createTaskBatch_concurrentDuplicatesShouldCreateOnce() {
+        List<TaskRequest> requests = IntStream.rangeClosed(1, 50)
+                .mapToObj(i -> new TaskRequest("Test Task - " + i, "Task description", Status.CREATED, DUE_DATE_TIME))
+                .toList();
+
+        List<ResponseEntity<JsonNode>> responses = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> post("/task/v1/create-batch", "batch-1", requests)))
+                .toList().stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        assertThat(responses).allSatisfy(response -> {
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody().size()).isEqualTo(50);
+        });
+        assertThat(responses).filteredOn(response -> response.getHeaders().containsKey("Idempotent-Replayed"))
+                .hasSize(3);
+        assertThat(taskRepository.count()).isEqualTo(50);
+    }
+
+    private ResponseEntity<JsonNode> post(String path, String key, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Idempotency-Key", key);
+        return rest.postForEntity(path, new HttpEntity<>(body, headers), JsonNode.class);
+    }
+}
@@ -0,0 +1,90 @@
+package gov.uk.dts.task_api.e2e;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "task.rate-limit.enabled=true",
+        "task.rate-limit.requests-per-second=0.01",
+        "task.rate-limit.burst=2"
+})
+class TaskLoadSheddingTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void clientOverRate_shouldBeShedWithRetryAfter() {
+        assertThat(findAll("203.0.113.1").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(findAll("203.0.113.1").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        var shed = findAll("203.0.113.1");
+
+        assertThat(shed.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(Long.parseLong(shed.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isPositive();
+        assertThat(findAll("203.0.113.2").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(rest.getForEntity(actuator("prometheus"), String.class).getBody())
+                .contains("task_api_shed_total{")
+                .contains("reason=\"rate_limited\"");
+    }
+
+    @Test
+    void limitsChangedAtRuntime_shouldApplyToNextRequest() {
+        findAll("203.0.113.3");
+        findAll("203.0.113.3");
+        assertThat(findAll("203.0.113.3").getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+
+        var updated = rest.postForEntity(actuator("ratelimits"), Map.of("requestsPerSecond", 1000, "burst", 1000), Map.class);
+
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(updated.getBody()).containsEntry("burst", 1000);
+        assertThat(findAll("203.0.113.3").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        var invalid = rest.postForEntity(actuator("ratelimits"), Map.of("burst", 0), String.class);
+        assertThat(invalid.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void ratelimits_shouldNotBeServedOnThePublicPort() {
+        var updated = rest.postForEntity("/actuator/ratelimits", Map.of("requestsPerSecond", 1000, "burst", 1000), String.class);
+
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(rest.getForObject(actuator("ratelimits"), Map.class)).containsEntry("burst", 2);
+    }
+
+    /**
+     * A request forwarded by a local proxy for the client address given
+     */
+    private ResponseEntity<String> findAll(String client) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("X-Forwarded-For", client);
+        return rest.exchange("/task/v1/find-all", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private String actuator(String endpoint) {
+        return "http://localhost:" + managementPort + "/actuator/" + endpoint;
+    }
+}
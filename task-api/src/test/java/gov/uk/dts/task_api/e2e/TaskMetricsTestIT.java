@@ -0,0 +1,68 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskMetricsTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void prometheus_shouldExposeEndpointRepositoryPoolCacheAndBatchMetrics() {
+        var created = rest.postForEntity("/task/v1/create",
+                new TaskRequest("Test Task", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+        rest.getForEntity("/task/v1/find/" + created.getBody().getId(), String.class);
+        rest.getForEntity("/task/v1/find-page?status=invalid", String.class);
+        rest.postForEntity("/task/v1/delete-batch", List.of(created.getBody().getId(), 999_999L), String.class);
+
+        var response = rest.getForEntity("http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/task/v1/find/{id}\"")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("method=\"save\"")
+                .contains("hikaricp_connections_active{")
+                .contains("task_db_permits_available{")
+                .contains("cache_gets_total{")
+                .contains("task_api_errors_total{")
+                .contains("task_batch_items_total{")
+                .contains("operation=\"delete\"");
+    }
+}
@@ -0,0 +1,162 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import gov.uk.dts.task_api.event.TaskEventSink;
+import gov.uk.dts.task_api.event.TaskOutboxMessage;
+import gov.uk.dts.task_api.repository.TaskOutboxRepository;
+import gov.uk.dts.task_api.utility.ETags;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.convention.TestBean;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+// own database, a relay in another cached test context would otherwise drain this outbox too
+@TestPropertySource(properties = {
+        "task.outbox.poll-interval=50ms",
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1;MODE=PostgreSQL"
+})
+class TaskOutboxTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskOutboxRepository outboxRepository;
+
+    @TestBean
+    private TaskEventSink taskEventSink;
+
+    private static final InMemoryTaskEventSink SINK = new InMemoryTaskEventSink();
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    static TaskEventSink taskEventSink() {
+        return SINK;
+    }
+
+    @BeforeEach
+    void setUp() {
+        await(() -> outboxRepository.count() == 0);
+        SINK.messages.clear();
+    }
+
+    @Test
+    void taskChanges_shouldBeRelayedToSink() {
+        var created = rest.postForEntity("/task/v1/create",
+                new TaskRequest("Outbox Task", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+        Long id = created.getBody().getId();
+        rest.exchange("/task/v1/update/" + id, HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Updated Outbox Task", "Task description", Status.COMPLETED, DUE_DATE_TIME)),
+                TaskResponse.class);
+        rest.delete("/task/v1/delete/" + id);
+
+        await(() -> SINK.messages.size() == 3);
+        assertThat(SINK.messages)
+                .extracting(TaskOutboxMessage::type, TaskOutboxMessage::taskId)
+                .containsExactly(
+                        tuple(TaskChangedEvent.Type.CREATED, id),
+                        tuple(TaskChangedEvent.Type.UPDATED, id),
+                        tuple(TaskChangedEvent.Type.DELETED, id));
+        assertThat(SINK.messages.get(1).payload()).contains("\"title\":\"Updated Outbox Task\"");
+        // the sink is handed the rows before the relay's delete commits
+        await(() -> outboxRepository.count() == 0);
+    }
+
+    @Test
+    void bulkCreate_shouldWriteOneOutboxRowPerTask() {
+        var requests = IntStream.rangeClosed(1, 1200)
+                .mapToObj(i -> new TaskRequest("Bulk Outbox Task - " + i, "Task description", Status.CREATED, DUE_DATE_TIME))
+                .toList();
+
+        var response = rest.postForEntity("/task/v1/create-batch", requests, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        await(() -> SINK.messages.size() == 1200);
+        assertThat(SINK.messages).extracting(TaskOutboxMessage::id).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void rejectedWrite_shouldNotReachOutbox() {
+        var created = rest.postForEntity("/task/v1/create",
+                new TaskRequest("Outbox Task", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+        await(() -> SINK.messages.size() == 1);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(ETags.of(created.getBody().getId(), 99L));
+        var response = rest.exchange("/task/v1/update/" + created.getBody().getId(), HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Stale Outbox Task", "Task description", Status.COMPLETED, DUE_DATE_TIME), headers),
+                TaskResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        await(() -> outboxRepository.count() == 0);
+        assertThat(SINK.messages).hasSize(1);
+    }
+
+    @Test
+    void sinkFailure_shouldRedeliverBatch() {
+        SINK.failures.set(2);
+
+        var created = rest.postForEntity("/task/v1/create",
+                new TaskRequest("Outbox Task", "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+
+        await(() -> SINK.messages.size() == 1);
+        assertThat(SINK.failures.get()).isZero();
+        assertThat(SINK.messages.getFirst().taskId()).isEqualTo(created.getBody().getId());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    /**
+     * Keeps relayed changes in memory, failing the next batches on request
+     */
+    static class InMemoryTaskEventSink implements TaskEventSink {
+
+        private final List<TaskOutboxMessage> messages = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public void publish(List<TaskOutboxMessage> batch) {
+            if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new IllegalStateException("Sink unavailable");
+            }
+            messages.addAll(batch);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.entity.TaskJobLeaseDao;
+import gov.uk.dts.task_api.repository.TaskJobLeaseRepository;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.service.OverdueTaskSweeper;
+import gov.uk.dts.task_api.service.TaskService;
+import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "task.sweeper.enabled=true",
+        "task.sweeper.interval=1h",
+        "task.sweeper.chunk-size=7",
+        "task.sweeper.concurrency=3"
+})
+class TaskOverdueSweepTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskJobLeaseRepository leaseRepository;
+
+    @Autowired
+    private OverdueTaskSweeper sweeper;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final LocalDateTime PAST_DUE_DATE_TIME = LocalDateTime.now().minusDays(1);
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        leaseRepository.deleteAll();
+    }
+
+    @Test
+    void sweep_shouldFlagOpenTasksPastDue() {
+        List<TaskDao> overdue = taskRepository.saveAll(IntStream.rangeClosed(1, 50)
+                .mapToObj(i -> new TaskDao(null, "Overdue Task - " + i, null,
+                        i % 2 == 0 ? Status.CREATED : Status.IN_PROGRESS, PAST_DUE_DATE_TIME.plusSeconds(i), null, null))
+                .toList());
+        TaskDao completed = taskRepository.save(new TaskDao(null, "Completed Task", null, Status.COMPLETED, PAST_DUE_DATE_TIME, null, null));
+        TaskDao notDue = taskRepository.save(new TaskDao(null, "Future Task", null, Status.CREATED, DUE_DATE_TIME, null, null));
+
+        sweeper.sweep();
+
+        assertThat(taskRepository.findAllById(overdue.stream().map(TaskDao::getId).toList()))
+                .allSatisfy(task -> {
+                    assertThat(task.getOverdueAt()).isNotNull();
+                    assertThat(task.getVersion()).isEqualTo(1L);
+                });
+        assertThat(taskRepository.findById(completed.getId()).orElseThrow().getOverdueAt()).isNull();
+        assertThat(taskRepository.findById(notDue.getId()).orElseThrow().getOverdueAt()).isNull();
+        assertThat(rest.getForObject("/task/v1/find/" + overdue.getFirst().getId(), TaskResponse.class).getOverdueAt())
+                .isNotNull();
+        assertThat(meterRegistry.get("task.sweeper.flagged").counter().count()).isGreaterThanOrEqualTo(50);
+
+        // nothing left to flag
+        double chunks = meterRegistry.get("task.sweeper.chunks").tag("result", "success").counter().count();
+        sweeper.sweep();
+        assertThat(meterRegistry.get("task.sweeper.chunks").tag("result", "success").counter().count()).isEqualTo(chunks);
+    }
+
+    @Test
+    void update_shouldClearOverdueFlag() {
+        TaskDao task = taskRepository.save(new TaskDao(null, "Overdue Task", null, Status.CREATED, PAST_DUE_DATE_TIME, null, null));
+        sweeper.sweep();
+
+        var response = rest.exchange("/task/v1/update/" + task.getId(), HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Rescheduled Task", null, Status.CREATED, DUE_DATE_TIME)), TaskResponse.class);
+
+        assertThat(response.getBody().getOverdueAt()).isNull();
+        assertThat(taskRepository.findById(task.getId()).orElseThrow().getOverdueAt()).isNull();
+    }
+
+    @Test
+    void update_shouldKeepOverdueFlagWhileStillPastDue() {
+        TaskDao task = taskRepository.save(new TaskDao(null, "Overdue Task", null, Status.CREATED, PAST_DUE_DATE_TIME, null, null));
+        sweeper.sweep();
+        LocalDateTime overdueAt = taskRepository.findById(task.getId()).orElseThrow().getOverdueAt();
+
+        // the api only accepts future due dates, so go through the service
+        var response = taskService.update(new TaskRequest("Started Task", null, Status.IN_PROGRESS, PAST_DUE_DATE_TIME),
+                task.getId(), null);
+
+        assertThat(response).get().extracting(TaskResponse::getOverdueAt).isEqualTo(overdueAt);
+        assertThat(taskRepository.findById(task.getId()).orElseThrow().getOverdueAt()).isEqualTo(overdueAt);
+
+        taskService.update(new TaskRequest("Completed Task", null, Status.COMPLETED, PAST_DUE_DATE_TIME), task.getId(), 2L);
+
+        assertThat(taskRepository.findById(task.getId()).orElseThrow().getOverdueAt()).isNull();
+    }
+
+    @Test
+    void sweep_shouldSkipWhileAnotherReplicaHoldsLease() {
+        leaseRepository.save(new TaskJobLeaseDao("overdue-sweeper", "other-replica", LocalDateTime.now().plusMinutes(5)));
+        TaskDao task = taskRepository.save(new TaskDao(null, "Overdue Task", null, Status.CREATED, PAST_DUE_DATE_TIME, null, null));
+
+        sweeper.sweep();
+
+        assertThat(taskRepository.findById(task.getId()).orElseThrow().getOverdueAt()).isNull();
+        assertThat(leaseRepository.findById("overdue-sweeper").orElseThrow().getOwner()).isEqualTo("other-replica");
+    }
+}
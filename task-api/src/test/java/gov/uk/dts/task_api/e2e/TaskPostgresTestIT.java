@@ -0,0 +1,227 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.dto.TaskPageResponse;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.repository.TaskArchiveRepository;
+import gov.uk.dts.task_api.repository.TaskJobLeaseRepository;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.service.OverdueTaskSweeper;
+import gov.uk.dts.task_api.service.TaskArchiver;
+import gov.uk.dts.task_api.utility.Status;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The application on an embedded postgres with the schema built by the flyway migrations rather than from the
+ * entities, and checked against them, so a migration that breaks the indexes, generated columns or partitions
+ * fails here rather than on deploy.
+ */
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "task.search.index=postgres",
+        "task.sweeper.enabled=true",
+        "task.sweeper.interval=1h",
+        "task.archive.enabled=true",
+        "task.archive.interval=1h",
+        "task.archive.manage-partitions=true",
+        "task.archive.closed-for=30d"
+})
+class TaskPostgresTestIT {
+
+    // stopped by its shutdown hook, after the context and its pool are closed
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskArchiveRepository archiveRepository;
+
+    @Autowired
+    private TaskJobLeaseRepository leaseRepository;
+
+    @Autowired
+    private OverdueTaskSweeper sweeper;
+
+    @Autowired
+    private TaskArchiver archiver;
+
+    // at the precision postgres stores
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MICROS);
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        archiveRepository.deleteAll();
+        leaseRepository.deleteAll();
+    }
+
+    @Test
+    void migrations_shouldAllBeApplied() {
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(Arrays.stream(flyway.info().applied()).map(migration -> migration.getState()))
+                .isNotEmpty()
+                .allMatch(state -> state == MigrationState.SUCCESS);
+    }
+
+    @Test
+    void task_shouldBeCreatedUpdatedSearchedAndDeleted() {
+        var created = rest.postForEntity("/task/v1/create",
+                new TaskRequest("Renew passport", "Book a photo appointment", Status.CREATED, DUE_DATE_TIME),
+                TaskResponse.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Long id = created.getBody().getId();
+
+        var found = rest.getForEntity("/task/v1/find/" + id, TaskResponse.class);
+        assertThat(found.getBody().getDueDateTime()).isEqualTo(DUE_DATE_TIME);
+        HttpHeaders ifMatch = new HttpHeaders();
+        ifMatch.setIfMatch(found.getHeaders().getETag());
+
+        var updated = rest.exchange("/task/v1/update/" + id, HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Renewing passports", null, Status.IN_PROGRESS, DUE_DATE_TIME), ifMatch),
+                TaskResponse.class);
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        var stale = rest.exchange("/task/v1/update/" + id, HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Lost update", null, Status.IN_PROGRESS, DUE_DATE_TIME), ifMatch),
+                TaskResponse.class);
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        // stemmed by the search_vector generated column
+        assertThat(rest.getForObject("/task/v1/search?q=renew passport", TaskPageResponse.class).getTasks())
+                .extracting(TaskResponse::getId).containsExactly(id);
+        assertThat(rest.getForObject("/task/v1/find-page?status=IN_PROGRESS", TaskPageResponse.class).getTasks())
+                .extracting(TaskResponse::getTitle).containsExactly("Renewing passports");
+
+        rest.exchange("/task/v1/delete/" + id, HttpMethod.DELETE, null, Boolean.class);
+        assertThat(rest.getForEntity("/task/v1/find/" + id, String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void sweepAndArchive_shouldRunOnPartitionedTasks() {
+        TaskDao overdue = taskRepository.save(new TaskDao(null, "Overdue Task", null, Status.CREATED,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().minusDays(2), null));
+        TaskDao closed = taskRepository.save(new TaskDao(null, "Closed Task", null, Status.COMPLETED,
+                LocalDateTime.now().minusDays(40), LocalDateTime.now().minusDays(35), null));
+
+        sweeper.sweep();
+        archiver.archive();
+
+        assertThat(taskRepository.findById(overdue.getId())).get()
+                .extracting(TaskDao::getOverdueAt).isNotNull();
+        assertThat(taskRepository.findById(closed.getId())).isEmpty();
+        assertThat(archiveRepository.findById(closed.getId())).isPresent();
+        // the archiver keeps a year ahead partitioned, so new tasks rarely land in tasks_future
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_class WHERE relname = 'tasks_p' || to_char(now() + INTERVAL '12 months', 'YYYYMM')",
+                Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void createPartitions_shouldAttachEmptyMonthsAndLeaveTasksDueFurtherOutInTasksFuture() {
+        archiver.archive();
+        TaskDao later = taskRepository.save(new TaskDao(null, "Much Later Task", null, Status.CREATED,
+                LocalDateTime.now().plusMonths(20), LocalDateTime.now(), null));
+        assertThat(partitionOf(later.getId())).isEqualTo("tasks_future");
+
+        int created = jdbcTemplate.queryForObject("SELECT task_create_partitions(24)", Integer.class);
+
+        // every month up to two years ahead but the one holding the task, which is left where it is
+        assertThat(created).isEqualTo(11);
+        assertThat(partitionOf(later.getId())).isEqualTo("tasks_future");
+        assertThat(jdbcTemplate.queryForObject("SELECT pg_get_expr(relpartbound, oid) FROM pg_class"
+                + " WHERE relname = 'tasks_future'", String.class)).isEqualTo("DEFAULT");
+        assertThat(rest.getForEntity("/task/v1/find/" + later.getId(), TaskResponse.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void updateAndDelete_shouldCountTheStateTheStatementReplaced() {
+        Long id = rest.postForEntity("/task/v1/create",
+                new TaskRequest("Renew passport", null, Status.CREATED, DUE_DATE_TIME), TaskResponse.class).getBody().getId();
+        String partition = partitionOf(id);
+        Map<String, Number> before = statusCounts();
+
+        var moved = rest.exchange("/task/v1/update/" + id, HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Renew passport", null, Status.IN_PROGRESS, DUE_DATE_TIME.plusMonths(2))),
+                TaskResponse.class);
+        assertThat(moved.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(moved.getBody().getVersion()).isEqualTo(1L);
+        assertThat(partitionOf(id)).isNotEqualTo(partition);
+        Map<String, Number> updated = statusCounts();
+        assertThat(count(updated, "CREATED")).isEqualTo(count(before, "CREATED") - 1);
+        assertThat(count(updated, "IN_PROGRESS")).isEqualTo(count(before, "IN_PROGRESS") + 1);
+
+        assertThat(rest.exchange("/task/v1/delete/" + id, HttpMethod.DELETE, null, Boolean.class).getBody()).isTrue();
+        assertThat(taskRepository.findById(id)).isEmpty();
+        assertThat(count(statusCounts(), "IN_PROGRESS")).isEqualTo(count(before, "IN_PROGRESS"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Number> statusCounts() {
+        return (Map<String, Number>) rest.getForObject("/task/v1/stats", Map.class).get("counts");
+    }
+
+    private static long count(Map<String, Number> counts, String status) {
+        return counts.getOrDefault(status, 0).longValue();
+    }
+
+    private String partitionOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM tasks WHERE id = ?", String.class, id);
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.config.CacheConfig;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.dto.TaskUpdateRequest;
+import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.repository.TaskIdempotencyKeyRepository;
+import gov.uk.dts.task_api.repository.TaskJobLeaseRepository;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@AutoConfigureObservability(tracing = false)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskQueryCacheTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskJobLeaseRepository leaseRepository;
+
+    @Autowired
+    private TaskIdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.SECONDS);
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        leaseRepository.deleteAll();
+        idempotencyKeyRepository.deleteAll();
+    }
+
+    @Test
+    void tasks_shouldNotBeCachedAsEntities() {
+        Long id = create("Test Task");
+
+        assertThat(taskRepository.findById(id)).isPresent();
+
+        assertThat(entityManagerFactory.getCache().contains(TaskDao.class, id)).isFalse();
+    }
+
+    @Test
+    void findPage_shouldStayCachedWhenALeaseOrIdempotencyKeyIsStored() {
+        create("Test Task");
+        assertThat(titles()).containsExactly("Test Task");
+
+        leaseRepository.create("test-lease", "test-owner", LocalDateTime.now().plusMinutes(1));
+        transactionTemplate.executeWithoutResult(status -> idempotencyKeyRepository.create("test-key", "create:test",
+                201, "{}", LocalDateTime.now().plusMinutes(1)));
+
+        double hits = hits(CacheConfig.TASK_PAGE_REGION);
+        assertThat(titles()).containsExactly("Test Task");
+        assertThat(hits(CacheConfig.TASK_PAGE_REGION)).isGreaterThan(hits);
+    }
+
+    @Test
+    void updateBatch_shouldCheckVersionsWrittenElsewhere() {
+        Long id = create("Test Task");
+        // written by another replica
+        jdbcTemplate.update("UPDATE tasks SET title = 'Updated elsewhere', version = 1 WHERE id = ?", id);
+
+        var response = rest.exchange("/task/v1/update-batch", HttpMethod.PUT, new HttpEntity<>(List.of(
+                new TaskUpdateRequest(id, new TaskRequest("Updated Test Task", null, Status.IN_PROGRESS, DUE_DATE_TIME), 1L))),
+                List.class);
+
+        assertThat(response.getBody()).extracting(result -> ((Map<?, ?>) result).get("status")).containsExactly(200);
+    }
+
+    @Test
+    void findPage_shouldBeServedFromQueryCacheUntilUpdatedOrDeleted() {
+        Long first = create("Test Task - 1");
+        Long second = create("Test Task - 2");
+
+        assertThat(titles()).containsExactly("Test Task - 1", "Test Task - 2");
+        double hits = hits(CacheConfig.TASK_PAGE_REGION);
+        assertThat(titles()).containsExactly("Test Task - 1", "Test Task - 2");
+        assertThat(hits(CacheConfig.TASK_PAGE_REGION)).isGreaterThan(hits);
+
+        rest.exchange("/task/v1/update/" + first, HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Updated Test Task - 1", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME)),
+                TaskResponse.class);
+
+        assertThat(titles()).containsExactly("Updated Test Task - 1", "Test Task - 2");
+
+        rest.exchange("/task/v1/delete/" + second, HttpMethod.DELETE, null, Boolean.class);
+
+        assertThat(titles()).containsExactly("Updated Test Task - 1");
+    }
+
+    @Test
+    void prometheus_shouldExposeRegionStatistics() {
+        create("Test Task");
+        titles();
+        titles();
+
+        var response = rest.getForEntity("http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .containsPattern("cache_gets_total\\{.*cache=\"" + CacheConfig.TASK_PAGE_REGION + "\",cache_manager=\"hibernateCacheManager\",result=\"hit\"}")
+                .containsPattern("cache_puts_total\\{.*cache=\"" + CacheConfig.TASK_PAGE_REGION + "\"");
+    }
+
+    private Long create(String title) {
+        return rest.postForEntity("/task/v1/create",
+                new TaskRequest(title, "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class).getBody().getId();
+    }
+
+    private List<Object> titles() {
+        var response = rest.getForEntity("/task/v1/find-page?status=CREATED&status=IN_PROGRESS", Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return ((List<?>) response.getBody().get("tasks")).stream().<Object>map(task -> ((Map<?, ?>) task).get("title")).toList();
+    }
+
+    private double hits(String region) {
+        return meterRegistry.get("cache.gets").tag("cache", region).tag("result", "hit").functionCounter().count();
+    }
+}
@@ -0,0 +1,205 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.config.CacheConfig;
+import gov.uk.dts.task_api.config.ReadReplicaPinningFilter;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.service.TaskStatistics;
+import gov.uk.dts.task_api.utility.Status;
+import jakarta.persistence.EntityManagerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two H2 databases stand in for the primary and a replica, replication is a copy of the primary taken on demand
+ */
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=" + TaskReadReplicaTestIT.PRIMARY_URL,
+        "task.db.replica.urls=" + TaskReadReplicaTestIT.REPLICA_URL,
+        "task.db.replica.primary-after-write=1m"
+})
+class TaskReadReplicaTestIT {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TaskStatistics taskStatistics;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        replicate();
+    }
+
+    @Test
+    void read_shouldBeServedByReplica() throws SQLException {
+        var created = create("Replica Task");
+
+        assertThat(findAll(null).getBody()).extracting("title").doesNotContain("Replica Task");
+
+        replicate();
+        assertThat(findAll(null).getBody()).extracting("title").contains("Replica Task");
+        assertThat(created.getHeaders().getFirst(ReadReplicaPinningFilter.PRIMARY_UNTIL_HEADER)).isNotNull();
+    }
+
+    @Test
+    void readAfterWrite_shouldBeServedByPrimary() {
+        var created = create("Pinned Task");
+        String primaryUntil = created.getHeaders().getFirst(ReadReplicaPinningFilter.PRIMARY_UNTIL_HEADER);
+
+        var response = findAll(primaryUntil);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).extracting("title").contains("Pinned Task");
+    }
+
+    @Test
+    void expiredPin_shouldReadReplicaAgain() {
+        create("Expired Pin Task");
+
+        assertThat(findAll(Long.toString(System.currentTimeMillis() - 1)).getBody())
+                .extracting("title").doesNotContain("Expired Pin Task");
+    }
+
+    @Test
+    void replicaRead_shouldNotBeCached() throws SQLException {
+        var created = create("Cached Task");
+        String primaryUntil = created.getHeaders().getFirst(ReadReplicaPinningFilter.PRIMARY_UNTIL_HEADER);
+        Long id = created.getBody().getId();
+        replicate();
+        entityManagerFactory.getCache().evictAll();
+        double puts = puts(CacheConfig.TASK_PAGE_REGION);
+
+        assertThat(find("/task/v1/find/" + id, null).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(find("/task/v1/find-page?status=CREATED", null).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(cacheManager.getCache(CacheConfig.TASK_CACHE).get(id)).isNull();
+        assertThat(puts(CacheConfig.TASK_PAGE_REGION)).isEqualTo(puts);
+
+        find("/task/v1/find/" + id, primaryUntil);
+        find("/task/v1/find-page?status=CREATED", primaryUntil);
+
+        assertThat(cacheManager.getCache(CacheConfig.TASK_CACHE).get(id)).isNotNull();
+        assertThat(puts(CacheConfig.TASK_PAGE_REGION)).isGreaterThan(puts);
+    }
+
+    @Test
+    void replicaRead_shouldBeServedFromTheCache() {
+        var created = create("Cached Task");
+        String primaryUntil = created.getHeaders().getFirst(ReadReplicaPinningFilter.PRIMARY_UNTIL_HEADER);
+        Long id = created.getBody().getId();
+        find("/task/v1/find/" + id, primaryUntil);
+        double hits = taskCacheHits();
+
+        // the replica has not caught up with the create, only the cache holds the task
+        var response = find("/task/v1/find/" + id, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("Cached Task");
+        assertThat(taskCacheHits()).isGreaterThan(hits);
+    }
+
+    @Test
+    void statisticsReconcile_shouldReadThePrimary() {
+        create("Counted Task");
+        long total = taskStatistics.get().getTotal();
+
+        // the replica has not caught up with the create, reconciling from it would drop the task
+        taskStatistics.reconcile();
+
+        assertThat(taskStatistics.get().getTotal()).isEqualTo(total);
+    }
+
+    private ResponseEntity<TaskResponse> create(String title) {
+        var response = rest.postForEntity("/task/v1/create",
+                new TaskRequest(title, "Task description", Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return response;
+    }
+
+    private ResponseEntity<List> findAll(String primaryUntil) {
+        return rest.exchange("/task/v1/find-all", HttpMethod.GET, new HttpEntity<>(headers(primaryUntil)), List.class);
+    }
+
+    private ResponseEntity<String> find(String url, String primaryUntil) {
+        return rest.exchange(url, HttpMethod.GET, new HttpEntity<>(headers(primaryUntil)), String.class);
+    }
+
+    private static HttpHeaders headers(String primaryUntil) {
+        HttpHeaders headers = new HttpHeaders();
+        if (primaryUntil != null) {
+            headers.add(ReadReplicaPinningFilter.PRIMARY_UNTIL_HEADER, primaryUntil);
+        }
+        return headers;
+    }
+
+    private double taskCacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", CacheConfig.TASK_CACHE).tag("result", "hit").functionCounter().count();
+    }
+
+    private double puts(String region) {
+        return meterRegistry.get("cache.puts").tag("cache", region).functionCounter().count();
+    }
+
+    /**
+     * Replace the replica with a copy of the primary
+     */
+    private static void replicate() throws SQLException {
+        List<String> script = new ArrayList<>();
+        try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement statement = primary.createStatement();
+             ResultSet statements = statement.executeQuery("SCRIPT")) {
+            while (statements.next()) {
+                script.add(statements.getString(1));
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.dto.TaskPageResponse;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskSearchTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @AfterEach
+    void tearDown() {
+        // through the api so the search index sees the deletes
+        taskRepository.findAll().forEach(task -> rest.delete("/task/v1/delete/" + task.getId()));
+    }
+
+    @Test
+    void search_shouldPageCommittedTasksByRank() {
+        create("Renew passport", "Book a photo appointment");
+        create("Book photo appointment", "Needed to renew the passport");
+        create("Renew Passport", null);
+        create("Buy milk", null);
+
+        var first = rest.getForEntity("/task/v1/search?q=passport&size=2", TaskPageResponse.class);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getBody().getTasks())
+                .extracting(TaskResponse::getTitle)
+                .containsExactly("Renew passport", "Renew Passport");
+        var next = rest.getForObject("/task/v1/search?q=passport&size=2&cursor=" + first.getBody().getNextCursor(),
+                TaskPageResponse.class);
+        assertThat(next.getTasks())
+                .extracting(TaskResponse::getTitle)
+                .containsExactly("Book photo appointment");
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    void search_shouldFollowUpdatesAndDeletes() {
+        TaskResponse renamed = create("Renew passport", null);
+        TaskResponse deleted = create("Passport photo", null);
+
+        rest.exchange("/task/v1/update/" + renamed.getId(), HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Renew licence", null, Status.CREATED, DUE_DATE_TIME)), TaskResponse.class);
+        rest.delete("/task/v1/delete/" + deleted.getId());
+
+        assertThat(rest.getForObject("/task/v1/search?q=passport", TaskPageResponse.class).getTasks()).isEmpty();
+        assertThat(rest.getForObject("/task/v1/search?q=licence", TaskPageResponse.class).getTasks())
+                .extracting(TaskResponse::getId)
+                .containsExactly(renamed.getId());
+    }
+
+    @Test
+    void search_shouldRejectMissingText() {
+        var response = rest.getForEntity("/task/v1/search", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private TaskResponse create(String title, String description) {
+        return rest.postForObject("/task/v1/create",
+                new TaskRequest(title, description, Status.CREATED, DUE_DATE_TIME), TaskResponse.class);
+    }
+}
@@ -0,0 +1,89 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.dto.TaskStatsResponse;
+import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.service.TaskStatistics;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TaskStatsTestIT {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskStatistics taskStatistics;
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        taskStatistics.reconcile();
+    }
+
+    @Test
+    void stats_shouldFollowTaskChanges() {
+        TaskResponse created = create(Status.CREATED);
+        create(Status.IN_PROGRESS);
+        TaskResponse deleted = create(Status.IN_PROGRESS);
+        rest.exchange("/task/v1/update/" + created.getId(), HttpMethod.PUT,
+                new HttpEntity<>(new TaskRequest("Done Task", null, Status.COMPLETED, DUE_DATE_TIME)), TaskResponse.class);
+        rest.delete("/task/v1/delete/" + deleted.getId());
+
+        TaskStatsResponse stats = rest.getForObject("/task/v1/stats", TaskStatsResponse.class);
+
+        assertThat(stats.getCounts())
+                .containsEntry(Status.CREATED, 0L)
+                .containsEntry(Status.IN_PROGRESS, 1L)
+                .containsEntry(Status.COMPLETED, 1L);
+        assertThat(stats.getTotal()).isEqualTo(2);
+        assertThat(stats.getOverdue()).isZero();
+
+        taskStatistics.reconcile();
+        assertThat(rest.getForObject("/task/v1/stats", TaskStatsResponse.class).getCounts())
+                .isEqualTo(stats.getCounts());
+    }
+
+    @Test
+    void stats_shouldCountRowsWrittenOutsideTheApiOnceReconciled() {
+        create(Status.CREATED);
+        taskRepository.save(new TaskDao(null, "Imported Task", null, Status.IN_PROGRESS,
+                LocalDateTime.now().minusDays(1), null, null));
+
+        assertThat(rest.getForObject("/task/v1/stats", TaskStatsResponse.class).getTotal()).isEqualTo(1);
+
+        taskStatistics.reconcile();
+
+        TaskStatsResponse stats = rest.getForObject("/task/v1/stats", TaskStatsResponse.class);
+        assertThat(stats.getTotal()).isEqualTo(2);
+        assertThat(stats.getOverdue()).isEqualTo(1);
+        assertThat(stats.getReconciledAt()).isNotNull();
+    }
+
+    private TaskResponse create(Status status) {
+        return rest.postForObject("/task/v1/create",
+                new TaskRequest("Stats Task", "Task description", status, DUE_DATE_TIME), TaskResponse.class);
+    }
+}
@@ -0,0 +1,205 @@
+package gov.uk.dts.task_api.e2e;
+
+import gov.uk.dts.task_api.TaskApiApplication;
+import gov.uk.dts.task_api.config.ConcurrencyLimitedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs platform and virtual thread request execution under a burst of slow database requests.
+ * Each statement is delayed to model a busy Postgres, then cached reads are sent while the slow
+ * requests queue for a database permit. Both modes have to answer every request, without the Hikari
+ * pool ever timing out a borrower and with every permit handed back. Timings are logged for comparison
+ * but not asserted on.
+ */
+class TaskThreadModeLoadTestIT {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskThreadModeLoadTestIT.class);
+
+    private static final Duration STATEMENT_LATENCY = Duration.ofMillis(200);
+    private static final int SLOW_REQUESTS = 400;
+    private static final int CACHED_REQUESTS = 20;
+    private static final int TOMCAT_THREADS = 200;
+
+    @Test
+    void bothThreadModes_shouldServeEveryRequestWithoutExhaustingThePool() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        for (Result result : List.of(platform, virtual)) {
+            log.info("{} threads: elapsed {} ms, slow errors {}, slow p99 {} ms, cached p50 {} ms, cached p99 {} ms",
+                    result.mode(), result.elapsed().toMillis(), result.slowErrors(), result.slowP99(),
+                    result.cachedP50(), result.cachedP99());
+        }
+
+        assertThat(List.of(platform, virtual)).allSatisfy(result -> {
+            assertThat(result.slowErrors()).isZero();
+            // permits are sized to the pool, so the queue forms in front of it rather than inside it
+            assertThat(result.poolTimeouts()).isZero();
+            assertThat(result.permitsLeaked()).isZero();
+        });
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TaskApiApplication.class, SlowDatabaseConfig.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "--spring.jpa.show-sql=false",
+                        // find-page has to reach the slow database every time
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "--task.db.acquire-timeout=60s");
+             // async client so the load generator stays light and never competes for virtual thread carriers
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .build()) {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/task/v1";
+            String taskId = createTask(client, baseUrl);
+            for (int i = 0; i < CACHED_REQUESTS * 10; i++) {
+                send(client, baseUrl + "/find/" + taskId);
+            }
+
+            DataSource dataSource = context.getBean(DataSource.class);
+            ConcurrencyLimitedDataSource limiter = dataSource.unwrap(ConcurrencyLimitedDataSource.class);
+            int maxPoolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+
+            long start = System.nanoTime();
+            List<CompletableFuture<Call>> slow = new ArrayList<>();
+            for (int i = 0; i < SLOW_REQUESTS; i++) {
+                slow.add(sendAsync(client, baseUrl + "/find-page"));
+            }
+            // send the cached reads once the slow requests occupy every platform request thread
+            while (limiter.waitingRequests() < TOMCAT_THREADS - maxPoolSize) {
+                Thread.sleep(10);
+            }
+            List<Call> cachedCalls = new ArrayList<>();
+            for (int i = 0; i < CACHED_REQUESTS; i++) {
+                cachedCalls.add(send(client, baseUrl + "/find/" + taskId));
+            }
+
+            List<Call> slowCalls = slow.stream().map(CompletableFuture::join).toList();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            assertThat(cachedCalls).allMatch(call -> call.status() == 200);
+
+            return new Result(virtualThreads ? "virtual" : "platform", elapsed,
+                    slowCalls.stream().filter(call -> call.status() != 200).count(),
+                    (long) context.getBean(MeterRegistry.class).get("hikaricp.connections.timeout").counter().count(),
+                    maxPoolSize - permitsReturned(limiter, maxPoolSize),
+                    percentile(slowCalls, 99), percentile(cachedCalls, 50), percentile(cachedCalls, 99));
+        }
+    }
+
+    /**
+     * Permits free once background jobs that might hold one have let go, at most a few seconds after the burst
+     */
+    private static int permitsReturned(ConcurrencyLimitedDataSource limiter, int maxPoolSize) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (limiter.availablePermits() < maxPoolSize && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return limiter.availablePermits();
+    }
+
+    private static String createTask(HttpClient client, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/create"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"title\":\"Load Task\",\"status\":\"CREATED\",\"dueDateTime\":\"2099-01-01T10:00:00\"}"))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        return body.replaceAll(".*\"id\":(\\d+).*", "$1");
+    }
+
+    private static Call send(HttpClient client, String url) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                HttpResponse.BodyHandlers.discarding());
+        return new Call(response.statusCode(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static CompletableFuture<Call> sendAsync(HttpClient client, String url) {
+        long start = System.nanoTime();
+        return client.sendAsync(HttpRequest.newBuilder(URI.create(url)).build(), HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> new Call(response.statusCode(), (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private static long percentile(List<Call> calls, int percentile) {
+        List<Long> millis = new ArrayList<>(calls.stream().map(Call::millis).toList());
+        Collections.sort(millis);
+        return millis.get(Math.max(0, (int) Math.ceil(percentile / 100.0 * millis.size()) - 1));
+    }
+
+    private record Call(int status, long millis) {
+    }
+
+    private record Result(String mode, Duration elapsed, long slowErrors, long poolTimeouts, int permitsLeaked,
+                          long slowP99, long cachedP50, long cachedP99) {
+    }
+
+    @Configuration
+    static class SlowDatabaseConfig {
+
+        /**
+         * Delay every statement, blocking the calling thread the same way a socket read on a busy database would
+         */
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return new DelegatingDataSource(dataSource) {
+                            @Override
+                            public Connection getConnection() throws SQLException {
+                                return slow(super.getConnection());
+                            }
+                        };
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static Connection slow(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare")) {
+                            Thread.sleep(STATEMENT_LATENCY.toMillis());
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
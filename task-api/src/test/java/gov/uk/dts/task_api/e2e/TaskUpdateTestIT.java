@@ -35,7 +35,7 @@ class TaskUpdateTestIT {
 
     @BeforeEach
     void setUp() {
-        TaskDao dao = new TaskDao(null, "Test Task", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME, null);
+        TaskDao dao = new TaskDao(null, "Test Task", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME, null, null);
         taskRepository.save(dao);
     }
 
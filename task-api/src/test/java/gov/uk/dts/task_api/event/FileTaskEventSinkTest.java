@@ -0,0 +1,39 @@
+package gov.uk.dts.task_api.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileTaskEventSinkTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void publishTest_appendsOneLinePerMessage() throws IOException {
+        Path file = dir.resolve("task-events.ndjson");
+        FileTaskEventSink underTest = new FileTaskEventSink(file, new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+        underTest.publish(List.of(new TaskOutboxMessage(1L, TaskChangedEvent.Type.DELETED, 100L,
+                "{\"type\":\"DELETED\",\"taskId\":100,\"task\":null}", createdAt)));
+        underTest.publish(List.of(new TaskOutboxMessage(2L, TaskChangedEvent.Type.DELETED, 101L,
+                "{\"type\":\"DELETED\",\"taskId\":101,\"task\":null}", createdAt)));
+
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "{\"id\":1,\"type\":\"DELETED\",\"taskId\":100,\"payload\":{\"type\":\"DELETED\",\"taskId\":100,\"task\":null},\"createdAt\":\"2026-01-01T10:00:00\"}",
+                "{\"id\":2,\"type\":\"DELETED\",\"taskId\":101,\"payload\":{\"type\":\"DELETED\",\"taskId\":101,\"task\":null},\"createdAt\":\"2026-01-01T10:00:00\"}");
+    }
+}
@@ -0,0 +1,235 @@
+package gov.uk.dts.task_api.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import gov.uk.dts.task_api.config.TaskIdempotencyProperties;
+import gov.uk.dts.task_api.entity.TaskIdempotencyKeyDao;
+import gov.uk.dts.task_api.repository.TaskIdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskIdempotencyHandlerTest {
+
+    private final TaskIdempotencyKeyRepository repository = mock(TaskIdempotencyKeyRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskIdempotencyHandler underTest = new TaskIdempotencyHandler(repository,
+            new TaskIdempotencyProperties(Duration.ofHours(1), Duration.ofHours(1), 100, Duration.ofSeconds(5)),
+            new TransactionTemplate(transactionManager), new ObjectMapper().registerModule(new JavaTimeModule()),
+            meterRegistry);
+    private final AtomicInteger runs = new AtomicInteger();
+    private final MockHttpServletRequest client = client("10.0.0.1");
+
+    private static final String KEY = TaskIdempotencyHandler.scopedKey("10.0.0.1", "key-1");
+
+    {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(repository.findUnexpired(anyString(), any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void executeTest_withoutKeyRunsEveryTime() {
+        underTest.execute(client, null, "create", Map.of("title", "a"), this::created);
+        underTest.execute(client, null, "create", Map.of("title", "a"), this::created);
+
+        assertThat(runs).hasValue(2);
+        verify(repository, never()).create(anyString(), anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    void executeTest_replaysStoredResponse() {
+        ResponseEntity<?> first = underTest.execute(client, "key-1", "create", Map.of("title", "a"), this::created);
+
+        ResponseEntity<?> replayed = underTest.execute(client, "key-1", "create", Map.of("title", "a"), this::created);
+
+        assertThat(runs).hasValue(1);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(first.getHeaders().containsKey(TaskIdempotencyHandler.REPLAYED)).isFalse();
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(replayed.getBody()).isEqualTo("{\"id\":1}");
+        assertThat(replayed.getHeaders().getFirst(TaskIdempotencyHandler.REPLAYED)).isEqualTo("true");
+        verify(repository).create(eq(KEY), anyString(), eq(201), eq("{\"id\":1}"), any());
+        assertThat(meterRegistry.counter("task.idempotency.replays", "operation", "create").count()).isEqualTo(1);
+    }
+
+    @Test
+    void executeTest_replaysResponseStoredByAnotherReplica() {
+        when(repository.findUnexpired(eq(KEY), any())).thenReturn(Optional.of(storedElsewhere()));
+
+        ResponseEntity<?> replayed = underTest.execute(client, "key-1", "create", Map.of("title", "a"), this::created);
+
+        assertThat(runs).hasValue(0);
+        assertThat(replayed.getBody()).isEqualTo("{\"id\":7}");
+    }
+
+    @Test
+    void executeTest_differentRequestWithSameKeyIsRejected() {
+        underTest.execute(client, "key-1", "create", Map.of("title", "a"), this::created);
+
+        ResponseEntity<?> rejected = underTest.execute(client, "key-1", "create", Map.of("title", "b"), this::created);
+        ResponseEntity<?> otherEndpoint = underTest.execute(client, "key-1", "createBatch", Map.of("title", "a"), this::created);
+
+        assertThat(runs).hasValue(1);
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(rejected.getBody()).isInstanceOf(ValidationError.class);
+        assertThat(otherEndpoint.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void executeTest_failureIsNotStored() {
+        ResponseEntity<?> failed = underTest.execute(client, "key-1", "create", Map.of("title", "a"), () -> {
+            runs.incrementAndGet();
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        });
+
+        ResponseEntity<?> retried = underTest.execute(client, "key-1", "create", Map.of("title", "a"), this::created);
+
+        assertThat(failed.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(runs).hasValue(2);
+        // the real transaction manager rolls back a status marked rollback only instead of committing it
+        verify(transactionManager).commit(argThat(TransactionStatus::isRollbackOnly));
+        verify(repository, times(1)).create(anyString(), anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    void executeTest_keyStoredConcurrentlyByAnotherReplicaIsReplayed() {
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(repository).create(anyString(), anyString(), anyInt(), any(), any());
+        when(repository.findUnexpired(eq(KEY), any()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(storedElsewhere()));
+
+        ResponseEntity<?> replayed = underTest.execute(client, "key-1", "create", Map.of("title", "a"), this::created);
+
+        assertThat(replayed.getBody()).isEqualTo("{\"id\":7}");
+        assertThat(replayed.getHeaders().getFirst(TaskIdempotencyHandler.REPLAYED)).isEqualTo("true");
+    }
+
+    @Test
+    void executeTest_sameKeyFromAnotherClientRunsAgain() {
+        ResponseEntity<?> first = underTest.execute(client, "key-1", "create", Map.of("title", "a"), this::created);
+
+        ResponseEntity<?> other = underTest.execute(client("10.0.0.2"), "key-1", "create", Map.of("title", "a"),
+                this::created);
+
+        assertThat(runs).hasValue(2);
+        assertThat(first.getBody()).isEqualTo(Map.of("id", 1));
+        assertThat(other.getBody()).isEqualTo(Map.of("id", 2));
+        assertThat(other.getHeaders().containsKey(TaskIdempotencyHandler.REPLAYED)).isFalse();
+    }
+
+    @Test
+    void executeTest_otherKeysDoNotWaitForARequestInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<?>> slow = executor.submit(() -> underTest.execute(client, "key-1", "create",
+                    Map.of("title", "a"), () -> {
+                        started.countDown();
+                        await(release);
+                        return created();
+                    }));
+            started.await();
+
+            // answered while key-1 is still running, whatever stripe its key would have hashed to
+            for (int i = 0; i < 100; i++) {
+                assertThat(underTest.execute(client, "key-" + (i + 2), "create", Map.of("title", "a"), this::created)
+                        .getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            }
+            release.countDown();
+
+            assertThat(slow.get().getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executeTest_concurrentDuplicatesRunOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ResponseEntity<?>> first = executor.submit(() -> underTest.execute(client, "key-1", "create",
+                    Map.of("title", "a"), () -> {
+                        started.countDown();
+                        await(release);
+                        return created();
+                    }));
+            started.await();
+            List<Future<ResponseEntity<?>>> duplicates = List.of(
+                    executor.submit(() -> underTest.execute(client, "key-1", "create", Map.of("title", "a"), this::created)),
+                    executor.submit(() -> underTest.execute(client, "key-1", "create", Map.of("title", "a"), this::created)));
+            release.countDown();
+
+            assertThat(first.get().getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            for (Future<ResponseEntity<?>> duplicate : duplicates) {
+                assertThat(duplicate.get().getBody()).isEqualTo("{\"id\":1}");
+            }
+            assertThat(runs).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ResponseEntity<?> created() {
+        return new ResponseEntity<>(Map.of("id", runs.incrementAndGet()), HttpStatus.CREATED);
+    }
+
+    /**
+     * Response another replica stored for the same create request
+     */
+    private TaskIdempotencyKeyDao storedElsewhere() {
+        return new TaskIdempotencyKeyDao(KEY, underTest.fingerprint("create", Map.of("title", "a")), 201,
+                "{\"id\":7}", LocalDateTime.now().plusHours(1));
+    }
+
+    private static MockHttpServletRequest client(String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(address);
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
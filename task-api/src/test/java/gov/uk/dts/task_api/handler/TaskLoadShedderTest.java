@@ -0,0 +1,158 @@
+package gov.uk.dts.task_api.handler;
+
+import gov.uk.dts.task_api.config.TaskRateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskLoadShedderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final long[] now = {0};
+    private final TaskLoadShedder underTest = new TaskLoadShedder(
+            new TaskRateLimitProperties(true, 2, 3, 2, Map.of("export", 1), 100),
+            meterRegistry, () -> now[0]);
+
+    @Test
+    void preHandleTest_rateLimitsClientAfterBurst() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(handle("10.0.0.1", "findAll").allowed).isTrue();
+        }
+
+        Handled shed = handle("10.0.0.1", "findAll");
+
+        assertThat(shed.allowed).isFalse();
+        assertThat(shed.response.getStatus()).isEqualTo(429);
+        assertThat(shed.response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(meterRegistry.counter("task.api.shed", "endpoint", "findAll", "reason", "rate_limited").count()).isEqualTo(1);
+        // other clients have their own bucket
+        assertThat(handle("10.0.0.2", "findAll").allowed).isTrue();
+    }
+
+    @Test
+    void preHandleTest_keysOnWhoTheServerSeesRatherThanAHeader() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/task/v1/findAll");
+            request.setRemoteAddr("10.0.0.1");
+            // a client choosing its own id cannot spread its requests over several buckets
+            request.addHeader("X-Client-Id", "client-" + i);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            assertThat(underTest.preHandle(request, response, handler("findAll"))).isTrue();
+            underTest.afterCompletion(request, response, handler("findAll"), null);
+        }
+        assertThat(handle("10.0.0.1", "findAll").allowed).isFalse();
+
+        MockHttpServletRequest authenticated = new MockHttpServletRequest("GET", "/task/v1/findAll");
+        authenticated.setRemoteAddr("10.0.0.1");
+        authenticated.setUserPrincipal(() -> "caseworker");
+        assertThat(underTest.preHandle(authenticated, new MockHttpServletResponse(), handler("findAll"))).isTrue();
+    }
+
+    @Test
+    void preHandleTest_refillsAtRate() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            handle("10.0.0.1", "findAll");
+        }
+        assertThat(handle("10.0.0.1", "findAll").allowed).isFalse();
+
+        now[0] += TimeUnit.MILLISECONDS.toNanos(500);
+
+        assertThat(handle("10.0.0.1", "findAll").allowed).isTrue();
+        assertThat(handle("10.0.0.1", "findAll").allowed).isFalse();
+    }
+
+    @Test
+    void preHandleTest_shedsEndpointOverConcurrencyLimit() throws Exception {
+        Handled first = start("10.0.0.1", "export");
+
+        Handled shed = start("10.0.0.2", "export");
+
+        assertThat(first.allowed).isTrue();
+        assertThat(shed.allowed).isFalse();
+        assertThat(shed.response.getStatus()).isEqualTo(503);
+        assertThat(shed.response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(meterRegistry.counter("task.api.shed", "endpoint", "export", "reason", "overloaded").count()).isEqualTo(1);
+        // other endpoints use the default limit
+        assertThat(start("10.0.0.2", "findAll").allowed).isTrue();
+
+        underTest.afterCompletion(first.request, first.response, handler("export"), null);
+        assertThat(start("10.0.0.2", "export").allowed).isTrue();
+    }
+
+    @Test
+    void preHandleTest_asyncDispatchKeepsPermit() throws Exception {
+        Handled first = start("10.0.0.1", "export");
+        first.request.setDispatcherType(DispatcherType.ASYNC);
+
+        assertThat(underTest.preHandle(first.request, first.response, handler("export"))).isTrue();
+        assertThat(start("10.0.0.2", "export").allowed).isFalse();
+
+        underTest.afterCompletion(first.request, first.response, handler("export"), null);
+        underTest.afterCompletion(first.request, first.response, handler("export"), null);
+        assertThat(start("10.0.0.2", "export").allowed).isTrue();
+        assertThat(start("10.0.0.3", "export").allowed).isFalse();
+    }
+
+    @Test
+    void updateTest_appliesToNextRequest() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            handle("10.0.0.1", "findAll");
+        }
+        TaskLoadShedder.Limits limits = underTest.limits();
+
+        underTest.update(new TaskLoadShedder.Limits(false, limits.requestsPerSecond(), limits.burst(),
+                limits.maxConcurrent(), limits.endpointMaxConcurrent()));
+
+        assertThat(handle("10.0.0.1", "findAll").allowed).isTrue();
+    }
+
+    /**
+     * A request that completes before the next one starts
+     */
+    private Handled handle(String client, String endpoint) throws IOException {
+        Handled handled = start(client, endpoint);
+        if (handled.allowed) {
+            underTest.afterCompletion(handled.request, handled.response, handler(endpoint), null);
+        }
+        return handled;
+    }
+
+    /**
+     * A request still in progress
+     */
+    private Handled start(String client, String endpoint) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/task/v1/" + endpoint);
+        request.setRemoteAddr(client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        return new Handled(request, response, underTest.preHandle(request, response, handler(endpoint)));
+    }
+
+    private static HandlerMethod handler(String endpoint) {
+        try {
+            return new HandlerMethod(new Endpoints(), endpoint);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private record Handled(MockHttpServletRequest request, MockHttpServletResponse response, boolean allowed) {
+    }
+
+    static class Endpoints {
+
+        public void findAll() {
+        }
+
+        public void export() {
+        }
+    }
+}
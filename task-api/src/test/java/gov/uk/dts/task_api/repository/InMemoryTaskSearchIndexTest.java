@@ -0,0 +1,79 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.dto.TaskSearchCursor;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import gov.uk.dts.task_api.utility.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryTaskSearchIndexTest {
+
+    private final InMemoryTaskSearchIndex underTest = new InMemoryTaskSearchIndex(
+            Mockito.mock(TaskRepository.class), Mockito.mock(TransactionTemplate.class));
+
+    @BeforeEach
+    void setUp() {
+        index(1L, "Renew passport", "Book a photo appointment");
+        index(2L, "Book photo appointment", "Needed to renew the passport");
+        index(3L, "Renew Passport", null);
+        index(4L, "Buy milk", "Renew nothing");
+    }
+
+    @Test
+    void searchTest_titleMatchesRankFirst() {
+        assertThat(underTest.search("passport renew", null, 10))
+                .extracting(TaskSearchHit::id)
+                .containsExactly(1L, 3L, 2L);
+    }
+
+    @Test
+    void searchTest_requiresEveryWord() {
+        assertThat(underTest.search("renew milk", null, 10))
+                .extracting(TaskSearchHit::id)
+                .containsExactly(4L);
+        assertThat(underTest.search("renew unknown", null, 10)).isEmpty();
+        assertThat(underTest.search("!!", null, 10)).isEmpty();
+    }
+
+    @Test
+    void searchTest_pagesFromCursor() {
+        List<TaskSearchHit> first = underTest.search("renew passport", null, 2);
+        TaskSearchHit last = first.getLast();
+
+        List<TaskSearchHit> next = underTest.search("renew passport", new TaskSearchCursor(last.rank(), last.id()), 2);
+
+        assertThat(first).extracting(TaskSearchHit::id).containsExactly(1L, 3L);
+        assertThat(next).extracting(TaskSearchHit::id).containsExactly(2L);
+    }
+
+    @Test
+    void onTaskChangedTest_reindexesAndRemovesTasks() {
+        index(1L, "Buy bread", null);
+        underTest.onTaskChanged(TaskChangedEvent.deleted(3L));
+
+        assertThat(underTest.search("passport", null, 10))
+                .extracting(TaskSearchHit::id)
+                .containsExactly(2L);
+        assertThat(underTest.search("buy", null, 10))
+                .extracting(TaskSearchHit::id)
+                .containsExactly(1L, 4L);
+    }
+
+    private void index(Long id, String title, String description) {
+        underTest.onTaskChanged(TaskChangedEvent.updated(TaskResponse.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .status(Status.CREATED)
+                .dueDateTime(LocalDateTime.of(2099, 1, 1, 10, 0))
+                .build()));
+    }
+}
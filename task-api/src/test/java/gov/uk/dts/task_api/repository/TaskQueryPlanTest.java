@@ -0,0 +1,310 @@
+package gov.uk.dts.task_api.repository;
+
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.dto.TaskFilter;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.dto.TaskSearchCursor;
+import gov.uk.dts.task_api.utility.Status;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the flyway migrations on an embedded postgres and checks the listing, sweep, archive and search queries are
+ * served by an index and only read the tasks partitions they need. The sql explained is the sql the repositories
+ * send, captured from hibernate, and it is planned as the generic plan a cached prepared statement gets, so bound
+ * values cannot steer the planner the way literals would. Sequential scans are disabled for the session so the
+ * planner only picks one when no index fits.
+ */
+@DirtiesContext
+@DataJpaTest(properties = {
+        // migrated and seeded before the context starts
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "gov.uk.dts.task_api.repository.TaskQueryPlanTest$CapturedSql"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TaskQueryPlanTest {
+
+    // stopped by its shutdown hook, after the context and its pool are closed
+    private static final EmbeddedPostgres POSTGRES = migrate();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    // a node sorting rows, the partitions are merged in index order under the Sort Key of a Merge Append since
+    // tasks_future became the default partition (V11), but no rows are sorted
+    private static final String SORT_NODE = "(?m)^\\s*(->  )?Sort  \\(";
+
+    private static final LocalDateTime FEBRUARY = LocalDateTime.of(2026, 2, 1, 0, 0);
+    private static final LocalDateTime MARCH = LocalDateTime.of(2026, 3, 1, 0, 0);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private static EmbeddedPostgres migrate() {
+        try {
+            EmbeddedPostgres postgres = EmbeddedPostgres.start();
+            Flyway.configure()
+                    .dataSource(postgres.getPostgresDatabase())
+                    .load()
+                    .migrate();
+            try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("""
+                        INSERT INTO tasks (title, status, due_date_time)
+                        SELECT 'Task ' || n, (ARRAY['CREATED', 'IN_PROGRESS', 'CANCELLED', 'COMPLETED'])[n % 4 + 1],
+                               TIMESTAMP '2026-01-01' + n * INTERVAL '1 hour'
+                        FROM generate_series(1, 5000) AS n""");
+                statement.execute("""
+                        INSERT INTO tasks (title, description, status, due_date_time) VALUES
+                        ('Renew passport', 'Book a photo appointment', 'CREATED', TIMESTAMP '2026-01-01'),
+                        ('Book photo appointment', 'Needed to renew the passport', 'CREATED', TIMESTAMP '2026-01-02'),
+                        ('Renewing passports for the team', NULL, 'CREATED', TIMESTAMP '2026-01-03')""");
+                statement.execute("ANALYZE tasks");
+            }
+            return postgres;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void firstPage_usesIndexOrder() throws SQLException {
+        String plan = explain(() -> taskRepository.findPage(TaskFilter.none(), null, 51), 51);
+        assertThat(plan).doesNotContain("Seq Scan").doesNotContainPattern(SORT_NODE);
+    }
+
+    @Test
+    void nextPage_usesIndexOrder() throws SQLException {
+        String plan = explain(() -> taskRepository.findPage(TaskFilter.none(), new TaskCursor(MARCH, 1000L), 51),
+                MARCH, MARCH, 1000, 51);
+        assertThat(plan).doesNotContain("Seq Scan").doesNotContainPattern(SORT_NODE);
+    }
+
+    @Test
+    void openStatusPage_usesPartialIndex() throws SQLException {
+        String plan = explain(() -> taskRepository.findPage(
+                new TaskFilter(List.of(Status.IN_PROGRESS, Status.CREATED), null, null), null, 51), 51);
+        assertThat(plan).contains("idx_tasks_open_due_date_time_id").doesNotContainPattern(SORT_NODE);
+    }
+
+    @Test
+    void singleStatusPage_usesStatusIndex() throws SQLException {
+        String plan = explain(() -> taskRepository.findPage(
+                new TaskFilter(List.of(Status.COMPLETED), FEBRUARY, MARCH), null, 51), FEBRUARY, MARCH, 51);
+        assertThat(plan).doesNotContain("Seq Scan").doesNotContainPattern(SORT_NODE);
+    }
+
+    @Test
+    void closedStatusesPage_doesNotScanTable() throws SQLException {
+        String plan = explain(() -> taskRepository.findPage(
+                new TaskFilter(List.copyOf(Status.CLOSED), null, null), null, 51), 51);
+        assertThat(plan).doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void export_usesPrimaryKeyOrder() throws SQLException {
+        String plan = explain(() -> {
+            try (Stream<TaskResponse> tasks = taskRepository.streamAllResponses()) {
+                tasks.findFirst();
+            }
+        });
+        // the partitions are merged in id order from their primary keys, no rows are sorted
+        assertThat(plan).doesNotContain("Seq Scan").doesNotContainPattern("(?m)^\\s*(->  )?Sort  \\(");
+    }
+
+    @Test
+    void dueDateRangePage_readsOnlyItsPartitions() throws SQLException {
+        String plan = explain(() -> taskRepository.findPage(new TaskFilter(null, FEBRUARY, MARCH), null, 51),
+                FEBRUARY, MARCH, 51);
+        // a generic plan cannot prune while planning, the other months are removed when it starts executing
+        assertThat(plan).contains("tasks_p202602").doesNotContain("tasks_p202601").doesNotContain("tasks_p202603");
+    }
+
+    @Test
+    void archive_usesClosedIndex() throws SQLException {
+        LocalDateTime closedBefore = LocalDateTime.of(2026, 1, 1, 0, 0);
+        String plan = explain(() -> taskRepository.findArchivable(closedBefore, 500), closedBefore, 500);
+        assertThat(plan).contains("idx_tasks_closed_updated_at_id").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void partitions_areAddedAheadAndFoldedIntoPastOnceEmpty() throws SQLException {
+        try (Connection connection = POSTGRES.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            // past the year ahead the migration partitioned, lands in tasks_future
+            statement.execute("""
+                    INSERT INTO tasks (title, status, due_date_time)
+                    VALUES ('Far future', 'CREATED', date_trunc('month', now()) + INTERVAL '14 months 1 day')""");
+
+            // months 13, 15 and 16 are attached empty, month 14 holds the task and is left to tasks_future
+            assertThat(queryInt(statement, "SELECT task_create_partitions(16)")).isEqualTo(3);
+            assertThat(queryInt(statement, """
+                    SELECT count(*) FROM tasks WHERE title = 'Far future' AND tableoid::regclass::text = 'tasks_future'""")).isEqualTo(1);
+            assertThat(queryInt(statement, "SELECT task_create_partitions(16)")).isZero();
+
+            // nothing is folded until the bound of tasks_past is validated, the attach would scan tasks_past
+            assertThat(queryInt(statement, "SELECT task_drop_empty_partitions(DATE '2026-06-01')")).isZero();
+            statement.execute("ALTER TABLE tasks_past VALIDATE CONSTRAINT tasks_past_bound");
+
+            // the oldest months hold no tasks, folding stops at the first month that does
+            assertThat(queryInt(statement, "SELECT task_drop_empty_partitions(DATE '2026-06-01')")).isEqualTo(3);
+            assertThat(queryInt(statement, """
+                    SELECT count(*) FROM pg_constraint WHERE conname = 'tasks_past_bound' AND NOT convalidated
+                    AND pg_get_constraintdef(oid) LIKE '%2026-01-01%'""")).isEqualTo(1);
+            assertThat(queryInt(statement, "SELECT count(*) FROM pg_class WHERE relname = 'tasks_p202512'")).isZero();
+            assertThat(queryInt(statement, "SELECT count(*) FROM pg_class WHERE relname = 'tasks_p202601'")).isEqualTo(1);
+            assertThat(queryInt(statement, "SELECT count(*) FROM tasks WHERE due_date_time = TIMESTAMP '2025-12-15'"))
+                    .isZero();
+            statement.execute("INSERT INTO tasks (title, status, due_date_time) VALUES ('Old', 'COMPLETED', TIMESTAMP '2025-12-15')");
+            statement.execute("DELETE FROM tasks WHERE title IN ('Far future', 'Old')");
+        }
+    }
+
+    private static int queryInt(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    @Test
+    void overdueSweep_usesUnflaggedIndex() throws SQLException {
+        try (Connection connection = POSTGRES.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            // earlier sweeps flagged most of the overdue tasks, they drop out of the index
+            statement.execute("""
+                    UPDATE tasks SET overdue_at = TIMESTAMP '2026-06-01'
+                    WHERE status IN ('CREATED', 'IN_PROGRESS') AND due_date_time < TIMESTAMP '2026-05-01'""");
+            statement.execute("ANALYZE tasks");
+        }
+        LocalDateTime dueBefore = LocalDateTime.of(2026, 6, 1, 0, 0);
+        TaskCursor after = new TaskCursor(LocalDateTime.of(2026, 5, 2, 0, 0), 2900L);
+        String plan = explain(() -> taskRepository.findUnflaggedOverdue(dueBefore, after, 500),
+                dueBefore, after.dueDateTime(), after.dueDateTime(), after.id(), 500);
+        assertThat(plan).contains("idx_tasks_unflagged_open_due_date_time_id").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void search_usesSearchVectorIndex() throws SQLException {
+        // sent by jdbc rather than hibernate, the placeholders are the ones the index binds
+        String plan = explain(PostgresTaskSearchIndex.SEARCH_SQL.replace(":text", "?")
+                + "ORDER BY rank DESC, id LIMIT ?", "passport", 51);
+        assertThat(plan).contains("idx_tasks_search_vector").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void search_ranksTitleMatchesFirstAndPagesByRank() {
+        var index = new PostgresTaskSearchIndex(new NamedParameterJdbcTemplate(POSTGRES.getPostgresDatabase()));
+
+        List<TaskSearchHit> hits = index.search("renew passport", null, 2);
+        // stemmed, so renewing passports matches too
+        assertThat(hits).hasSize(2);
+        assertThat(hits.get(0).rank()).isGreaterThanOrEqualTo(hits.get(1).rank());
+
+        TaskSearchHit last = hits.getLast();
+        List<TaskSearchHit> next = index.search("renew passport", new TaskSearchCursor(last.rank(), last.id()), 2);
+        assertThat(next).hasSize(1);
+        // only matched in the description
+        assertThat(next.getFirst().rank()).isLessThan(last.rank());
+    }
+
+    /**
+     * Generic plan of the last statement the query sent through hibernate
+     */
+    private static String explain(Runnable query, Object... values) throws SQLException {
+        CapturedSql.STATEMENTS.clear();
+        query.run();
+        assertThat(CapturedSql.STATEMENTS).isNotEmpty();
+        return explain(CapturedSql.STATEMENTS.getLast(), values);
+    }
+
+    /**
+     * Generic plan of the query, the one a prepared statement gets once postgres caches it. Index scans on a
+     * partition are named after the index on tasks they were created from.
+     *
+     * @param sql - query with a ? for each value
+     * @param values - values of the parameters in order, executed with the plan
+     */
+    private static String explain(String sql, Object... values) throws SQLException {
+        AtomicInteger parameters = new AtomicInteger();
+        String prepared = Pattern.compile("\\?").matcher(sql).replaceAll(match -> "\\$" + parameters.incrementAndGet());
+        assertThat(parameters.get()).as(sql).isEqualTo(values.length);
+        try (Connection connection = POSTGRES.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            statement.execute("SET plan_cache_mode = force_generic_plan");
+            statement.execute("PREPARE query AS " + prepared);
+            String execute = values.length == 0 ? "" : Arrays.stream(values)
+                    .map(value -> value instanceof Number ? value.toString() : "'" + value + "'")
+                    .collect(Collectors.joining(", ", "(", ")"));
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery("EXPLAIN EXECUTE query" + execute)) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            Map<String, String> parents = new HashMap<>();
+            try (ResultSet resultSet = statement.executeQuery("""
+                    SELECT c.relname, p.relname FROM pg_inherits i
+                    JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent
+                    WHERE c.relkind = 'i'""")) {
+                while (resultSet.next()) {
+                    parents.put(resultSet.getString(1), resultSet.getString(2));
+                }
+            }
+            return Pattern.compile("(?<= on | using )(\\w+)").matcher(plan)
+                    .replaceAll(match -> parents.getOrDefault(match.group(1), match.group(1)));
+        }
+    }
+
+    /**
+     * Keeps the sql hibernate sends, configured by class name so hibernate creates it
+     */
+    public static class CapturedSql implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.TaskSweeperProperties;
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.repository.TaskJobLeaseRepository;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.repository.TaskState;
+import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OverdueTaskSweeperTest {
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final TaskService taskService = mock(TaskService.class);
+    private final TaskJobLeaseRepository leaseRepository = mock(TaskJobLeaseRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OverdueTaskSweeper underTest = new OverdueTaskSweeper(taskRepository, taskService, leaseRepository,
+            new TaskSweeperProperties(true, Duration.ofMinutes(1), 2, 2, Duration.ofMinutes(5)), meterRegistry);
+
+    @Test
+    void sweepTest_flagsEveryChunkInKeysetOrder() {
+        when(leaseRepository.acquire(eq(OverdueTaskSweeper.LEASE), any(), any(), any())).thenReturn(1);
+        when(taskRepository.findUnflaggedOverdue(any(), isNull(), eq(2))).thenReturn(chunk(1, 2));
+        when(taskRepository.findUnflaggedOverdue(any(), eq(new TaskCursor(DUE_DATE_TIME, 2L)), eq(2))).thenReturn(chunk(3, 4));
+        when(taskRepository.findUnflaggedOverdue(any(), eq(new TaskCursor(DUE_DATE_TIME, 4L)), eq(2))).thenReturn(chunk(5, 5));
+        when(taskService.flagOverdue(anyList(), any())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+        doThrow(new IllegalStateException("deadlock")).when(taskService).flagOverdue(eq(List.of(3L, 4L)), any());
+
+        underTest.sweep();
+
+        verify(taskService).flagOverdue(eq(List.of(1L, 2L)), any());
+        verify(taskService).flagOverdue(eq(List.of(5L)), any());
+        assertThat(meterRegistry.get("task.sweeper.flagged").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("task.sweeper.chunks").tag("result", "success").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("task.sweeper.chunks").tag("result", "failure").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("task.sweeper.runs").tag("result", "completed").counter().count()).isEqualTo(1);
+        verify(leaseRepository).release(eq(OverdueTaskSweeper.LEASE), any(), any());
+    }
+
+    @Test
+    void sweepTest_boundsChunksInFlight() {
+        when(leaseRepository.acquire(eq(OverdueTaskSweeper.LEASE), any(), any(), any())).thenReturn(1);
+        when(taskRepository.findUnflaggedOverdue(any(), any(), eq(2))).thenAnswer(invocation -> {
+            TaskCursor after = invocation.getArgument(1);
+            long next = after == null ? 1 : after.id() + 1;
+            return next > 20 ? List.of() : chunk(next, next + 1);
+        });
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(taskService.flagOverdue(anyList(), any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            running.decrementAndGet();
+            return 2;
+        });
+
+        underTest.sweep();
+
+        assertThat(meterRegistry.get("task.sweeper.flagged").counter().count()).isEqualTo(20);
+        assertThat(maxRunning.get()).isBetween(1, 2);
+        assertThat(meterRegistry.get("task.sweeper.chunks.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void sweepTest_skipsWhileAnotherReplicaHoldsLease() {
+        when(leaseRepository.acquire(eq(OverdueTaskSweeper.LEASE), any(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById(OverdueTaskSweeper.LEASE)).thenReturn(true);
+
+        underTest.sweep();
+
+        verifyNoInteractions(taskRepository, taskService);
+        verify(leaseRepository, never()).release(any(), any(), any());
+        assertThat(meterRegistry.get("task.sweeper.runs").tag("result", "skipped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sweepTest_createsMissingLease() {
+        when(leaseRepository.acquire(eq(OverdueTaskSweeper.LEASE), any(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById(OverdueTaskSweeper.LEASE)).thenReturn(false);
+        when(taskRepository.findUnflaggedOverdue(any(), any(), eq(2))).thenReturn(List.of());
+
+        underTest.sweep();
+
+        verify(leaseRepository).create(eq(OverdueTaskSweeper.LEASE), any(), any());
+        verify(taskRepository).findUnflaggedOverdue(any(), isNull(), eq(2));
+    }
+
+    @Test
+    void sweepTest_anotherReplicaCreatedLeaseFirst() {
+        when(leaseRepository.acquire(eq(OverdueTaskSweeper.LEASE), any(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById(OverdueTaskSweeper.LEASE)).thenReturn(false);
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(leaseRepository).create(any(), any(), any());
+
+        underTest.sweep();
+
+        verifyNoInteractions(taskRepository);
+    }
+
+    private static List<TaskState> chunk(long from, long to) {
+        return LongStream.rangeClosed(from, to)
+                .mapToObj(id -> new TaskState(id, Status.CREATED, DUE_DATE_TIME))
+                .toList();
+    }
+}
@@ -0,0 +1,101 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.TaskArchiveProperties;
+import gov.uk.dts.task_api.repository.TaskJobLeaseRepository;
+import gov.uk.dts.task_api.repository.TaskPartitions;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TaskArchiverTest {
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final TaskArchiveService archiveService = mock(TaskArchiveService.class);
+    private final TaskPartitions partitions = mock(TaskPartitions.class);
+    private final TaskJobLeaseRepository leaseRepository = mock(TaskJobLeaseRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskArchiver underTest = new TaskArchiver(taskRepository, archiveService, partitions,
+            leaseRepository, new TaskArchiveProperties(true, Duration.ofHours(1), Duration.ofDays(30), 2,
+            Duration.ofMinutes(10), true, 3), meterRegistry);
+
+    @Test
+    void archiveTest_movesChunksUntilNoneLeft() {
+        when(leaseRepository.acquire(eq(TaskArchiver.LEASE), any(), any(), any())).thenReturn(1);
+        when(taskRepository.findArchivable(any(), eq(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(archiveService.archive(anyList(), any(), any()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        underTest.archive();
+
+        verify(archiveService).archive(eq(List.of(1L, 2L)), any(), any());
+        verify(archiveService).archive(eq(List.of(3L)), any(), any());
+        verify(partitions).create(3);
+        verify(partitions).dropEmpty(LocalDate.now().withDayOfMonth(1));
+        assertThat(meterRegistry.get("task.archiver.archived").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("task.archiver.runs").tag("result", "completed").counter().count()).isEqualTo(1);
+        verify(leaseRepository).release(eq(TaskArchiver.LEASE), any(), any());
+    }
+
+    @Test
+    void archiveTest_stopsWhenAFullChunkWasReopened() {
+        when(leaseRepository.acquire(eq(TaskArchiver.LEASE), any(), any(), any())).thenReturn(1);
+        when(taskRepository.findArchivable(any(), eq(2))).thenReturn(List.of(1L, 2L));
+        when(archiveService.archive(anyList(), any(), any())).thenReturn(0);
+
+        underTest.archive();
+
+        verify(archiveService).archive(eq(List.of(1L, 2L)), any(), any());
+        assertThat(meterRegistry.get("task.archiver.runs").tag("result", "completed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void archiveTest_failedChunkStopsTheRun() {
+        when(leaseRepository.acquire(eq(TaskArchiver.LEASE), any(), any(), any())).thenReturn(1);
+        when(taskRepository.findArchivable(any(), eq(2))).thenReturn(List.of(1L, 2L));
+        when(archiveService.archive(anyList(), any(), any())).thenThrow(new IllegalStateException("deadlock"));
+
+        underTest.archive();
+
+        assertThat(meterRegistry.get("task.archiver.runs").tag("result", "failed").counter().count()).isEqualTo(1);
+        verify(leaseRepository).release(eq(TaskArchiver.LEASE), any(), any());
+    }
+
+    @Test
+    void archiveTest_skippedWhenAnotherReplicaHoldsTheLease() {
+        when(leaseRepository.acquire(eq(TaskArchiver.LEASE), any(), any(), any())).thenReturn(0);
+        when(leaseRepository.existsById(TaskArchiver.LEASE)).thenReturn(true);
+
+        underTest.archive();
+
+        verifyNoInteractions(taskRepository, archiveService, partitions);
+        verify(leaseRepository, never()).release(any(), any(), any());
+        assertThat(meterRegistry.get("task.archiver.runs").tag("result", "skipped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void archiveTest_disabledDoesNothing() {
+        TaskArchiver disabled = new TaskArchiver(taskRepository, archiveService, partitions, leaseRepository,
+                new TaskArchiveProperties(false, Duration.ofHours(1), Duration.ofDays(30), 2,
+                        Duration.ofMinutes(10), true, 3), meterRegistry);
+
+        disabled.archive();
+
+        verifyNoInteractions(taskRepository, archiveService, partitions, leaseRepository);
+    }
+}
@@ -0,0 +1,61 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.CacheConfig;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TaskCacheInvalidatorTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.TASK_CACHE);
+    private final EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    private final Cache secondLevelCache = mock(Cache.class);
+    private final CacheInvalidationBroadcaster broadcaster = mock(CacheInvalidationBroadcaster.class);
+    private final TaskCacheInvalidator underTest = new TaskCacheInvalidator(cacheManager, entityManagerFactory, broadcaster);
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+        when(secondLevelCache.unwrap(Cache.class)).thenReturn(secondLevelCache);
+    }
+
+    @Test
+    void onTaskChangedTest_evictsAndBroadcasts() {
+        var cache = cacheManager.getCache(CacheConfig.TASK_CACHE);
+        cache.put(100L, "cached");
+        cache.put(101L, "cached");
+
+        underTest.onTaskChanged(TaskChangedEvent.deleted(100L));
+
+        assertThat(cache.get(100L)).isNull();
+        assertThat(cache.get(101L)).isNotNull();
+        verify(broadcaster).broadcast(100L);
+    }
+
+    @Test
+    void evictTest_doesNotBroadcast() {
+        var cache = cacheManager.getCache(CacheConfig.TASK_CACHE);
+        cache.put(100L, "cached");
+
+        underTest.evict(100L);
+
+        assertThat(cache.get(100L)).isNull();
+        verifyNoInteractions(broadcaster);
+    }
+
+    @Test
+    void evictTest_dropsCachedPages() {
+        underTest.evict(100L);
+
+        verify(secondLevelCache).evictQueryRegion(CacheConfig.TASK_PAGE_REGION);
+    }
+}
@@ -0,0 +1,237 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.TaskGroupCommitProperties;
+import gov.uk.dts.task_api.dto.TaskRequest;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TaskCreateQueueTest {
+
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.of(2030, 1, 1, 10, 0);
+
+    private final TaskService taskService = mock(TaskService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+    // the first batch waits here, so later creates queue up behind it
+    private final CountDownLatch firstBatchStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+    private TaskCreateQueue underTest;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseFirstBatch.countDown();
+        if (underTest != null) {
+            underTest.shutdown();
+        }
+    }
+
+    @Test
+    void submitTest_queuedCreatesShareOneCommit() throws Exception {
+        underTest = queue(10, 10);
+        holdFirstBatch();
+
+        CompletableFuture<TaskResponse> first = underTest.submit(request("first"));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        List<CompletableFuture<TaskResponse>> queued = IntStream.range(0, 3)
+                .mapToObj(i -> submit(request("queued " + i)))
+                .toList();
+        releaseFirstBatch.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("first");
+        assertThat(queued.stream().map(CompletableFuture::join).map(TaskResponse::getTitle))
+                .containsExactly("queued 0", "queued 1", "queued 2");
+        assertThat(batches).containsExactly(1, 3);
+        assertThat(meterRegistry.get("task.group-commit.batch.size").summary().totalAmount()).isEqualTo(4);
+    }
+
+    @Test
+    void submitTest_batchesAreCappedAtMaxBatch() throws Exception {
+        underTest = queue(10, 2);
+        holdFirstBatch();
+
+        CompletableFuture<TaskResponse> first = underTest.submit(request("first"));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        List<CompletableFuture<TaskResponse>> queued = IntStream.range(0, 5)
+                .mapToObj(i -> submit(request("queued " + i)))
+                .toList();
+        releaseFirstBatch.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        queued.forEach(CompletableFuture::join);
+        assertThat(batches).containsExactly(1, 2, 2, 1);
+        assertThat(queued.stream().map(CompletableFuture::join).map(TaskResponse::getId).distinct()).hasSize(5);
+    }
+
+    @Test
+    void submitTest_fullQueueIsRefused() throws Exception {
+        underTest = queue(1, 10);
+        holdFirstBatch();
+
+        underTest.submit(request("first"));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        underTest.submit(request("queued"));
+
+        assertThatThrownBy(() -> underTest.submit(request("refused")))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.get("task.group-commit.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void submitTest_failedBatchIsRetriedOneByOne() throws Exception {
+        underTest = queue(10, 10);
+        TaskRequest good = request("good");
+        TaskRequest bad = request("bad");
+        when(taskService.createGroup(anyList())).thenThrow(new IllegalStateException("constraint violated"));
+        when(taskService.create(eq(good))).thenReturn(response(good));
+        when(taskService.create(eq(bad))).thenThrow(new IllegalStateException("constraint violated"));
+
+        CompletableFuture<TaskResponse> created = underTest.submit(good);
+        CompletableFuture<TaskResponse> failed = underTest.submit(bad);
+
+        assertThat(created.get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("good");
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void submitTest_writerErrorFailsItsBatchAndKeepsWriting() throws Exception {
+        underTest = queue(10, 10);
+        TaskRequest good = request("good");
+        when(taskService.createGroup(anyList()))
+                .thenThrow(new AssertionError("writer bug"))
+                .thenAnswer(invocation -> invocation.<List<TaskRequest>>getArgument(0).stream().map(this::response).toList());
+
+        CompletableFuture<TaskResponse> failed = underTest.submit(request("failed"));
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(AssertionError.class);
+
+        assertThat(underTest.submit(good).get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("good");
+    }
+
+    @Test
+    void withdrawTest_onlyQueuedCreatesAreWithdrawn() throws Exception {
+        underTest = queue(10, 10);
+        holdFirstBatch();
+
+        CompletableFuture<TaskResponse> first = underTest.submit(request("first"));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(underTest.withdraw(underTest.submit(request("withdrawn")))).isTrue();
+        CompletableFuture<TaskResponse> queued = underTest.submit(request("queued"));
+        // taken by the writer, it is created whatever its request does
+        assertThat(underTest.withdraw(first)).isFalse();
+        releaseFirstBatch.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("first");
+        assertThat(queued.get(5, TimeUnit.SECONDS).getTitle()).isEqualTo("queued");
+        assertThat(batches).containsExactly(1, 1);
+    }
+
+    @Test
+    void submitTest_stoppedWriterRefusesNewCreates() throws Exception {
+        underTest = queue(10, 10);
+        Thread writer = writerThread();
+
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(writer.isAlive()).isFalse();
+        assertThatThrownBy(() -> underTest.submit(request("refused")))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void submitTest_disabledRefusesEveryCreate() {
+        underTest = new TaskCreateQueue(taskService, new TaskGroupCommitProperties(false, 10, Duration.ofMillis(20),
+                10, Duration.ofMillis(10), Duration.ofSeconds(5)), meterRegistry);
+
+        assertThat(underTest.enabled()).isFalse();
+        assertThatThrownBy(() -> underTest.submit(request("refused")))
+                .isInstanceOf(RejectedExecutionException.class);
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void shutdownTest_commitsQueuedCreatesThenRefusesNewOnes() throws Exception {
+        underTest = queue(10, 10);
+        holdFirstBatch();
+
+        CompletableFuture<TaskResponse> first = underTest.submit(request("first"));
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<TaskResponse> queued = underTest.submit(request("queued"));
+        releaseFirstBatch.countDown();
+        underTest.shutdown();
+
+        assertThat(first.isDone()).isTrue();
+        assertThat(queued.join().getTitle()).isEqualTo("queued");
+        assertThatThrownBy(() -> underTest.submit(request("refused")))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private TaskCreateQueue queue(int queueCapacity, int maxBatch) {
+        return new TaskCreateQueue(taskService, new TaskGroupCommitProperties(true, maxBatch, Duration.ofMillis(20),
+                queueCapacity, Duration.ofMillis(10), Duration.ofSeconds(5)), meterRegistry);
+    }
+
+    private void holdFirstBatch() {
+        when(taskService.createGroup(anyList())).thenAnswer(invocation -> {
+            List<TaskRequest> requests = invocation.getArgument(0);
+            batches.add(requests.size());
+            firstBatchStarted.countDown();
+            assertThat(releaseFirstBatch.await(5, TimeUnit.SECONDS)).isTrue();
+            return requests.stream().map(this::response).toList();
+        });
+    }
+
+    private static Thread writerThread() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("task-group-commit"))
+                .findFirst().orElseThrow();
+    }
+
+    private CompletableFuture<TaskResponse> submit(TaskRequest request) {
+        try {
+            return underTest.submit(request);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private TaskResponse response(TaskRequest request) {
+        return TaskResponse.builder()
+                .id(nextId.getAndIncrement())
+                .title(request.getTitle())
+                .status(request.getStatus())
+                .dueDateTime(request.getDueDateTime())
+                .build();
+    }
+
+    private static TaskRequest request(String title) {
+        return new TaskRequest(title, null, Status.CREATED, DUE_DATE_TIME);
+    }
+}
@@ -0,0 +1,227 @@
+package gov.uk.dts.task_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import gov.uk.dts.task_api.config.TaskBatchProperties;
+import gov.uk.dts.task_api.config.TaskEventProperties;
+import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskEventStreamTest {
+
+    // a subscriber queues 4 changes on top of the largest bulk request, 12 in all
+    private static final int BULK_MAX_ITEMS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskEventStream underTest = new TaskEventStream(
+            new TaskEventProperties(4, 4, Duration.ofHours(1), Duration.ofMinutes(30)),
+            new TaskBatchProperties(BULK_MAX_ITEMS, 500), new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+
+    @AfterEach
+    void shutdown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void subscribeTest_receivesNewChanges() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        underTest.subscribe(null, emitter);
+
+        underTest.onTaskChanged(TaskChangedEvent.created(task(1L)));
+        underTest.onTaskChanged(TaskChangedEvent.deleted(1L));
+
+        await(() -> emitter.frames.size() == 2);
+        assertThat(emitter.frames.get(0)).contains(id(1), "event:created\n", "\"taskId\":1", "\"title\":\"Title\"");
+        assertThat(emitter.frames.get(1)).contains(id(2), "event:deleted\n", "\"task\":null");
+        assertThat(meterRegistry.get("task.events.subscribers").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribeTest_replaysChangesAfterLastEventId() {
+        underTest.onTaskChanged(TaskChangedEvent.created(task(1L)));
+        underTest.onTaskChanged(TaskChangedEvent.updated(task(1L)));
+        underTest.onTaskChanged(TaskChangedEvent.deleted(1L));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        underTest.subscribe(underTest.eventId(1), emitter);
+        underTest.onTaskChanged(TaskChangedEvent.created(task(2L)));
+
+        await(() -> emitter.frames.size() == 3);
+        assertThat(emitter.frames).extracting(frame -> frame.substring(0, frame.indexOf('\n') + 1))
+                .containsExactly(id(2), id(3), id(4));
+    }
+
+    @Test
+    void subscribeTest_resetsWhenLastEventIdIsNoLongerBuffered() {
+        for (long id = 1; id <= 6; id++) {
+            underTest.onTaskChanged(TaskChangedEvent.deleted(id));
+        }
+
+        RecordingEmitter behind = new RecordingEmitter();
+        underTest.subscribe(underTest.eventId(1), behind);
+        RecordingEmitter ahead = new RecordingEmitter();
+        underTest.subscribe(underTest.eventId(99), ahead);
+
+        await(() -> behind.frames.size() == 1 && ahead.frames.size() == 1);
+        assertThat(behind.frames.getFirst()).startsWith(id(6) + "event:reset\n");
+        assertThat(ahead.frames.getFirst()).startsWith(id(6) + "event:reset\n");
+    }
+
+    @Test
+    void subscribeTest_resetsWhenLastEventIdIsFromAnotherEpoch() {
+        underTest.onTaskChanged(TaskChangedEvent.deleted(1L));
+        underTest.onTaskChanged(TaskChangedEvent.deleted(2L));
+
+        // a restarted stream or another replica numbers its changes from 1 too
+        RecordingEmitter restarted = new RecordingEmitter();
+        underTest.subscribe("0-1", restarted);
+        RecordingEmitter legacy = new RecordingEmitter();
+        underTest.subscribe("1", legacy);
+
+        await(() -> restarted.frames.size() == 1 && legacy.frames.size() == 1);
+        assertThat(restarted.frames.getFirst()).startsWith(id(2) + "event:reset\n");
+        assertThat(legacy.frames.getFirst()).startsWith(id(2) + "event:reset\n");
+    }
+
+    @Test
+    void onTaskChangedTest_disconnectsSlowSubscriber() {
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(unblock);
+        RecordingEmitter fast = new RecordingEmitter();
+        underTest.subscribe(null, slow);
+        underTest.subscribe(null, fast);
+
+        // blocked sending the connected comment, twelve changes fill the queue and the thirteenth overflows it
+        await(() -> slow.sending);
+        for (long id = 1; id <= 13; id++) {
+            underTest.onTaskChanged(TaskChangedEvent.deleted(id));
+            int sent = (int) id;
+            await(() -> fast.frames.size() == sent);
+        }
+
+        await(() -> slow.completed);
+        assertThat(underTest.subscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("task.events.disconnects").tag("reason", "slow_consumer").counter().count())
+                .isEqualTo(1);
+        unblock.countDown();
+    }
+
+    @Test
+    void onTaskChangedTest_largestBulkKeepsSubscribersConnected() {
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingEmitter subscriber = new RecordingEmitter(unblock);
+        underTest.subscribe(null, subscriber);
+
+        // published together as the bulk request commits, while the subscriber is still sending
+        await(() -> subscriber.sending);
+        for (long id = 1; id <= BULK_MAX_ITEMS; id++) {
+            underTest.onTaskChanged(TaskChangedEvent.deleted(id));
+        }
+        unblock.countDown();
+
+        await(() -> subscriber.frames.size() == BULK_MAX_ITEMS);
+        assertThat(subscriber.completed).isFalse();
+        assertThat(underTest.subscriberCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("task.events.disconnects").tag("reason", "slow_consumer").counter().count())
+                .isZero();
+    }
+
+    @Test
+    void onTaskChangedTest_removesSubscriberWhenSendFails() {
+        RecordingEmitter emitter = new RecordingEmitter(null, true);
+        underTest.subscribe(null, emitter);
+
+        underTest.onTaskChanged(TaskChangedEvent.deleted(1L));
+
+        await(() -> underTest.subscriberCount() == 0);
+    }
+
+    private String id(long sequence) {
+        return "id:" + underTest.eventId(sequence) + "\n";
+    }
+
+    private static TaskResponse task(Long id) {
+        return TaskResponse.builder()
+                .id(id)
+                .title("Title")
+                .status(Status.CREATED)
+                .dueDateTime(LocalDateTime.of(2099, 1, 1, 10, 0))
+                .build();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Captures frames instead of writing to a response, optionally blocking or failing the send
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> frames = new CopyOnWriteArrayList<>();
+        private final CountDownLatch unblock;
+        private final boolean failing;
+        private volatile boolean sending;
+        private volatile boolean completed;
+
+        RecordingEmitter() {
+            this(null);
+        }
+
+        RecordingEmitter(CountDownLatch unblock) {
+            this(unblock, false);
+        }
+
+        RecordingEmitter(CountDownLatch unblock, boolean failing) {
+            this.unblock = unblock;
+            this.failing = failing;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            sending = true;
+            if (unblock != null) {
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String frame = items.stream().map(item -> item.getData().toString()).collect(Collectors.joining());
+            // connected and heartbeat comments
+            if (!frame.startsWith(":")) {
+                frames.add(frame);
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
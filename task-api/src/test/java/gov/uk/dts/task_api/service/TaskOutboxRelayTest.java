@@ -0,0 +1,84 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.config.TaskOutboxProperties;
+import gov.uk.dts.task_api.entity.TaskOutboxDao;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import gov.uk.dts.task_api.event.TaskEventSink;
+import gov.uk.dts.task_api.event.TaskOutboxMessage;
+import gov.uk.dts.task_api.repository.TaskOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskOutboxRelayTest {
+
+    private final TaskOutboxRepository outboxRepository = mock(TaskOutboxRepository.class);
+    private final TaskEventSink sink = mock(TaskEventSink.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskOutboxRelay underTest = new TaskOutboxRelay(outboxRepository, sink,
+            new TaskOutboxProperties(2, Duration.ofSeconds(1), null),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry);
+
+    @Test
+    void relayTest_drainsFullBatchesThenStops() {
+        when(outboxRepository.lockNextBatch(2))
+                .thenReturn(List.of(row(1L), row(2L)))
+                .thenReturn(List.of(row(3L)));
+
+        underTest.relay();
+
+        verify(outboxRepository, times(2)).lockNextBatch(2);
+        verify(sink).publish(List.of(message(1L), message(2L)));
+        verify(sink).publish(List.of(message(3L)));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepository).deleteAllByIdInBatch(List.of(3L));
+        assertThat(meterRegistry.get("task.outbox.relayed").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void relayTest_emptyOutbox() {
+        when(outboxRepository.lockNextBatch(2)).thenReturn(List.of());
+
+        underTest.relay();
+
+        verify(sink, never()).publish(anyList());
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void relayTest_sinkFailureKeepsBatch() {
+        when(outboxRepository.lockNextBatch(2)).thenReturn(List.of(row(1L), row(2L)));
+        doThrow(new IllegalStateException("broker unavailable")).when(sink).publish(anyList());
+
+        underTest.relay();
+
+        verify(outboxRepository, never()).deleteAllByIdInBatch(any());
+        assertThat(meterRegistry.get("task.outbox.failures").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("task.outbox.relayed").counter().count()).isZero();
+    }
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    private static TaskOutboxDao row(Long id) {
+        return new TaskOutboxDao(id, TaskChangedEvent.Type.DELETED, id * 10, "{}", CREATED_AT);
+    }
+
+    private static TaskOutboxMessage message(Long id) {
+        return new TaskOutboxMessage(id, TaskChangedEvent.Type.DELETED, id * 10, "{}", CREATED_AT);
+    }
+}
@@ -1,33 +1,74 @@
 package gov.uk.dts.task_api.service;
 
+import gov.uk.dts.task_api.config.TaskBatchProperties;
+import gov.uk.dts.task_api.config.TaskPageProperties;
+import gov.uk.dts.task_api.dto.TaskBatchResult;
+import gov.uk.dts.task_api.dto.TaskCursor;
+import gov.uk.dts.task_api.dto.TaskFilter;
 import gov.uk.dts.task_api.dto.TaskRequest;
 import gov.uk.dts.task_api.dto.TaskResponse;
+import gov.uk.dts.task_api.dto.TaskSearchCursor;
+import gov.uk.dts.task_api.dto.TaskUpdateRequest;
 import gov.uk.dts.task_api.entity.TaskDao;
+import gov.uk.dts.task_api.event.TaskChangedEvent;
+import gov.uk.dts.task_api.event.TaskStateChangedEvent;
 import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.repository.TaskSearchHit;
+import gov.uk.dts.task_api.repository.TaskSearchIndex;
+import gov.uk.dts.task_api.repository.TaskState;
+import gov.uk.dts.task_api.repository.TaskUpdate;
 import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(OutputCaptureExtension.class)
 class TaskServiceImplTest {
 
     private final TaskRepository taskRepository = mock(TaskRepository.class);
-    private final TaskServiceImpl underTest = new TaskServiceImpl(taskRepository);
+    private final TaskSearchIndex searchIndex = mock(TaskSearchIndex.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskServiceImpl underTest = new TaskServiceImpl(taskRepository, searchIndex, new TaskPageProperties(2, 3),
+            new TaskBatchProperties(10, 2), entityManager, Validation.buildDefaultValidatorFactory().getValidator(), eventPublisher,
+            meterRegistry);
 
-    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2);
-    private static final TaskDao TASK_DAO = new TaskDao(100L, "Test Task", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME, null);
+    private static final LocalDateTime DUE_DATE_TIME = LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.MICROS);
+    private static final TaskDao TASK_DAO = new TaskDao(100L, "Test Task", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME, null, null);
+    private static final TaskResponse TASK_RESPONSE = response(100L);
     private static final TaskRequest TASK_REQUEST = new TaskRequest("Test Task", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME);
+    private static final TaskState TASK_STATE = new TaskState(100L, Status.IN_PROGRESS, DUE_DATE_TIME);
+    private static final TaskState CREATED_STATE = new TaskState(100L, Status.CREATED, DUE_DATE_TIME.minusDays(1));
 
     @Test
     void createTaskTest(CapturedOutput output) {
@@ -37,29 +78,74 @@ class TaskServiceImplTest {
                 .extracting(TaskResponse::getId, TaskResponse::getTitle, TaskResponse::getDescription, TaskResponse::getStatus, TaskResponse::getDueDateTime)
                 .containsExactly(100L, TASK_REQUEST.getTitle(), TASK_REQUEST.getDescription(), TASK_REQUEST.getStatus(), TASK_REQUEST.getDueDateTime());
         assertThat(output.getOut()).contains("Task created successfully with id 100");
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(TaskChangedEvent.Type.CREATED, 100L, result));
+        verify(eventPublisher).publishEvent(TaskStateChangedEvent.created(TASK_STATE));
     }
 
     @Test
     void updateTaskTest(CapturedOutput output) {
-        when(taskRepository.findById(100L)).thenReturn(Optional.of(TASK_DAO));
-        when(taskRepository.save(any(TaskDao.class))).thenReturn(TASK_DAO);
-        var result = underTest.update(TASK_REQUEST, 100L);
+        when(taskRepository.updateReturningState(eq(100L), eq(null), eq(TASK_REQUEST.getTitle()), eq(TASK_REQUEST.getDescription()),
+                eq(TASK_REQUEST.getStatus()), eq(TASK_REQUEST.getDueDateTime()), any(LocalDateTime.class), eq(true)))
+                .thenReturn(Optional.of(new TaskUpdate(CREATED_STATE, 5L, null)));
+        var result = underTest.update(TASK_REQUEST, 100L, null);
         assertThat(result.get())
-                .extracting(TaskResponse::getId, TaskResponse::getTitle, TaskResponse::getDescription, TaskResponse::getStatus, TaskResponse::getDueDateTime)
-                .containsExactly(100L, TASK_REQUEST.getTitle(), TASK_REQUEST.getDescription(), TASK_REQUEST.getStatus(), TASK_REQUEST.getDueDateTime());
+                .extracting(TaskResponse::getId, TaskResponse::getTitle, TaskResponse::getDescription, TaskResponse::getStatus,
+                        TaskResponse::getDueDateTime, TaskResponse::getVersion)
+                .containsExactly(100L, TASK_REQUEST.getTitle(), TASK_REQUEST.getDescription(), TASK_REQUEST.getStatus(),
+                        TASK_REQUEST.getDueDateTime(), 5L);
         assertThat(output.getOut()).contains("Task updated successfully with id 100");
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(TaskChangedEvent.Type.UPDATED, 100L, result.get()));
+        verify(eventPublisher).publishEvent(TaskStateChangedEvent.updated(CREATED_STATE, TASK_STATE));
     }
 
     @Test
     void updateTaskTest_idNotExists() {
-        when(taskRepository.findById(1L)).thenReturn(Optional.empty());
-        var result = underTest.update(TASK_REQUEST, 1L);
+        when(taskRepository.updateReturningState(eq(1L), eq(null), any(), any(), any(), any(), any(), eq(true))).thenReturn(Optional.empty());
+        var result = underTest.update(TASK_REQUEST, 1L, null);
         assertThat(result.isEmpty()).isTrue();
+        verify(taskRepository, never()).existsById(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateTaskTest_keepsOverdueFlagWhileStillPastDue() {
+        TaskRequest pastDue = new TaskRequest("Test Task", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME.minusDays(5));
+        LocalDateTime overdueAt = DUE_DATE_TIME.minusDays(3);
+        when(taskRepository.updateReturningState(eq(100L), eq(3L), any(), any(), any(), any(), any(), eq(false)))
+                .thenReturn(Optional.of(new TaskUpdate(TASK_STATE, 4L, overdueAt)));
+        var result = underTest.update(pastDue, 100L, 3L);
+        assertThat(result.get().getOverdueAt()).isEqualTo(overdueAt);
+    }
+
+    @Test
+    void updateTaskTest_expectedVersion() {
+        when(taskRepository.updateReturningState(eq(100L), eq(3L), eq(TASK_REQUEST.getTitle()), eq(TASK_REQUEST.getDescription()),
+                eq(TASK_REQUEST.getStatus()), eq(TASK_REQUEST.getDueDateTime()), any(LocalDateTime.class), eq(true)))
+                .thenReturn(Optional.of(new TaskUpdate(TASK_STATE, 4L, null)));
+        var result = underTest.update(TASK_REQUEST, 100L, 3L);
+        assertThat(result.get().getVersion()).isEqualTo(4L);
+        verify(taskRepository, never()).existsById(any());
+    }
+
+    @Test
+    void updateTaskTest_versionConflict() {
+        when(taskRepository.updateReturningState(eq(100L), eq(3L), any(), any(), any(), any(), any(), eq(true))).thenReturn(Optional.empty());
+        when(taskRepository.existsById(100L)).thenReturn(true);
+        assertThatThrownBy(() -> underTest.update(TASK_REQUEST, 100L, 3L))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateTaskTest_expectedVersionIdNotExists() {
+        when(taskRepository.updateReturningState(eq(1L), eq(3L), any(), any(), any(), any(), any(), eq(true))).thenReturn(Optional.empty());
+        when(taskRepository.existsById(1L)).thenReturn(false);
+        assertThat(underTest.update(TASK_REQUEST, 1L, 3L)).isEmpty();
     }
 
     @Test
     void getByIdTaskTest() {
-        when(taskRepository.findById(100L)).thenReturn(Optional.of(TASK_DAO));
+        when(taskRepository.findResponseById(100L)).thenReturn(Optional.of(TASK_RESPONSE));
         var result = underTest.getByTaskId(100L);
         assertThat(result.get())
                 .extracting(TaskResponse::getId, TaskResponse::getTitle, TaskResponse::getDescription, TaskResponse::getStatus, TaskResponse::getDueDateTime)
@@ -68,14 +154,14 @@ class TaskServiceImplTest {
 
     @Test
     void getByIdTaskTest_idNotExists() {
-        when(taskRepository.findById(1L)).thenReturn(Optional.empty());
+        when(taskRepository.findResponseById(1L)).thenReturn(Optional.empty());
         var result = underTest.getByTaskId(1L);
         assertThat(result.isEmpty()).isTrue();
     }
 
     @Test
     void getAllTaskTest() {
-        when(taskRepository.findAll()).thenReturn(List.of(TASK_DAO, TASK_DAO, TASK_DAO, TASK_DAO));
+        when(taskRepository.findAllResponses()).thenReturn(List.of(TASK_RESPONSE, TASK_RESPONSE, TASK_RESPONSE, TASK_RESPONSE));
         var result = underTest.getAll();
         assertThat(result.size()).isEqualTo(4);
         assertThat(result)
@@ -83,18 +169,210 @@ class TaskServiceImplTest {
                 .containsExactly(100L, 100L, 100L, 100L);
     }
 
+    @Test
+    void getPageTest_hasNextPage() {
+        var filter = TaskFilter.none();
+        when(taskRepository.findPage(filter, null, 3)).thenReturn(List.of(TASK_RESPONSE, response(101L), response(102L)));
+        var result = underTest.getPage(filter, null, null);
+        assertThat(result.getTasks())
+                .extracting(TaskResponse::getId)
+                .containsExactly(100L, 101L);
+        assertThat(TaskCursor.valueOf(result.getNextCursor())).isEqualTo(new TaskCursor(DUE_DATE_TIME, 101L));
+    }
+
+    @Test
+    void getPageTest_lastPage() {
+        var filter = new TaskFilter(List.of(Status.IN_PROGRESS), null, null);
+        var cursor = new TaskCursor(DUE_DATE_TIME, 99L);
+        when(taskRepository.findPage(filter, cursor, 3)).thenReturn(List.of(TASK_RESPONSE));
+        var result = underTest.getPage(filter, cursor, 2);
+        assertThat(result.getTasks())
+                .extracting(TaskResponse::getId)
+                .containsExactly(100L);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getPageTest_sizeClampedToMax() {
+        var filter = TaskFilter.none();
+        when(taskRepository.findPage(any(TaskFilter.class), any(), any(Integer.class))).thenReturn(List.of());
+        underTest.getPage(filter, null, 1000);
+        verify(taskRepository).findPage(filter, null, 4);
+    }
+
+    @Test
+    void searchTest_keepsRankOrderAndSkipsDeletedTasks() {
+        when(searchIndex.search("test", null, 3)).thenReturn(List.of(
+                new TaskSearchHit(101L, 0.9f), new TaskSearchHit(99L, 0.8f), new TaskSearchHit(100L, 0.5f)));
+        when(taskRepository.findResponsesByIds(List.of(101L, 99L))).thenReturn(List.of(response(101L)));
+        var result = underTest.search("test", null, null);
+        assertThat(result.getTasks())
+                .extracting(TaskResponse::getId)
+                .containsExactly(101L);
+        assertThat(TaskSearchCursor.valueOf(result.getNextCursor())).isEqualTo(new TaskSearchCursor(0.8f, 99L));
+    }
+
+    @Test
+    void searchTest_lastPage() {
+        var cursor = new TaskSearchCursor(0.9f, 101L);
+        when(searchIndex.search("test", cursor, 3)).thenReturn(List.of(new TaskSearchHit(100L, 0.5f)));
+        when(taskRepository.findResponsesByIds(List.of(100L))).thenReturn(List.of(TASK_RESPONSE));
+        var result = underTest.search("test", cursor, 2);
+        assertThat(result.getTasks())
+                .extracting(TaskResponse::getId)
+                .containsExactly(100L);
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void exportAllTaskTest() {
+        when(taskRepository.streamAllResponses()).thenReturn(Stream.of(TASK_RESPONSE, response(101L)));
+        var exported = new ArrayList<TaskResponse>();
+        underTest.exportAll(exported::add);
+        assertThat(exported)
+                .extracting(TaskResponse::getId)
+                .containsExactly(100L, 101L);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void createAllTaskTest(CapturedOutput output) {
+        long[] nextId = {200L};
+        doAnswer(invocation -> {
+            invocation.getArgument(0, TaskDao.class).setId(nextId[0]++);
+            return null;
+        }).when(entityManager).persist(any(TaskDao.class));
+        var invalid = new TaskRequest(null, "Task description", Status.CREATED, DUE_DATE_TIME);
+
+        var result = underTest.createAll(Arrays.asList(TASK_REQUEST, invalid, null, TASK_REQUEST));
+
+        assertThat(result)
+                .extracting(TaskBatchResult::getIndex, TaskBatchResult::getStatus, TaskBatchResult::getId)
+                .containsExactly(
+                        tuple(0, 201, 200L),
+                        tuple(1, 400, null),
+                        tuple(2, 400, null),
+                        tuple(3, 201, 201L));
+        assertThat(result.get(1).getErrors())
+                .extracting("field", "message")
+                .containsExactly(tuple("title", "Title is required"));
+        verify(entityManager, times(2)).persist(any(TaskDao.class));
+        verify(entityManager).flush();
+        assertThat(output.getOut()).contains("Bulk created 2 of 4 tasks");
+        assertThat(meterRegistry.counter("task.batch.items", "operation", "create", "status", "201").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("task.batch.items", "operation", "create", "status", "400").count()).isEqualTo(2);
+        assertThat(meterRegistry.summary("task.batch.size", "operation", "create").totalAmount()).isEqualTo(4);
+    }
+
+    @Test
+    void createGroupTaskTest() {
+        long[] nextId = {300L};
+        doAnswer(invocation -> {
+            invocation.getArgument(0, TaskDao.class).setId(nextId[0]++);
+            return null;
+        }).when(entityManager).persist(any(TaskDao.class));
+
+        var result = underTest.createGroup(List.of(TASK_REQUEST, TASK_REQUEST, TASK_REQUEST));
+
+        assertThat(result).extracting(TaskResponse::getId).containsExactly(300L, 301L, 302L);
+        verify(entityManager, times(3)).persist(any(TaskDao.class));
+        verify(entityManager).flush();
+        verify(eventPublisher, times(3)).publishEvent(any(TaskChangedEvent.class));
+        verify(eventPublisher, times(3)).publishEvent(any(TaskStateChangedEvent.class));
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void updateAllTaskTest() {
+        var dao = new TaskDao(100L, "Old Task", "Old description", Status.CREATED, DUE_DATE_TIME, null, 2L);
+        var stale = new TaskDao(3L, "Old Task", "Old description", Status.CREATED, DUE_DATE_TIME, null, 5L);
+        when(taskRepository.findAllById(List.of(100L, 1L))).thenReturn(List.of(dao));
+        when(taskRepository.findAllById(List.of(3L))).thenReturn(List.of(stale));
+        var invalid = new TaskRequest("Test Task", "Task description", null, DUE_DATE_TIME);
+
+        var result = underTest.updateAll(List.of(new TaskUpdateRequest(100L, TASK_REQUEST, 2L),
+                new TaskUpdateRequest(1L, TASK_REQUEST, null),
+                new TaskUpdateRequest(2L, invalid, null),
+                new TaskUpdateRequest(3L, TASK_REQUEST, 4L)));
+
+        assertThat(result)
+                .extracting(TaskBatchResult::getStatus, TaskBatchResult::getId)
+                .containsExactly(
+                        tuple(200, 100L),
+                        tuple(404, 1L),
+                        tuple(400, 2L),
+                        tuple(412, 3L));
+        assertThat(stale.getTitle()).isEqualTo("Old Task");
+        assertThat(result.getFirst().getTask().getTitle()).isEqualTo(TASK_REQUEST.getTitle());
+        assertThat(dao.getStatus()).isEqualTo(TASK_REQUEST.getStatus());
+        verify(eventPublisher).publishEvent(TaskStateChangedEvent.updated(
+                new TaskState(100L, Status.CREATED, DUE_DATE_TIME), TASK_STATE));
+        assertThat(result.get(2).getErrors())
+                .extracting("field")
+                .containsExactly("task.status");
+    }
+
+    @Test
+    void deleteAllTaskTest() {
+        when(taskRepository.lockStatesByIds(List.of(100L, 1L))).thenReturn(List.of(TASK_STATE));
+
+        var result = underTest.deleteAll(List.of(100L, 1L));
+
+        assertThat(result)
+                .extracting(TaskBatchResult::getStatus, TaskBatchResult::getId)
+                .containsExactly(
+                        tuple(200, 100L),
+                        tuple(404, 1L));
+        verify(taskRepository).deleteAllByIdInBatch(Set.of(100L));
+        verify(eventPublisher).publishEvent(TaskChangedEvent.deleted(100L));
+        verify(eventPublisher).publishEvent(TaskStateChangedEvent.deleted(TASK_STATE));
+    }
+
+    @Test
+    void flagOverdueTest() {
+        var at = LocalDateTime.now();
+        var flagged = new TaskDao(100L, "Test Task", "Task description", Status.IN_PROGRESS, at.minusDays(1), null, 3L, at);
+        when(taskRepository.flagOverdue(List.of(100L, 1L), Status.OPEN, at)).thenReturn(1);
+        when(taskRepository.findByIdInAndOverdueAt(List.of(100L, 1L), at)).thenReturn(List.of(flagged));
+
+        assertThat(underTest.flagOverdue(List.of(100L, 1L), at)).isEqualTo(1);
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue()).isInstanceOfSatisfying(TaskChangedEvent.class,
+                changed -> assertThat(changed.task().getOverdueAt()).isEqualTo(at));
+    }
+
+    @Test
+    void flagOverdueTest_noneStillOverdue() {
+        var at = LocalDateTime.now();
+        when(taskRepository.flagOverdue(List.of(100L), Status.OPEN, at)).thenReturn(0);
+
+        assertThat(underTest.flagOverdue(List.of(100L), at)).isZero();
+
+        verify(taskRepository, never()).findByIdInAndOverdueAt(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void deleteTaskTest(CapturedOutput output) {
-        when(taskRepository.existsById(100L)).thenReturn(Boolean.TRUE);
+        when(taskRepository.removeReturningState(100L)).thenReturn(Optional.of(TASK_STATE));
         var result = underTest.delete(100L);
         assertThat(result).isTrue();
         assertThat(output.getOut()).contains("Task deleted successfully with id 100");
+        verify(eventPublisher).publishEvent(TaskChangedEvent.deleted(100L));
+        verify(eventPublisher).publishEvent(TaskStateChangedEvent.deleted(TASK_STATE));
     }
 
     @Test
     void deleteTaskTest_idNotExists() {
-        when(taskRepository.existsById(1L)).thenReturn(Boolean.FALSE);
+        when(taskRepository.removeReturningState(1L)).thenReturn(Optional.empty());
         var result = underTest.delete(1L);
         assertThat(result).isFalse();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static TaskResponse response(Long id) {
+        return new TaskResponse(id, "Test Task", "Task description", Status.IN_PROGRESS, DUE_DATE_TIME, null, null, null);
     }
 }
@@ -0,0 +1,191 @@
+package gov.uk.dts.task_api.service;
+
+import gov.uk.dts.task_api.dto.TaskStatsResponse;
+import gov.uk.dts.task_api.event.TaskStateChangedEvent;
+import gov.uk.dts.task_api.repository.DueDateTimeCount;
+import gov.uk.dts.task_api.repository.StatusCount;
+import gov.uk.dts.task_api.repository.TaskRepository;
+import gov.uk.dts.task_api.repository.TaskState;
+import gov.uk.dts.task_api.utility.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskStatisticsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 10, 0);
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final MutableClock clock = new MutableClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskStatistics underTest = new TaskStatistics(taskRepository, mock(PlatformTransactionManager.class),
+            meterRegistry, clock);
+
+    @Test
+    void onTaskStateChangedTest_movesCounters() {
+        TaskState created = new TaskState(1L, Status.CREATED, NOW.minusDays(1));
+        TaskState completed = new TaskState(1L, Status.COMPLETED, NOW.minusDays(1));
+
+        underTest.onTaskStateChanged(TaskStateChangedEvent.created(created));
+        underTest.onTaskStateChanged(TaskStateChangedEvent.created(new TaskState(2L, Status.IN_PROGRESS, NOW.plusDays(1))));
+        assertThat(underTest.get())
+                .extracting(TaskStatsResponse::getTotal, TaskStatsResponse::getOverdue)
+                .containsExactly(2L, 1L);
+
+        underTest.onTaskStateChanged(TaskStateChangedEvent.updated(created, completed));
+        TaskStatsResponse stats = underTest.get();
+        assertThat(stats.getCounts()).containsEntry(Status.CREATED, 0L).containsEntry(Status.COMPLETED, 1L);
+        assertThat(stats.getOverdue()).isZero();
+
+        underTest.onTaskStateChanged(TaskStateChangedEvent.deleted(completed));
+        assertThat(underTest.get().getTotal()).isEqualTo(1);
+        assertThat(meterRegistry.get("task.stats.tasks").tag("status", "IN_PROGRESS").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void getTest_countsTasksOverdueOnceDuePasses() {
+        underTest.onTaskStateChanged(TaskStateChangedEvent.created(new TaskState(1L, Status.CREATED, NOW.plusSeconds(30))));
+        underTest.onTaskStateChanged(TaskStateChangedEvent.created(new TaskState(2L, Status.CREATED, NOW.plusHours(1))));
+        underTest.onTaskStateChanged(TaskStateChangedEvent.created(new TaskState(3L, Status.CANCELLED, NOW.minusHours(1))));
+        assertThat(underTest.get().getOverdue()).isZero();
+
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(underTest.get().getOverdue()).isEqualTo(1);
+
+        clock.advance(Duration.ofHours(1));
+        assertThat(underTest.get().getOverdue()).isEqualTo(2);
+        assertThat(meterRegistry.get("task.stats.overdue").gauge().value()).isEqualTo(2);
+
+        // already counted as overdue, leaves the overdue count rather than the upcoming minutes
+        underTest.onTaskStateChanged(TaskStateChangedEvent.deleted(new TaskState(2L, Status.CREATED, NOW.plusHours(1))));
+        assertThat(underTest.get().getOverdue()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileTest_replacesCountersFromDb() {
+        // never published, e.g. a row written by hand
+        underTest.onTaskStateChanged(TaskStateChangedEvent.created(new TaskState(9L, Status.COMPLETED, NOW)));
+        when(taskRepository.countByStatus()).thenReturn(List.of(
+                new StatusCount(Status.CREATED, 3), new StatusCount(Status.IN_PROGRESS, 2)));
+        when(taskRepository.streamCountByDueDateTime(Status.OPEN)).thenReturn(Stream.of(
+                new DueDateTimeCount(NOW.minusDays(1), 2), new DueDateTimeCount(NOW.plusMinutes(10), 3)));
+
+        underTest.reconcile();
+
+        TaskStatsResponse stats = underTest.get();
+        assertThat(stats.getCounts())
+                .containsEntry(Status.CREATED, 3L)
+                .containsEntry(Status.IN_PROGRESS, 2L)
+                .containsEntry(Status.COMPLETED, 0L);
+        assertThat(stats.getOverdue()).isEqualTo(2);
+        assertThat(stats.getReconciledAt()).isEqualTo(NOW);
+        // the completed task counted in memory and the five missing tasks, two of them overdue
+        assertThat(meterRegistry.get("task.stats.drift").summary().totalAmount()).isEqualTo(8);
+
+        clock.advance(Duration.ofMinutes(11));
+        assertThat(underTest.get().getOverdue()).isEqualTo(5);
+    }
+
+    @Test
+    void reconcileTest_keepsChangesCommittedWhileReading() {
+        when(taskRepository.countByStatus()).thenAnswer(invocation -> {
+            // committed after the snapshot was taken, so not in the counts
+            underTest.onTaskStateChanged(TaskStateChangedEvent.created(new TaskState(2L, Status.CREATED, NOW.minusDays(1))));
+            return List.of(new StatusCount(Status.CREATED, 1));
+        });
+        when(taskRepository.streamCountByDueDateTime(Status.OPEN)).thenReturn(Stream.of(new DueDateTimeCount(NOW.minusDays(1), 1)));
+
+        underTest.reconcile();
+
+        assertThat(underTest.get())
+                .extracting(TaskStatsResponse::getTotal, TaskStatsResponse::getOverdue)
+                .containsExactly(2L, 2L);
+    }
+
+    @Test
+    void reconcileTest_countsChangesCommittedBeforeTheSnapshotOnce() {
+        TaskState created = new TaskState(2L, Status.CREATED, NOW.minusDays(1));
+        TaskState completed = new TaskState(1L, Status.COMPLETED, NOW.minusDays(1));
+        when(taskRepository.countByStatus()).thenAnswer(invocation -> {
+            // committed before the snapshot was taken but applied while reading, so already in the counts
+            underTest.onTaskStateChanged(TaskStateChangedEvent.created(created));
+            underTest.onTaskStateChanged(TaskStateChangedEvent.updated(new TaskState(1L, Status.CREATED, NOW.minusDays(1)), completed));
+            return List.of(new StatusCount(Status.CREATED, 1), new StatusCount(Status.COMPLETED, 1));
+        });
+        when(taskRepository.streamCountByDueDateTime(Status.OPEN)).thenReturn(Stream.of(new DueDateTimeCount(NOW.minusDays(1), 1)));
+        when(taskRepository.findStatesByIds(Set.of(1L, 2L))).thenReturn(List.of(created, completed));
+
+        underTest.reconcile();
+
+        TaskStatsResponse stats = underTest.get();
+        assertThat(stats.getCounts()).containsEntry(Status.CREATED, 1L).containsEntry(Status.COMPLETED, 1L);
+        assertThat(stats.getOverdue()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileTest_readsChangedTasksWithoutBlockingCommits() {
+        TaskState created = new TaskState(1L, Status.CREATED, NOW.minusDays(1));
+        TaskState open = new TaskState(2L, Status.CREATED, NOW.minusDays(1));
+        TaskState completed = new TaskState(2L, Status.COMPLETED, NOW.minusDays(1));
+        when(taskRepository.countByStatus()).thenAnswer(invocation -> {
+            underTest.onTaskStateChanged(TaskStateChangedEvent.created(created));
+            return List.of(new StatusCount(Status.CREATED, 2));
+        });
+        when(taskRepository.streamCountByDueDateTime(Status.OPEN)).thenReturn(Stream.of(new DueDateTimeCount(NOW.minusDays(1), 2)));
+        when(taskRepository.findStatesByIds(Set.of(1L))).thenAnswer(invocation -> {
+            // committed on another thread while the changed tasks are read, so after the snapshot
+            CompletableFuture.runAsync(() -> underTest.onTaskStateChanged(TaskStateChangedEvent.updated(open, completed)))
+                    .get(5, TimeUnit.SECONDS);
+            return List.of(created);
+        });
+
+        underTest.reconcile();
+
+        TaskStatsResponse stats = underTest.get();
+        assertThat(stats.getCounts()).containsEntry(Status.CREATED, 1L).containsEntry(Status.COMPLETED, 1L);
+        assertThat(stats.getOverdue()).isEqualTo(1);
+    }
+
+    /**
+     * Clock the tests move forward by hand
+     */
+    private static class MutableClock extends Clock {
+
+        private Instant instant = NOW.toInstant(ZoneOffset.UTC);
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}